@@ -0,0 +1,98 @@
+package org.wzl.depspider.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wzl.depspider.react.dto.ProjectFileRelation;
+import org.wzl.depspider.react.project.ReactProjectOperator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 依赖图查询的耗时
+ * 准备阶段扫描一次生成的项目得到文件关系，测量时只包含图算法本身，不包含文件扫描。
+ *
+ * @author weizhilong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphBenchmark {
+
+    @Param({"2000"})
+    public int fileCount;
+
+    @Param({"4"})
+    public int depth;
+
+    private File root;
+
+    private List<ProjectFileRelation> relations;
+
+    /**
+     * 没有扫描过项目的 operator，传入的关系与快照不一致，每次调用都根据传入的关系重新计算
+     */
+    private ReactProjectOperator operator;
+
+    /**
+     * 已经扫描过项目的 operator，查询复用快照中的依赖图
+     */
+    private ReactProjectOperator scanned;
+
+    private final List<File> sources = new ArrayList<>();
+
+    private final List<File> changedFiles = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("depspider-graph").toFile();
+        ProjectGenerator.generate(root, fileCount, depth, ProjectGenerator.DEFAULT_SEED);
+        scanned = new ReactProjectOperator(root.getAbsolutePath(), ProjectGenerator.configuration(1));
+        relations = scanned.jsxFileRelation();
+        operator = new ReactProjectOperator(root.getAbsolutePath(), ProjectGenerator.configuration(1));
+        //所有文件作为起始文件，每50个文件取一个作为修改的文件
+        for (int i = 0; i < relations.size(); i++) {
+            sources.add(relations.get(i).getTargetFile());
+            if (i % 50 == 0) {
+                changedFiles.add(relations.get(i).getTargetFile());
+            }
+        }
+        scanned.findReachableTargets(sources, changedFiles);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ProjectGenerator.delete(root);
+    }
+
+    @Benchmark
+    public List<ProjectFileRelation> deepSearchProjectRelation() {
+        return operator.deepSearchProjectRelation(relations);
+    }
+
+    /**
+     * 所有文件分别导入了哪些修改的文件
+     */
+    @Benchmark
+    public Map<File, List<File>> findReachableTargets() {
+        return scanned.findReachableTargets(sources, changedFiles);
+    }
+}
@@ -0,0 +1,81 @@
+package org.wzl.depspider.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wzl.depspider.ast.jsx.parser.JSXParse;
+import org.wzl.depspider.ast.jsx.parser.node.FileNode;
+import org.wzl.depspider.ast.jsx.visitor.JSXImportVisitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSXParse 完整解析、只解析import，以及 JSXImportVisitor 遍历的耗时
+ *
+ * @author weizhilong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    /**
+     * 源代码的大致行数
+     */
+    @Param({"100", "2000"})
+    public int lines;
+
+    private File root;
+
+    private String path;
+
+    private FileNode fileNode;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("depspider-parse").toFile();
+        File file = new File(root, "Large.jsx");
+        Files.write(file.toPath(), ProjectGenerator.largeComponentSource(lines).getBytes(StandardCharsets.UTF_8));
+        path = file.getAbsolutePath();
+        fileNode = new JSXParse(path).parse();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ProjectGenerator.delete(root);
+    }
+
+    @Benchmark
+    public FileNode parse() {
+        return new JSXParse(path).parse();
+    }
+
+    @Benchmark
+    public FileNode parseImportOnly() {
+        return new JSXParse(path).parse(true);
+    }
+
+    @Benchmark
+    public List<JSXImportVisitor.ImportRecord> importVisitor() {
+        JSXImportVisitor visitor = new JSXImportVisitor();
+        visitor.visit(fileNode);
+        return visitor.getImports();
+    }
+}
@@ -0,0 +1,260 @@
+package org.wzl.depspider.benchmark;
+
+import org.wzl.depspider.react.project.config.ProjectConfiguration;
+import org.wzl.depspider.react.project.config.language.Language;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 生成用于基准测试的React项目
+ * 相同的参数和种子总是生成完全相同的项目：
+ * <pre>
+ *     package.json                 依赖react、react-router-dom
+ *     src/index.jsx                入口文件，createRoot
+ *     src/App.jsx                  导入路由配置
+ *     src/routes/index.js          路由配置数组，静态导入和懒加载两种写法
+ *     src/pages/...                页面，约占文件数的20%
+ *     src/components/...           组件，约占文件数的60%，互相导入
+ *     src/utils/...                工具函数，约占文件数的20%
+ * </pre>
+ * 页面和组件按 depth 层目录嵌套，导入路径混合使用相对路径和 @/ 别名。
+ *
+ * @author weizhilong
+ */
+public final class ProjectGenerator {
+
+    /**
+     * 默认随机种子
+     */
+    public static final long DEFAULT_SEED = 20240611L;
+
+    /**
+     * 每个目录层级下的子目录数量
+     */
+    private static final int FAN_OUT = 4;
+
+    private ProjectGenerator() {
+    }
+
+    /**
+     * 生成项目
+     * @param root      项目根目录
+     * @param fileCount 页面、组件、工具函数文件总数
+     * @param depth     页面和组件的目录嵌套层数
+     * @param seed      随机种子
+     * @return          生成的代码文件，不包含入口、App和路由文件
+     * @throws IOException  写入失败
+     */
+    public static List<File> generate(File root, int fileCount, int depth, long seed) throws IOException {
+        Random random = new Random(seed);
+        File src = new File(root, "src");
+        int pageCount = Math.max(1, fileCount / 5);
+        int utilCount = Math.max(1, fileCount / 5);
+        int componentCount = Math.max(1, fileCount - pageCount - utilCount);
+
+        List<File> utils = new ArrayList<>();
+        for (int i = 0; i < utilCount; i++) {
+            File file = new File(src, "utils/util" + i + ".js");
+            write(file, utilSource(i));
+            utils.add(file);
+        }
+
+        List<File> components = new ArrayList<>();
+        for (int i = 0; i < componentCount; i++) {
+            File file = new File(nestedDirectory(new File(src, "components"), i, depth), "Component" + i + "/index.jsx");
+            List<String> imports = new ArrayList<>();
+            //只导入编号更小的组件，保证依赖关系是有向无环的
+            for (int j = 0; j < 3 && i > 0; j++) {
+                imports.add(importLine("Dep" + j, file, components.get(random.nextInt(i)), src, random));
+            }
+            imports.add("import { format" + "} from '@/utils/util" + random.nextInt(utilCount) + "';");
+            write(file, componentSource("Component" + i, imports));
+            components.add(file);
+        }
+
+        List<File> pages = new ArrayList<>();
+        for (int i = 0; i < pageCount; i++) {
+            File file = new File(nestedDirectory(new File(src, "pages"), i, depth), "Page" + i + "/index.jsx");
+            List<String> imports = new ArrayList<>();
+            for (int j = 0; j < 5; j++) {
+                imports.add(importLine("Dep" + j, file, components.get(random.nextInt(componentCount)), src, random));
+            }
+            write(file, componentSource("Page" + i, imports));
+            pages.add(file);
+        }
+
+        write(new File(root, "package.json"),
+                "{\"name\":\"bench\",\"dependencies\":{\"react\":\"18.2.0\",\"react-dom\":\"18.2.0\",\"react-router-dom\":\"6.22.0\"}}");
+        write(new File(src, "index.jsx"), "import React from 'react';\n"
+                + "import ReactDOM from 'react-dom/client';\n"
+                + "import App from './App';\n\n"
+                + "const root = ReactDOM.createRoot(\n"
+                + "  document.getElementById('root')\n"
+                + ");\n"
+                + "root.render(<App />);\n");
+        write(new File(src, "App.jsx"), "import React from 'react';\n"
+                + "import { BrowserRouter } from 'react-router-dom';\n"
+                + "import routes from './routes/index';\n\n"
+                + "export default function App() {\n"
+                + "  return <BrowserRouter />;\n"
+                + "}\n");
+        write(new File(src, "routes/index.js"), routesSource(pages, src));
+
+        List<File> files = new ArrayList<>(utils);
+        files.addAll(components);
+        files.addAll(pages);
+        return files;
+    }
+
+    /**
+     * 扫描生成项目所用的配置，JS和TS两种语言，从src开始扫描
+     * @param parallelism   扫描并行度
+     * @return              项目配置
+     */
+    public static ProjectConfiguration configuration(int parallelism) {
+        ProjectConfiguration configuration = new ProjectConfiguration();
+        configuration.setLanguages(new HashSet<>(Arrays.asList(Language.JS, Language.TS)));
+        configuration.setParallelism(parallelism);
+        return configuration;
+    }
+
+    /**
+     * 生成一个较大的组件源代码，用于只测试词法和语法分析的场景
+     * @param lines 组件体的大致行数
+     * @return      源代码
+     */
+    public static String largeComponentSource(int lines) {
+        List<String> imports = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            imports.add("import Dep" + i + " from '../components/Dep" + i + "';");
+        }
+        StringBuilder sb = new StringBuilder(componentSource("Large", imports));
+        for (int i = 0; sb.length() < lines * 40; i++) {
+            sb.append("export const helper").append(i).append(" = (value, options) => {\n")
+                    .append("  // helper ").append(i).append("\n")
+                    .append("  const result = format(value, { key: 'k").append(i).append("', size: ").append(i).append(" });\n")
+                    .append("  return <Dep0 value={result} items={[1, 2, 3]} />;\n")
+                    .append("};\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 删除生成的项目
+     * @param root  项目根目录
+     * @throws IOException  删除失败
+     */
+    public static void delete(File root) throws IOException {
+        if (!root.exists()) {
+            return;
+        }
+        Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static File nestedDirectory(File base, int index, int depth) {
+        File dir = base;
+        int value = index;
+        for (int level = 0; level < depth; level++) {
+            dir = new File(dir, "group" + (value % FAN_OUT));
+            value /= FAN_OUT;
+        }
+        return dir;
+    }
+
+    private static String importLine(String name, File from, File target, File src, Random random) {
+        String path;
+        if (random.nextBoolean()) {
+            path = "@/" + relativePath(src, target.getParentFile());
+        } else {
+            path = relativePath(from.getParentFile(), target.getParentFile());
+            if (!path.startsWith(".")) {
+                path = "./" + path;
+            }
+        }
+        return "import " + name + " from '" + path + "';";
+    }
+
+    private static String relativePath(File from, File to) {
+        String path = from.toPath().relativize(to.toPath()).toString().replace(File.separatorChar, '/');
+        return path.isEmpty() ? "." : path;
+    }
+
+    private static String utilSource(int index) {
+        return "export const format = (value) => String(value) + '-" + index + "';\n"
+                + "export const parse = (value) => Number(value);\n";
+    }
+
+    private static String componentSource(String name, List<String> imports) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import React, { useState, useEffect } from 'react';\n");
+        for (String line : imports) {
+            sb.append(line).append('\n');
+        }
+        sb.append('\n');
+        sb.append("const columns = [\n");
+        for (int i = 0; i < 6; i++) {
+            sb.append("  { title: 'Column").append(i).append("', dataIndex: 'field").append(i)
+                    .append("', width: ").append(80 + i).append(" },\n");
+        }
+        sb.append("];\n\n");
+        sb.append("/**\n * ").append(name).append("\n */\n");
+        sb.append("export default function ").append(name).append("(props) {\n");
+        sb.append("  const [count, setCount] = useState(0);\n");
+        sb.append("  useEffect(() => {\n    setCount(props.initial || 0);\n  }, [props.initial]);\n");
+        sb.append("  return (\n    <div className=\"").append(name.toLowerCase()).append("\">\n");
+        for (int i = 0; i < 8; i++) {
+            sb.append("      <span key=\"").append(i).append("\" onClick={() => setCount(count + ").append(i)
+                    .append(")}>{count}</span>\n");
+        }
+        sb.append("    </div>\n  );\n}\n");
+        return sb.toString();
+    }
+
+    private static String routesSource(List<File> pages, File src) {
+        StringBuilder imports = new StringBuilder();
+        StringBuilder routes = new StringBuilder("export default [\n");
+        for (int i = 0; i < pages.size(); i++) {
+            String path = "@/" + relativePath(src, pages.get(i).getParentFile());
+            if (i % 2 == 0) {
+                imports.append("import Page").append(i).append(" from '").append(path).append("';\n");
+                routes.append("  { path: '/page").append(i).append("', component: Page").append(i).append(" },\n");
+            } else {
+                routes.append("  { path: '/page").append(i).append("', lazy: () => import('").append(path).append("') },\n");
+            }
+        }
+        routes.append("];\n");
+        return imports.append('\n').append(routes).toString();
+    }
+
+    private static void write(File file, String content) throws IOException {
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("mkdirs fail: " + parent);
+        }
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,83 @@
+package org.wzl.depspider.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wzl.depspider.react.dto.PageRouterDefine;
+import org.wzl.depspider.react.dto.ProjectFileRelation;
+import org.wzl.depspider.react.project.ReactProjectOperator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端的项目扫描耗时
+ * 每次调用都创建新的 ReactProjectOperator，包含项目初始化、文件扫描和依赖解析的全部开销。
+ *
+ * @author weizhilong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectScanBenchmark {
+
+    /**
+     * 页面、组件、工具函数文件总数
+     */
+    @Param({"200", "2000"})
+    public int fileCount;
+
+    /**
+     * 页面和组件的目录嵌套层数
+     */
+    @Param({"2", "5"})
+    public int depth;
+
+    /**
+     * 扫描并行度
+     */
+    @Param({"1"})
+    public int parallelism;
+
+    private File root;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("depspider-scan").toFile();
+        ProjectGenerator.generate(root, fileCount, depth, ProjectGenerator.DEFAULT_SEED);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ProjectGenerator.delete(root);
+    }
+
+    @Benchmark
+    public List<ProjectFileRelation> jsxFileRelation() {
+        return newOperator().jsxFileRelation();
+    }
+
+    @Benchmark
+    public List<PageRouterDefine> findPageRouterDefine() {
+        return newOperator().findPageRouterDefine();
+    }
+
+    private ReactProjectOperator newOperator() {
+        return new ReactProjectOperator(root.getAbsolutePath(), ProjectGenerator.configuration(parallelism));
+    }
+}
@@ -0,0 +1,100 @@
+package org.wzl.depspider.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wzl.depspider.ast.jsx.parser.JSXParse;
+import org.wzl.depspider.ast.jsx.visitor.JSXImportVisitor;
+import org.wzl.depspider.react.project.ReactProjectOperator;
+import org.wzl.depspider.react.project.resolve.ModuleResolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导入路径解析的耗时
+ * 准备阶段解析生成项目中所有文件的import，测量时通过 ModuleResolver 逐条解析导入路径对应的文件，
+ * 分别测量清空解析缓存后的首次解析和缓存命中时的解析。
+ *
+ * @author weizhilong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResolveBenchmark {
+
+    @Param({"1000"})
+    public int fileCount;
+
+    @Param({"3"})
+    public int depth;
+
+    private File root;
+
+    private ModuleResolver resolver;
+
+    private final List<String> sources = new ArrayList<>();
+
+    private final List<File> importers = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("depspider-resolve").toFile();
+        List<File> files = ProjectGenerator.generate(root, fileCount, depth, ProjectGenerator.DEFAULT_SEED);
+        ReactProjectOperator operator = new ReactProjectOperator(root.getAbsolutePath(), ProjectGenerator.configuration(1));
+        resolver = operator.getModuleResolver();
+        for (File file : files) {
+            JSXImportVisitor visitor = new JSXImportVisitor();
+            visitor.visit(new JSXParse(file.getAbsolutePath()).parse(true));
+            for (JSXImportVisitor.ImportRecord record : visitor.getImports()) {
+                sources.add(record.sourcePath);
+                importers.add(file);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ProjectGenerator.delete(root);
+    }
+
+    /**
+     * 清空解析缓存后解析所有导入路径，包括项目外的依赖
+     */
+    @Benchmark
+    public void resolve(Blackhole blackhole) {
+        resolver.clear();
+        resolveAll(blackhole);
+    }
+
+    /**
+     * 解析缓存已经填充时解析所有导入路径
+     */
+    @Benchmark
+    public void resolveCached(Blackhole blackhole) {
+        resolveAll(blackhole);
+    }
+
+    private void resolveAll(Blackhole blackhole) {
+        for (int i = 0; i < sources.size(); i++) {
+            blackhole.consume(resolver.resolve(importers.get(i), sources.get(i)));
+        }
+    }
+}
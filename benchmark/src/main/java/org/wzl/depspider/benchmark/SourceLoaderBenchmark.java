@@ -0,0 +1,91 @@
+package org.wzl.depspider.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wzl.depspider.ast.core.tokenizer.CharSource;
+import org.wzl.depspider.ast.core.tokenizer.SourceLoader;
+import org.wzl.depspider.utils.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SourceLoader 与 FileUtil#getInputString 读取整个项目的耗时对比
+ *
+ * @author weizhilong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SourceLoaderBenchmark {
+
+    /**
+     * 生成的文件数量，与原先的对比程序一样使用2万个文件
+     */
+    @Param({"20000"})
+    public int fileCount;
+
+    private File root;
+
+    private List<File> files;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("depspider-loader").toFile();
+        files = ProjectGenerator.generate(root, fileCount, 3, ProjectGenerator.DEFAULT_SEED);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ProjectGenerator.delete(root);
+    }
+
+    @Benchmark
+    public long fileUtil() throws IOException {
+        long checksum = 0;
+        for (File file : files) {
+            checksum += FileUtil.getInputString(file).length();
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long readString() throws IOException {
+        long checksum = 0;
+        for (File file : files) {
+            checksum += SourceLoader.readString(file).length();
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long open() throws IOException {
+        long checksum = 0;
+        for (File file : files) {
+            try (CharSource source = SourceLoader.open(file)) {
+                int i = 0;
+                while (!source.isEnd(i)) {
+                    checksum += source.charAt(i);
+                    source.release(i++);
+                }
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,52 @@
+package org.wzl.depspider.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wzl.depspider.ast.core.tokenizer.Token;
+import org.wzl.depspider.ast.jsx.tokenizer.JSXTokenizer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSXTokenizer.tokenize() 的耗时
+ *
+ * @author weizhilong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenizerBenchmark {
+
+    /**
+     * 源代码的大致行数
+     */
+    @Param({"100", "2000"})
+    public int lines;
+
+    private String source;
+
+    @Setup
+    public void setUp() {
+        source = ProjectGenerator.largeComponentSource(lines);
+    }
+
+    @Benchmark
+    public List<Token> tokenize() {
+        JSXTokenizer tokenizer = new JSXTokenizer();
+        tokenizer.setSource(source);
+        return tokenizer.tokenize();
+    }
+}
@@ -0,0 +1,109 @@
+package org.wzl.depspider.ast.core.tokenizer;
+
+import java.io.Closeable;
+
+/**
+ * 词法分析的字符输入
+ * 词法分析器通过绝对字符下标访问源代码，具体实现可以是完整的字符串，也可以是从流中按需读取的滑动窗口。
+ * <p>
+ * 除字符下标外还可以获取对应的UTF-8字节偏移，源代码原样读取（不改写换行符），
+ * 因此对于合法的UTF-8文件，字符下标和字节偏移都与磁盘上的内容一一对应。
+ *
+ * @author weizhilong
+ */
+public abstract class CharSource implements Closeable {
+
+    /**
+     * 字节偏移游标所在的字符下标
+     */
+    private int byteCursorIndex = 0;
+
+    /**
+     * 字节偏移游标处的字节偏移
+     */
+    private long byteCursorOffset;
+
+    protected CharSource() {
+        this(0);
+    }
+
+    /**
+     * @param byteOffset    第一个字符对应的字节偏移，例如跳过BOM时为3
+     */
+    protected CharSource(long byteOffset) {
+        this.byteCursorOffset = byteOffset;
+    }
+
+    /**
+     * 获取指定下标的字符
+     * @param index 字符下标
+     * @return      字符，到达输入末尾时返回'\0'
+     */
+    public abstract char charAt(int index);
+
+    /**
+     * 指定下标是否已经超出输入末尾
+     * @param index 字符下标
+     * @return      超出末尾返回true
+     */
+    public abstract boolean isEnd(int index);
+
+    /**
+     * 截取字符串
+     * @param start 起始下标（包含）
+     * @param end   结束下标（不包含）
+     * @return      字符串
+     */
+    public abstract String substring(int start, int end);
+
+    /**
+     * 声明下标之前的字符不会再被访问，滑动窗口的实现可以据此丢弃这部分字符
+     * @param index 字符下标
+     */
+    public void release(int index) {
+        //丢弃前先让字节偏移游标越过这部分字符
+        byteOffset(index);
+    }
+
+    /**
+     * 获取字符下标对应的UTF-8字节偏移
+     * 按访问顺序递增计算，词法分析顺序访问时均摊为O(1)
+     * @param index 字符下标
+     * @return      字节偏移
+     */
+    public long byteOffset(int index) {
+        while (byteCursorIndex < index && !isEnd(byteCursorIndex)) {
+            byteCursorOffset += utf8Length(charAt(byteCursorIndex));
+            byteCursorIndex++;
+        }
+        while (byteCursorIndex > index) {
+            byteCursorIndex--;
+            byteCursorOffset -= utf8Length(charAt(byteCursorIndex));
+        }
+        return byteCursorOffset + (index - byteCursorIndex);
+    }
+
+    /**
+     * 单个字符编码为UTF-8后的字节数
+     * 代理对的高位字符记为4个字节，低位字符记为0个字节
+     */
+    private static int utf8Length(char c) {
+        if (c < 0x80) {
+            return 1;
+        }
+        if (c < 0x800) {
+            return 2;
+        }
+        if (Character.isHighSurrogate(c)) {
+            return 4;
+        }
+        if (Character.isLowSurrogate(c)) {
+            return 0;
+        }
+        return 3;
+    }
+
+    @Override
+    public void close() {
+    }
+}
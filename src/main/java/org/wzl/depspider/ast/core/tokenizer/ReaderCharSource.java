@@ -0,0 +1,155 @@
+package org.wzl.depspider.ast.core.tokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 基于Reader的滑动窗口字符输入
+ * 只在窗口中保留尚未释放的字符，窗口大小取决于最长的token而不是文件大小，
+ * 只解析import时读到import结束就不再继续读取文件。
+ *
+ * @author weizhilong
+ */
+public class ReaderCharSource extends CharSource {
+
+    /**
+     * 默认窗口大小
+     */
+    private static final int DEFAULT_WINDOW_SIZE = 8192;
+
+    private final Reader reader;
+
+    /**
+     * 窗口
+     */
+    private char[] window;
+
+    /**
+     * 窗口第一个字符的绝对下标
+     */
+    private int windowStart = 0;
+
+    /**
+     * 窗口中已读取的字符数
+     */
+    private int filled = 0;
+
+    /**
+     * 该下标之前的字符已被释放，窗口满时可以丢弃
+     */
+    private int released = 0;
+
+    /**
+     * 是否已经读到流的末尾
+     */
+    private boolean eof = false;
+
+    public ReaderCharSource(Reader reader) {
+        this(reader, DEFAULT_WINDOW_SIZE);
+    }
+
+    public ReaderCharSource(Reader reader, int windowSize) {
+        this(reader, windowSize, 0);
+    }
+
+    /**
+     * @param reader        字符流
+     * @param windowSize    初始窗口大小
+     * @param byteOffset    第一个字符对应的字节偏移
+     */
+    public ReaderCharSource(Reader reader, int windowSize, long byteOffset) {
+        super(byteOffset);
+        this.reader = reader;
+        this.window = new char[Math.max(16, windowSize)];
+    }
+
+    /**
+     * 以UTF-8解码字节流
+     * BOM会作为字符U+FEFF保留，保证字节偏移与文件一致
+     * @param in    字节流
+     * @return      字符输入
+     */
+    public static ReaderCharSource utf8(InputStream in) {
+        return new ReaderCharSource(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public char charAt(int index) {
+        return ensure(index) ? window[index - windowStart] : '\0';
+    }
+
+    @Override
+    public boolean isEnd(int index) {
+        return !ensure(index);
+    }
+
+    @Override
+    public String substring(int start, int end) {
+        ensure(end - 1);
+        int to = Math.min(end, windowStart + filled);
+        return new String(window, start - windowStart, Math.max(0, to - start));
+    }
+
+    @Override
+    public void release(int index) {
+        super.release(index);
+        released = Math.max(released, index);
+    }
+
+    /**
+     * 保证下标所在的字符已经读入窗口
+     * @param index 字符下标
+     * @return      下标超出输入末尾时返回false
+     */
+    private boolean ensure(int index) {
+        if (index < windowStart) {
+            throw new IllegalStateException("字符已被释放: " + index);
+        }
+        while (index >= windowStart + filled) {
+            if (eof) {
+                return false;
+            }
+            fill();
+        }
+        return true;
+    }
+
+    private void fill() {
+        //至少留出两个字符的空间，保证代理对可以完整解码
+        if (window.length - filled < 2) {
+            int drop = released - windowStart;
+            if (drop > 0) {
+                System.arraycopy(window, drop, window, 0, filled - drop);
+                windowStart += drop;
+                filled -= drop;
+            } else {
+                //窗口中的字符都还需要访问，只能扩容
+                window = Arrays.copyOf(window, window.length * 2);
+            }
+        }
+        try {
+            int read = reader.read(window, filled, window.length - filled);
+            if (read < 0) {
+                eof = true;
+            } else {
+                filled += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.wzl.depspider.ast.core.tokenizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于NIO的源代码读取
+ * 小文件一次性读入池化的直接缓冲区，大文件通过 {@link FileChannel} 分块读入，
+ * 统一按UTF-8解码，文件开头的BOM会被跳过（字节偏移仍然从文件开头计算）。
+ * <p>
+ * 通过 {@link #open(File)} 得到的字符输入是边解码边分析的，关闭后缓冲区归还到池中，大文件的channel随之关闭。
+ * 不使用内存映射：映射在被GC回收之前无法释放，在Windows上会阻止编辑器保存或删除该文件。
+ *
+ * @author weizhilong
+ */
+public final class SourceLoader {
+
+    /**
+     * 池化缓冲区的大小，不超过该大小的文件读入池化缓冲区，更大的文件分块读取
+     */
+    public static final int POOLED_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 大文件每次从channel读取的字节数
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * 池中最多保留的缓冲区数量
+     */
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    /**
+     * 解码窗口大小
+     */
+    private static final int WINDOW_SIZE = 4096;
+
+    private static final Queue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+
+    private static final AtomicInteger POOLED_COUNT = new AtomicInteger();
+
+    private SourceLoader() {
+    }
+
+    /**
+     * 打开源代码文件，返回按需解码的字符输入，使用完毕后需要关闭
+     * @param file  源代码文件
+     * @return      字符输入
+     * @throws IOException  读取失败
+     */
+    public static CharSource open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            Loaded loaded;
+            if (channel.size() > POOLED_BUFFER_SIZE) {
+                //大文件分块读取，channel在字符输入关闭时关闭；只解析import时不需要读完整个文件
+                ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+                fill(channel, chunk);
+                loaded = new Loaded(chunk, false, channel);
+            } else {
+                loaded = readSmall(channel);
+                channel.close();
+            }
+            int bom = skipBom(loaded.buffer);
+            return new ReaderCharSource(new ByteBufferReader(loaded), WINDOW_SIZE, bom);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 读取整个源代码文件
+     * @param file  源代码文件
+     * @return      文件内容，不包含BOM，换行符保持原样
+     * @throws IOException  读取失败
+     */
+    public static String readString(File file) throws IOException {
+        Loaded loaded;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > POOLED_BUFFER_SIZE) {
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("file too large: " + file.getAbsolutePath());
+                }
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                fill(channel, buffer);
+                loaded = new Loaded(buffer, false, null);
+            } else {
+                loaded = readSmall(channel);
+            }
+        }
+        try {
+            skipBom(loaded.buffer);
+            return newDecoder().decode(loaded.buffer).toString();
+        } catch (CharacterCodingException e) {
+            throw new IOException("decode file fail: " + file.getAbsolutePath(), e);
+        } finally {
+            loaded.release();
+        }
+    }
+
+    /**
+     * 将不超过池化缓冲区大小的文件读入池化缓冲区
+     */
+    private static Loaded readSmall(FileChannel channel) throws IOException {
+        ByteBuffer buffer = acquire();
+        try {
+            fill(channel, buffer);
+            return new Loaded(buffer, true, null);
+        } catch (IOException | RuntimeException e) {
+            release(buffer);
+            throw e;
+        }
+    }
+
+    /**
+     * 从channel读取直到缓冲区读满或读到文件末尾，读取后缓冲区处于可读状态
+     * @return  是否读到了文件末尾
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        boolean eof = false;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                eof = true;
+                break;
+            }
+        }
+        //转为Buffer调用，避免在高版本JDK上编译后在Java 8上找不到协变返回的方法
+        ((Buffer) buffer).flip();
+        return eof;
+    }
+
+    private static int skipBom(ByteBuffer buffer) {
+        int position = buffer.position();
+        if (buffer.remaining() >= 3
+                && (buffer.get(position) & 0xFF) == 0xEF
+                && (buffer.get(position + 1) & 0xFF) == 0xBB
+                && (buffer.get(position + 2) & 0xFF) == 0xBF) {
+            ((Buffer) buffer).position(position + 3);
+            return 3;
+        }
+        return 0;
+    }
+
+    private static CharsetDecoder newDecoder() {
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private static ByteBuffer acquire() {
+        ByteBuffer buffer = POOL.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(POOLED_BUFFER_SIZE);
+        }
+        POOLED_COUNT.decrementAndGet();
+        ((Buffer) buffer).clear();
+        return buffer;
+    }
+
+    private static void release(ByteBuffer buffer) {
+        if (POOLED_COUNT.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            POOL.offer(buffer);
+        } else {
+            POOLED_COUNT.decrementAndGet();
+        }
+    }
+
+    /**
+     * 读入内存的文件内容
+     */
+    private static class Loaded {
+        private final ByteBuffer buffer;
+        private final boolean pooled;
+
+        /**
+         * 分块读取时尚未读完的channel，整个文件已经在缓冲区中时为null
+         */
+        private final FileChannel channel;
+        private boolean released = false;
+
+        private Loaded(ByteBuffer buffer, boolean pooled, FileChannel channel) {
+            this.buffer = buffer;
+            this.pooled = pooled;
+            this.channel = channel;
+        }
+
+        /**
+         * 缓冲区中的字节已经解码完时读取下一块
+         * 读到文件末尾后缓冲区中可能还留有不完整的字符，需要按输入结束解码，由解码器替换掉
+         * @return  文件还没有读完返回true，已经读到文件末尾返回false
+         */
+        private boolean readMore() throws IOException {
+            if (channel == null) {
+                return false;
+            }
+            //未解码完的半个字符保留在缓冲区开头
+            buffer.compact();
+            return !fill(channel, buffer);
+        }
+
+        private void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (pooled) {
+                SourceLoader.release(buffer);
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    //只读的channel关闭失败不影响结果
+                }
+            }
+        }
+    }
+
+    /**
+     * 从字节缓冲区按需解码的Reader
+     */
+    private static class ByteBufferReader extends Reader {
+        private final Loaded loaded;
+        private final CharsetDecoder decoder = newDecoder();
+        private boolean flushed = false;
+
+        /**
+         * 缓冲区之后是否还有未读入的字节
+         */
+        private boolean endOfInput;
+
+        private ByteBufferReader(Loaded loaded) {
+            this.loaded = loaded;
+            this.endOfInput = loaded.channel == null;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (loaded.released) {
+                throw new IOException("source closed");
+            }
+            if (flushed) {
+                return -1;
+            }
+            CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+            CoderResult result;
+            while (true) {
+                result = decoder.decode(loaded.buffer, out, endOfInput);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                //缓冲区中的字节已经解码完，还没有解码出任何字符时读取下一块
+                if (result.isUnderflow() && !endOfInput && out.position() == off) {
+                    endOfInput = !loaded.readMore();
+                    continue;
+                }
+                break;
+            }
+            if (endOfInput && !loaded.buffer.hasRemaining() && result.isUnderflow()) {
+                flushed = decoder.flush(out).isUnderflow();
+            }
+            int read = out.position() - off;
+            return read == 0 && flushed ? -1 : read;
+        }
+
+        @Override
+        public void close() {
+            loaded.release();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.wzl.depspider.ast.core.tokenizer;
+
+/**
+ * 基于完整字符串的字符输入
+ *
+ * @author weizhilong
+ */
+public class StringCharSource extends CharSource {
+
+    private final String input;
+
+    public StringCharSource(String input) {
+        this.input = input;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return index < input.length() ? input.charAt(index) : '\0';
+    }
+
+    @Override
+    public boolean isEnd(int index) {
+        return index >= input.length();
+    }
+
+    @Override
+    public String substring(int start, int end) {
+        return input.substring(start, Math.min(end, input.length()));
+    }
+}
@@ -26,6 +26,15 @@ public interface Tokenizer {
      */
     List<Token> tokenize();
 
+    /**
+     * 按需读取下一个 Token，只扫描到该 Token 结束的位置。
+     * 到达源代码末尾后返回 EOF 类型的 Token。
+     *
+     * @return 下一个 Token
+     * @author weizhilong
+     */
+    Token nextToken();
+
     /**
      * 判断是否已到达源代码末尾。
      *
@@ -2,6 +2,8 @@ package org.wzl.depspider.ast.jsx.parser;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.wzl.depspider.ast.core.tokenizer.CharSource;
+import org.wzl.depspider.ast.core.tokenizer.SourceLoader;
 import org.wzl.depspider.ast.core.tokenizer.Token;
 import org.wzl.depspider.ast.core.tokenizer.TokenType;
 import org.wzl.depspider.ast.exception.CodeIllegalException;
@@ -31,22 +33,38 @@ import org.wzl.depspider.ast.jsx.parser.node.definition.specifier.ImportSpecifie
 import org.wzl.depspider.ast.jsx.parser.node.definition.specifier.Specifier;
 import org.wzl.depspider.ast.jsx.tokenizer.JSXToken;
 import org.wzl.depspider.ast.jsx.tokenizer.JSXTokenizer;
-import org.wzl.depspider.utils.FileUtil;
+import org.wzl.depspider.ast.jsx.tokenizer.SymbolTable;
+import org.wzl.depspider.ast.jsx.tokenizer.TokenStream;
+import org.wzl.depspider.jfr.ScanEvents;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
 public class JSXParse {
 
-    private List<Token> tokens;
+    /**
+     * 解析器版本
+     * 解析结果发生变化时需要递增，持久化的解析缓存会因此失效
+     */
+    public static final int PARSER_VERSION = 1;
 
-    private final JSXTokenizer jsxTokenizer = new JSXTokenizer();
+    /**
+     * 按需拉取的token流，语法分析读到哪里，词法分析才扫描到哪里
+     */
+    private final TokenStream tokens;
 
-    private final int tokenSize;
+    private final JSXTokenizer jsxTokenizer = new JSXTokenizer();
 
     private final String filePath;
 
+    /**
+     * 导入路径和导入名使用的符号表，为null时不做规范化
+     */
+    private final SymbolTable symbols;
+
     @Getter
     private Boolean isImportOnly = false;
 
@@ -69,12 +87,22 @@ public class JSXParse {
      * @return  Token
      */
     protected Token nextToken() {
-        if (tokenIndex >= tokenSize) {
+        if (!tokens.has(tokenIndex)) {
             return null;
         }
-        Token token = tokens.get(tokenIndex);
-        tokenIndex++;
-        return token;
+        return tokens.get(tokenIndex++);
+    }
+
+    /**
+     * 获取下一个token的下标，并且index++
+     * 通过下标读取token属性，不创建token对象
+     * @return  token下标，没有更多token时返回-1
+     */
+    private int nextIndex() {
+        if (!tokens.has(tokenIndex)) {
+            return -1;
+        }
+        return tokenIndex++;
     }
 
     private void unreadToken() {
@@ -88,9 +116,6 @@ public class JSXParse {
      * @return  Token
      */
     protected Token peekNextToken() {
-        if (tokenIndex + 1 >= tokenSize) {
-            return null;
-        }
         return tokens.get(tokenIndex + 1);
     }
 
@@ -99,7 +124,7 @@ public class JSXParse {
      * @return  boolean
      */
     protected boolean isAtEnd() {
-        return tokenIndex >= tokenSize;
+        return !tokens.has(tokenIndex);
     }
 
     /**
@@ -107,39 +132,83 @@ public class JSXParse {
      * @return Token
      */
     protected Token peekToken() {
-        if (tokenIndex >= tokenSize) {
-            return null;
-        }
         return tokens.get(tokenIndex);
     }
 
     public JSXParse(String filePath) {
+        this(filePath, null);
+    }
+
+    /**
+     * @param filePath  文件路径
+     * @param symbols   符号表，import中的路径和导入名从中取得规范实例，为null时不做规范化
+     */
+    public JSXParse(String filePath, SymbolTable symbols) {
         this.filePath = filePath;
-        String inputString;
-        try {
-            inputString = FileUtil.getInputString(filePath);
-        } catch (Exception e) {
+        this.symbols = symbols;
+        if (!new File(filePath).isFile()) {
             log.info("code file not found");
             throw new CodeIllegalException("code file not found");
         }
-        jsxTokenizer.setSource(inputString);
-
-        tokens = jsxTokenizer.tokenize();
-        tokenSize = tokens.size();
-//        tokens.forEach(System.out::println);
+        tokens = new TokenStream(jsxTokenizer);
     }
 
     public FileNode parse() {
-        return getFileNode();
+        return parse(false);
     }
 
+    /**
+     * 解析文件
+     * 文件通过SourceLoader读入后以UTF-8边解码边分析，只解析import时import之后的内容不会被解码
+     * @param isImportOnly  是否只解析import
+     * @return FileNode
+     */
     public FileNode parse(Boolean isImportOnly) {
         this.isImportOnly = isImportOnly;
-        return getFileNode();
+        Object event = ScanEvents.PARSE.begin();
+        try (CharSource source = openSource()) {
+            jsxTokenizer.setSource(source);
+            return getFileNode();
+        } finally {
+            ScanEvents.PARSE.commit(event, filePath, isImportOnly, (long) getTokenCount(), getScannedBytes());
+        }
     }
 
+    /**
+     * 词法分析已经扫描出的token数量，只解析import时不包含import之后的代码
+     * @return  token数量
+     */
+    public int getTokenCount() {
+        return tokens.scannedSize();
+    }
+
+    /**
+     * 词法分析已经扫描到的UTF-8字节数，即最后一个被扫描的token的结束位置
+     * @return  字节数
+     */
+    public long getScannedBytes() {
+        int last = tokens.last();
+        return last < 0 ? 0 : tokens.endByte(last);
+    }
+
+    private CharSource openSource() {
+        try {
+            return SourceLoader.open(new File(filePath));
+        } catch (IOException e) {
+            log.info("code file not found");
+            throw new CodeIllegalException("code file not found");
+        }
+    }
+
+    /**
+     * 构建FileNode
+     * 先解析body再确定文件的结束位置：完整解析时为EOF token；
+     * 只解析import时词法分析在import之后就停止了，结束位置为最后一个被扫描的token
+     * @return FileNode
+     */
     private FileNode getFileNode() {
-        Token eofToken = tokens.get(tokenSize - 1);
+        List<Node> body = getProgramBodyBySourceFile();
+        Token eofToken = tokens.get(isImportOnly && tokens.last() >= 0 ? tokens.last() : tokens.eof());
         int fileStartIndex = 0, fileEndIndex = eofToken.getEndIndex();
         FileNode fileNode = new FileNode(
                 fileStartIndex,
@@ -150,7 +219,7 @@ public class JSXParse {
                 )
         );
 
-        ProgramNode programNode = getProgramNode(fileStartIndex, fileEndIndex, eofToken);
+        ProgramNode programNode = getProgramNode(fileStartIndex, fileEndIndex, eofToken, body);
 
         fileNode.setProgram(programNode);
         return fileNode;
@@ -161,9 +230,10 @@ public class JSXParse {
      * @param fileStartIndex 文件开始位置
      * @param fileEndIndex 文件结束位置
      * @param eofToken 文件结束符
+     * @param body 已解析的body
      * @return ProgramNode
      */
-    private ProgramNode getProgramNode(int fileStartIndex, int fileEndIndex, Token eofToken) {
+    private ProgramNode getProgramNode(int fileStartIndex, int fileEndIndex, Token eofToken, List<Node> body) {
         ProgramNode programNode = new ProgramNode(
                 fileStartIndex,
                 fileEndIndex,
@@ -178,15 +248,22 @@ public class JSXParse {
         //设置源代码类型
         programNode.setSourceType(currentSourceType());
         //设置body
-        if (filePath.endsWith(".js") || filePath.endsWith(".ts") || filePath.endsWith(".jsx") || filePath.endsWith(".tsx")) {
-            programNode.setBody(getProgramBody());
-        } else {
-            programNode.setBody(new ArrayList<>());
-        }
+        programNode.setBody(body);
 
         return programNode;
     }
 
+    /**
+     * 只有代码文件才解析body
+     * @return List<?>
+     */
+    private List<Node> getProgramBodyBySourceFile() {
+        if (filePath.endsWith(".js") || filePath.endsWith(".ts") || filePath.endsWith(".jsx") || filePath.endsWith(".tsx")) {
+            return getProgramBody();
+        }
+        return new ArrayList<>();
+    }
+
     /**
      * 获取ProgramNode的body
      * @return List<?>
@@ -195,12 +272,11 @@ public class JSXParse {
         List<Node> body = new ArrayList<>();
 
         while (true) {
-            Token token = nextToken();
-            if (token == null) {
+            int index = nextIndex();
+            if (index < 0) {
                 break;
             }
-            TokenType type = token.getType();
-            String value = token.getValue();
+            JSXToken.Type type = tokens.type(index);
 
             if (type.equals(JSXToken.Type.EOF)) {// 遇到EOF，结束解析
                 return body;
@@ -208,13 +284,14 @@ public class JSXParse {
 
             if (type.equals(JSXToken.Type.KEYWORD)) {
                 // 关键字
+                String value = tokens.value(index);
                 if (JSXTokenizer.KEYWORDS.contains(value)) {
                     if (value.equals("import")) {
                         Node importNode = importDeclaration();
                         body.add(importNode);
                     }
                     if (value.equals("export")) {
-                        Node exportNode = exportDeclaration(token);
+                        Node exportNode = exportDeclaration(tokens.get(index));
                         if (exportNode != null) {
                             body.add(exportNode);
                         }
@@ -223,7 +300,7 @@ public class JSXParse {
                         break;
                     }
                     if (VARIABLE_KEY_WORD.contains(value)) {
-                        Node variableDeclaration = variableDeclaration(token);
+                        Node variableDeclaration = variableDeclaration(tokens.get(index));
                         body.add(variableDeclaration);
                     }
                 }
@@ -945,19 +1022,16 @@ public class JSXParse {
     private boolean isArrowFunctionWithParentheses() {
         int index = tokenIndex;
         int depth = 1;
-        while (index < tokenSize) {
-            Token token = tokens.get(index);
-            if (token.getType().equals(JSXToken.Type.LEFT_PARENTHESIS)) {
+        while (tokens.has(index)) {
+            if (tokens.isType(index, JSXToken.Type.LEFT_PARENTHESIS)) {
                 depth++;
-            } else if (token.getType().equals(JSXToken.Type.RIGHT_PARENTHESIS)) {
+            } else if (tokens.isType(index, JSXToken.Type.RIGHT_PARENTHESIS)) {
                 depth--;
                 if (depth == 0) {
-                    if (index + 2 < tokenSize) {
-                        Token eqToken = tokens.get(index + 1);
-                        Token gtToken = tokens.get(index + 2);
-                        return isArrowOperator(eqToken, gtToken);
-                    }
-                    return false;
+                    return tokens.isType(index + 1, JSXToken.Type.OPERATOR)
+                            && tokens.valueEquals(index + 1, "=")
+                            && tokens.isType(index + 2, JSXToken.Type.OPERATOR_OR_JSX_TAG_START)
+                            && tokens.valueEquals(index + 2, ">");
                 }
             }
             index++;
@@ -1135,12 +1209,13 @@ public class JSXParse {
 
     /**
      * 处理import声明
+     * 通过下标读取token，不为import中的token创建对象
      * @return Node
      */
     private Node importDeclaration() {
-        Token peekToken = nextToken();
-        TokenType type = peekToken.getType();
-        int startIndex = peekToken.getStartIndex();
+        int firstIndex = nextIndex();
+        JSXToken.Type type = tokens.type(firstIndex);
+        int startIndex = tokens.start(firstIndex);
         //import token的顶层节点
         ImportDeclarationNode importDeclarationNode = new ImportDeclarationNode(
                 startIndex,
@@ -1162,25 +1237,7 @@ public class JSXParse {
             当import语句为 import { useCallback, useActionState } from 'react' 时
          */
         if (type.equals(JSXToken.Type.LEFT_BRACE)) {
-            int endIndex = 0;
-            List<Token> importedTokens = new ArrayList<>();
-            while (!isAtEnd()) {
-                Token token = nextToken();
-                if (token.getType().equals(JSXToken.Type.RIGHT_BRACE)) {
-                    endIndex = token.getEndIndex();
-                    break;
-                }
-
-                if (token.getType().equals(JSXToken.Type.IDENTIFIER)) {
-                    importedTokens.add(token);
-                }
-            }
-
-            for (Token importedToken : importedTokens) {
-                Specifier importSpecifier = getImportSpecifier(importedToken);
-                specifiers.add(importSpecifier);
-            }
-
+            readNamedImportSpecifiers(specifiers);
         }
         /*
             当import语句为 import reactLogo from './assets/react.svg' 时
@@ -1189,43 +1246,20 @@ public class JSXParse {
             ImportSpecifier importSpecifier = new ImportSpecifier(
                     SpecifierType.IMPORT_DEFAULT_SPECIFIER,
                     startIndex,
-                    peekToken.getEndIndex(),
-                    new Loc(
-                            new Position(peekToken.getLine(), peekToken.getColumn(), peekToken.getStartIndex()),
-                            new Position(peekToken.getLine(), peekToken.getColumn(), peekToken.getEndIndex())
-                    )
+                    tokens.end(firstIndex),
+                    tokenLoc(firstIndex)
             );
             importSpecifier.setImported(new Identifier(
-                    peekToken.getStartIndex(),
-                    peekToken.getEndIndex(),
-                    new Loc(
-                            new Position(peekToken.getLine(), peekToken.getColumn(), peekToken.getStartIndex()),
-                            new Position(peekToken.getLine(), peekToken.getColumn(), peekToken.getEndIndex())
-                    ),
-                    peekToken.getValue()
+                    tokens.start(firstIndex),
+                    tokens.end(firstIndex),
+                    tokenLoc(firstIndex),
+                    symbol(firstIndex)
             ));
             specifiers.add(importSpecifier);
 
             //当 import React, { CSSProperties } from 'react' 这种情况时
-            if (peekNextToken().getType().equals(JSXToken.Type.LEFT_BRACE)) {
-                int endIndex = 0;
-                List<Token> importedTokens = new ArrayList<>();
-                while (!isAtEnd()) {
-                    Token token = nextToken();
-                    if (token.getType().equals(JSXToken.Type.RIGHT_BRACE)) {
-                        endIndex = token.getEndIndex();
-                        break;
-                    }
-
-                    if (token.getType().equals(JSXToken.Type.IDENTIFIER)) {
-                        importedTokens.add(token);
-                    }
-                }
-
-                for (Token importedToken : importedTokens) {
-                    Specifier importSpecifierCur = getImportSpecifier(importedToken);
-                    specifiers.add(importSpecifierCur);
-                }
+            if (tokens.isType(tokenIndex + 1, JSXToken.Type.LEFT_BRACE)) {
+                readNamedImportSpecifiers(specifiers);
             }
         }
 
@@ -1235,14 +1269,68 @@ public class JSXParse {
 
          */
         //设置source，也就是 import从哪里导入的
-        nextToken(); //跳过 from 关键字
-        Token sourceToken = nextToken();
-        StringLiteral source = getStringLiteral(sourceToken);
+        nextIndex(); //跳过 from 关键字
+        int sourceIndex = nextIndex();
+        StringLiteral source = sourceIndex < 0 ? null : getStringLiteral(sourceIndex);
 
         importDeclarationNode.setSource(source);
         return importDeclarationNode;
     }
 
+    /**
+     * 读取 { a, b } 中的导入名，直到右大括号
+     * @param specifiers    读取到的导入名
+     */
+    private void readNamedImportSpecifiers(List<Specifier> specifiers) {
+        while (!isAtEnd()) {
+            int index = nextIndex();
+            if (tokens.isType(index, JSXToken.Type.RIGHT_BRACE)) {
+                break;
+            }
+
+            if (tokens.isType(index, JSXToken.Type.IDENTIFIER)) {
+                specifiers.add(getImportSpecifier(index));
+            }
+        }
+    }
+
+    /**
+     * token起止位置，起止位置使用同一个行列
+     * @param index token下标
+     * @return Loc
+     */
+    private Loc tokenLoc(int index) {
+        int line = tokens.line(index);
+        int column = tokens.column(index);
+        return new Loc(
+                new Position(line, column, tokens.start(index)),
+                new Position(line, column, tokens.end(index))
+        );
+    }
+
+    /**
+     * 读取import中的token值，有符号表时返回规范实例
+     * @param index token下标
+     * @return      token值
+     */
+    private String symbol(int index) {
+        return tokens.symbol(index, symbols);
+    }
+
+    private StringLiteral getStringLiteral(int sourceIndex) {
+        String value = symbol(sourceIndex);
+        // 结束位置待定
+        return new StringLiteral(
+                tokens.start(sourceIndex),
+                0, // 结束位置待定
+                tokenLoc(sourceIndex),
+                Extra.builder()
+                        .raw(value).rawValue(value)
+                        .build(),
+                value
+        );
+    }
+
     private static StringLiteral getStringLiteral(Token sourceToken) {
         if (sourceToken == null) {
             return null;
@@ -1265,27 +1353,21 @@ public class JSXParse {
 
     /**
      * 获取ImportSpecifier
-     * @param importedToken 导入的token
+     * @param importedIndex 导入的token下标
      * @return ImportSpecifier
      */
-    private static Specifier getImportSpecifier(Token importedToken) {
+    private Specifier getImportSpecifier(int importedIndex) {
         ImportSpecifier importSpecifier = new ImportSpecifier(
                 SpecifierType.IMPORT_SPECIFIER,
-                importedToken.getStartIndex(),
-                importedToken.getEndIndex(),
-                new Loc(
-                        new Position(importedToken.getLine(), importedToken.getColumn(), importedToken.getStartIndex()),
-                        new Position(importedToken.getLine(), importedToken.getColumn(), importedToken.getEndIndex())
-                )
+                tokens.start(importedIndex),
+                tokens.end(importedIndex),
+                tokenLoc(importedIndex)
         );
         importSpecifier.setImported(new Identifier(
-                importedToken.getStartIndex(),
-                importedToken.getEndIndex(),
-                new Loc(
-                        new Position(importedToken.getLine(), importedToken.getColumn(), importedToken.getStartIndex()),
-                        new Position(importedToken.getLine(), importedToken.getColumn(), importedToken.getEndIndex())
-                ),
-                importedToken.getValue()
+                tokens.start(importedIndex),
+                tokens.end(importedIndex),
+                tokenLoc(importedIndex),
+                symbol(importedIndex)
         ));
 
         return importSpecifier;
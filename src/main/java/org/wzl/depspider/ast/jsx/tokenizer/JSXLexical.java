@@ -0,0 +1,40 @@
+package org.wzl.depspider.ast.jsx.tokenizer;
+
+import org.wzl.depspider.ast.core.tokenizer.CharSource;
+import org.wzl.depspider.ast.core.tokenizer.LexicalAnalysis;
+import org.wzl.depspider.ast.core.tokenizer.ReaderCharSource;
+import org.wzl.depspider.ast.core.tokenizer.StringCharSource;
+import org.wzl.depspider.ast.core.tokenizer.Token;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * jsx词法分析
+ * 字节流以UTF-8解码，通过滑动窗口边读边分析，不需要先把整个文件读成字符串
+ *
+ * @author weizhilong
+ */
+public class JSXLexical implements LexicalAnalysis<Token> {
+
+    @Override
+    public List<Token> analyze(String code) {
+        return analyze(new StringCharSource(code));
+    }
+
+    /**
+     * 分析代码，调用方负责关闭输入流
+     * @param in    代码文件流
+     * @return      词法分析结果
+     */
+    @Override
+    public List<Token> analyze(InputStream in) {
+        return analyze(ReaderCharSource.utf8(in));
+    }
+
+    private List<Token> analyze(CharSource source) {
+        JSXTokenizer tokenizer = new JSXTokenizer();
+        tokenizer.setSource(source);
+        return tokenizer.tokenize();
+    }
+}
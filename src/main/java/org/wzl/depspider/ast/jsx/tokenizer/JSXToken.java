@@ -60,4 +60,14 @@ public class JSXToken implements Token {
     private final int line;
     private final int column;
 
+    /**
+     * 起始位置对应的UTF-8字节偏移
+     */
+    private final long startByte;
+
+    /**
+     * 结束位置对应的UTF-8字节偏移
+     */
+    private final long endByte;
+
 }
@@ -1,6 +1,8 @@
 package org.wzl.depspider.ast.jsx.tokenizer;
 
 import lombok.NoArgsConstructor;
+import org.wzl.depspider.ast.core.tokenizer.CharSource;
+import org.wzl.depspider.ast.core.tokenizer.StringCharSource;
 import org.wzl.depspider.ast.core.tokenizer.Token;
 import org.wzl.depspider.ast.core.tokenizer.Tokenizer;
 
@@ -37,6 +39,27 @@ public class JSXTokenizer implements Tokenizer {
             ))
     );
 
+    /**
+     * 按哈希值存放关键字的开放寻址表，识别关键字时直接按字符区查找，不需要逐个比较
+     */
+    private static final String[] KEYWORD_TABLE = new String[64];
+
+    private static final int MAX_KEYWORD_LENGTH;
+
+    static {
+        int maxLength = 0;
+        int mask = KEYWORD_TABLE.length - 1;
+        for (String keyword : KEYWORDS) {
+            int i = keyword.hashCode() & mask;
+            while (KEYWORD_TABLE[i] != null) {
+                i = (i + 1) & mask;
+            }
+            KEYWORD_TABLE[i] = keyword;
+            maxLength = Math.max(maxLength, keyword.length());
+        }
+        MAX_KEYWORD_LENGTH = maxLength;
+    }
+
     /**
      * 当前扫描代码文件的行数
      */
@@ -45,7 +68,7 @@ public class JSXTokenizer implements Tokenizer {
     /**
      * 原始代码文件
      */
-    private String input;
+    private CharSource input;
 
     /**
      * 当前所扫描代码文件的下标
@@ -58,6 +81,16 @@ public class JSXTokenizer implements Tokenizer {
      */
     private int linePos = 0;
 
+    /**
+     * 当前写入的token缓冲区
+     */
+    private TokenBuffer out;
+
+    /**
+     * nextToken()逐个生成token对象时使用的缓冲区
+     */
+    private TokenBuffer scratch;
+
     /**
      * 获取当前文件扫描下标
      * @return  下标
@@ -71,10 +104,10 @@ public class JSXTokenizer implements Tokenizer {
      * 如果到达输入末尾则返回'\0'
      */
     private char advance() {
-        if (pos < input.length()) {
+        if (!input.isEnd(pos)) {
             char c = peekChar();
             linePos++;
-            if (input.charAt(pos) == '\n') {
+            if (c == '\n') {
                 line++;
                 linePos = 0;
             }
@@ -97,12 +130,12 @@ public class JSXTokenizer implements Tokenizer {
      * @return  当前字符，如果到达输入末尾则返回'\0'
      */
     private char peekChar() {
-        return pos < input.length() ? input.charAt(pos) : '\0';
+        return input.charAt(pos);
     }
 
     @Override
     public boolean isAtEnd() {
-        return pos >= input.length();
+        return input.isEnd(pos);
     }
 
     private void skipWhitespace() {
@@ -125,15 +158,20 @@ public class JSXTokenizer implements Tokenizer {
      * 获取 pos+2的字符
      */
     private char getDoubleNextChar() {
-        if (pos + 2 < input.length()) {
-            return input.charAt(pos + 2);
-        }
-        return '\0';
+        return input.charAt(pos + 2);
     }
 
 
     @Override
     public void setSource(String source) {
+        setSource(new StringCharSource(source));
+    }
+
+    /**
+     * 设置源代码输入，可以是从文件流中按需读取的字符输入
+     * @param source    字符输入
+     */
+    public void setSource(CharSource source) {
         this.input = source;
     }
 
@@ -143,124 +181,126 @@ public class JSXTokenizer implements Tokenizer {
             throw new IllegalStateException("No source code provided.");
         }
 
-        List<Token> tokens = new ArrayList<>();
+        TokenBuffer buffer = new TokenBuffer();
+        int index;
+        do {
+            index = next(buffer);
+        } while (!buffer.isType(index, JSXToken.Type.EOF));
+
+        List<Token> tokens = new ArrayList<>(buffer.size());
+        for (int i = 0; i < buffer.size(); i++) {
+            tokens.add(buffer.token(i));
+        }
+        return tokens;
+    }
+
+    @Override
+    public Token nextToken() {
+        if (scratch == null) {
+            scratch = new TokenBuffer(16);
+        }
+        scratch.clear();
+        return scratch.token(next(scratch));
+    }
+
+    /**
+     * 读取下一个token并追加到缓冲区，不创建token对象
+     * @param buffer    token缓冲区
+     * @return          token在缓冲区中的下标
+     */
+    public int next(TokenBuffer buffer) {
+        if (input == null) {
+            throw new IllegalStateException("No source code provided.");
+        }
+        this.out = buffer;
+        //之前的token都已经生成，之前的字符不会再被访问
+        input.release(getPos());
 
         while (!isAtEnd()) {
             skipWhitespace();
             char c = peekChar();
 
             if (Character.isLetter(c) || c == '_') {    //变量或者关键词
-                tokens.add(readIdentifierOrKeyword());
+                return readIdentifierOrKeyword();
             } else if (c == '>' || c == '<') {          // JSX标签或运算符
-                tokens.add(readJSXOrOperator());
+                return readJSXOrOperator();
             } else if (Character.isDigit(c)) {          //数字
-                tokens.add(readNumber());
+                return readNumber();
             } else if (c == '"' || c == '\'') {         //字符串
-                tokens.add(readString());
+                return readString();
             } else if (c == '/') {                      //注释
-                tokens.add(readCommentOrJSX());
+                return readCommentOrJSX();
             } else if (c == ',') {
-                tokens.add(new JSXToken(
-                        JSXToken.Type.COMMA,
-                        advance() + "",
-                        getPos(),
-                        getPos(),
-                        getLine(),
-                        getLinePos()
-                ));
+                return readPunctuation(JSXToken.Type.COMMA);
             } else if (c == '{') {
-                tokens.add(
-                        new JSXToken(
-                                JSXToken.Type.LEFT_BRACE,
-                                advance() + "",
-                                getPos(),
-                                getPos(),
-                                getLine(),
-                                getLinePos()
-                        )
-                );
+                return readPunctuation(JSXToken.Type.LEFT_BRACE);
             } else if (c == '}') {
-                tokens.add(
-                        new JSXToken(
-                                JSXToken.Type.RIGHT_BRACE,
-                                advance() + "",
-                                getPos(),
-                                getPos(),
-                                getLine(),
-                                getLinePos()
-                        )
-                );
+                return readPunctuation(JSXToken.Type.RIGHT_BRACE);
             } else if (c == '[') {
-                tokens.add(
-                        new JSXToken(
-                                JSXToken.Type.LEFT_BRACKET,
-                                advance() + "",
-                                getPos(),
-                                getPos(),
-                                getLine(),
-                                getLinePos()
-                        )
-                );
+                return readPunctuation(JSXToken.Type.LEFT_BRACKET);
             } else if (c == ']') {
-                tokens.add(
-                        new JSXToken(
-                                JSXToken.Type.RIGHT_BRACKET,
-                                advance() + "",
-                                getPos(),
-                                getPos(),
-                                getLine(),
-                                getLinePos()
-                        )
-                );
+                return readPunctuation(JSXToken.Type.RIGHT_BRACKET);
             } else if (c == ')') {
-                tokens.add(
-                        new JSXToken(
-                                JSXToken.Type.RIGHT_PARENTHESIS,
-                                advance() + "",
-                                getPos(),
-                                getPos(),
-                                getLine(),
-                                getLinePos()
-                        )
-                );
+                return readPunctuation(JSXToken.Type.RIGHT_PARENTHESIS);
             } else if (c == '(') {
-                tokens.add(
-                        new JSXToken(
-                                JSXToken.Type.LEFT_PARENTHESIS,
-                                advance() + "",
-                                getPos(),
-                                getPos(),
-                                getLine(),
-                                getLinePos()
-                        )
-                );
+                return readPunctuation(JSXToken.Type.LEFT_PARENTHESIS);
             } else if (c == '=' || c == '!' || c == '+' || c == '-' || c == '*' || c == '%') {
-                tokens.add(
-                        new JSXToken(
-                                JSXToken.Type.OPERATOR,
-                                advance() + "",
-                                getPos(),
-                                getPos(),
-                                getLine(),
-                                getLinePos()
-                        )
-                );
+                return readPunctuation(JSXToken.Type.OPERATOR);
             } else {
                 advance();
             }
         }
 
-        tokens.add(
-                new JSXToken(
-                        JSXToken.Type.EOF,
-                        "",
-                        getPos(),
-                        getPos(),
-                        getLine(),
-                        getLinePos()
-                )
+        return emit(JSXToken.Type.EOF, out.valueMark(), "", getPos(), getPos());
+    }
+
+    /**
+     * 将token写入缓冲区，同时记录起止位置对应的字节偏移
+     * @param mark          token值在字符区中的起点
+     * @param constantValue token值的常量，为null时使用字符区中的值
+     */
+    private int emit(JSXToken.Type type, int mark, String constantValue, int startIndex, int endIndex) {
+        return out.add(
+                type,
+                mark,
+                constantValue,
+                startIndex,
+                endIndex,
+                getLine(),
+                getLinePos(),
+                input.byteOffset(startIndex),
+                input.byteOffset(endIndex)
         );
-        return tokens;
+    }
+
+    /**
+     * 写入值固定的token，行列为写入前的位置
+     */
+    private int emitFixed(JSXToken.Type type, String value, int startIndex, int endIndex) {
+        int mark = out.valueMark();
+        for (int i = 0; i < value.length(); i++) {
+            out.appendValue(value.charAt(i));
+        }
+        return emit(type, mark, value, startIndex, endIndex);
+    }
+
+    /**
+     * 把源代码中[start, end)的字符追加到token值
+     */
+    private void appendSource(int start, int end) {
+        for (int i = start; i < end; i++) {
+            out.appendValue(input.charAt(i));
+        }
+    }
+
+    /**
+     * 读取单个字符的token
+     * @param type  token类型
+     */
+    private int readPunctuation(JSXToken.Type type) {
+        int mark = out.valueMark();
+        out.appendValue(advance());
+        return emit(type, mark, null, getPos(), getPos());
     }
 
     /**
@@ -269,19 +309,12 @@ public class JSXTokenizer implements Tokenizer {
      *      1. /> JSX标签结束符
      *      2. // 注释开始
      */
-    private Token readCommentOrJSX() {
+    private int readCommentOrJSX() {
         char nextPosChar = getNextChar();
         if (peekChar() == '/' && nextPosChar == '>') {
-            JSXToken jsxToken = new JSXToken(
-                    JSXToken.Type.JSX_TAG_SELF_CLOSE,
-                    "/>",
-                    getPos(),
-                    getPos() + 1,
-                    getLine(),
-                    getLinePos()
-            );
+            int index = emitFixed(JSXToken.Type.JSX_TAG_SELF_CLOSE, "/>", getPos(), getPos() + 1);
             advance(); advance();   // pos += 2
-            return jsxToken;
+            return index;
         }
         return readComment();
     }
@@ -290,56 +323,30 @@ public class JSXTokenizer implements Tokenizer {
     /**
      * 读取JSX标签或运算符
      */
-    private Token readJSXOrOperator() {
+    private int readJSXOrOperator() {
         char nextPosChar = getNextChar();
 
         if (peekChar() == '<' && getNextChar() == '>') {
-            JSXToken jsxToken = new JSXToken(
-                    JSXToken.Type.JSX_FRAGMENT_START,
-                    "<>",
-                    getPos(),
-                    getPos() + 1,
-                    getLine(),
-                    getLinePos()
-            );
+            int index = emitFixed(JSXToken.Type.JSX_FRAGMENT_START, "<>", getPos(), getPos() + 1);
             advance(); advance();
-            return jsxToken;
+            return index;
         }
 
         if (peekChar() == '<' && getNextChar() == '/' && getDoubleNextChar() == '>') {
-            JSXToken jsxToken = new JSXToken(
-                    JSXToken.Type.JSX_FRAGMENT_END,
-                    "</>",
-                    getPos(),
-                    getPos() + 2,
-                    getLine(),
-                    getLinePos()
-            );
+            int index = emitFixed(JSXToken.Type.JSX_FRAGMENT_END, "</>", getPos(), getPos() + 2);
             advance(); advance(); advance();
-            return jsxToken;
+            return index;
         }
 
         if (peekChar() == '<' && nextPosChar == '/') {
-            JSXToken jsxToken = new JSXToken(
-                    JSXToken.Type.JSX_TAG_CLOSE,
-                    "</",
-                    getPos(),
-                    getPos() + 1,
-                    getLine(),
-                    getLinePos()
-            );
+            int index = emitFixed(JSXToken.Type.JSX_TAG_CLOSE, "</", getPos(), getPos() + 1);
             advance(); advance(); // pos += 2;
-            return jsxToken;
+            return index;
         }
 
-        return new JSXToken(
-                JSXToken.Type.OPERATOR_OR_JSX_TAG_START,
-                advance() + "",
-                getPos(),
-                getPos() + 1,
-                getLine(),
-                getLinePos()
-        );
+        int mark = out.valueMark();
+        out.appendValue(advance());
+        return emit(JSXToken.Type.OPERATOR_OR_JSX_TAG_START, mark, null, getPos(), getPos() + 1);
     }
 
     /**
@@ -348,17 +355,19 @@ public class JSXTokenizer implements Tokenizer {
      * 多行注释： \/* wqeqw *\/
      * 块注释： \/** wqeqw \*\/
      */
-    private Token readComment() {
+    private int readComment() {
         int startPos = getPos();
         advance();
         char nextChar = advance();
 
-        StringBuilder sb = new StringBuilder();
+        int mark = out.valueMark();
 
         if (nextChar == '/') {
             while (!isAtEnd() && peekChar() != '\n') {
-                sb.append(advance());
+                out.appendValue(advance());
             }
+            //CRLF换行的\r不属于注释内容
+            out.trimValue(mark, '\r');
         } else if (nextChar == '*') {
             while (!isAtEnd()) {
                 char peekChar = advance();  //last char
@@ -366,84 +375,76 @@ public class JSXTokenizer implements Tokenizer {
                     advance(); advance();
                     break;
                 }
-                sb.append(peekChar);
+                out.appendValue(peekChar);
             }
         }
-        return new JSXToken(
-                JSXToken.Type.COMMENT,
-                sb.toString(),
-                startPos,
-                getPos(),
-                getLine(),
-                getLinePos()
-        );
+        return emit(JSXToken.Type.COMMENT, mark, null, startPos, getPos());
     }
 
     /**
      * 解析变量或关键字
      */
-    private Token readIdentifierOrKeyword() {
+    private int readIdentifierOrKeyword() {
         int start = getPos();
         while (!isAtEnd() && (Character.isLetterOrDigit(peekChar()) || peekChar() == '_')) {
             advance();
         }
-        String word = input.substring(start, getPos());
-        if (KEYWORDS.contains(word)) {
-            return new JSXToken(
-                    JSXToken.Type.KEYWORD,
-                    word,
-                    start,
-                    getPos(),
-                    getLine(),
-                    getLinePos()
-            );
+        int mark = out.valueMark();
+        appendSource(start, getPos());
+        String keyword = pendingKeyword(mark);
+        if (keyword != null) {
+            return emit(JSXToken.Type.KEYWORD, mark, keyword, start, getPos());
+        }
+        return emit(JSXToken.Type.IDENTIFIER, mark, null, start, getPos());
+    }
+
+    /**
+     * 查找与正在生成的token值相同的关键字
+     * @param mark  token值的起点
+     * @return      关键字常量，不是关键字时返回null
+     */
+    private String pendingKeyword(int mark) {
+        if (out.valueMark() - mark > MAX_KEYWORD_LENGTH) {
+            return null;
+        }
+        int hash = out.pendingValueHash(mark);
+        int mask = KEYWORD_TABLE.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            String keyword = KEYWORD_TABLE[i];
+            if (keyword == null) {
+                return null;
+            }
+            if (keyword.hashCode() == hash && out.pendingValueEquals(mark, keyword)) {
+                return keyword;
+            }
         }
-        return new JSXToken(
-                JSXToken.Type.IDENTIFIER,
-                word,
-                start,
-                getPos(),
-                getLine(),
-                getLinePos()
-        );
     }
 
     /**
      * 解析数字
      */
-    private Token readNumber() {
+    private int readNumber() {
         int start = getPos();
         while (!isAtEnd() && Character.isDigit(peekChar())) {
             advance();
         }
-        return new JSXToken(
-                JSXToken.Type.NUMBER,
-                input.substring(start, getPos()),
-                start,
-                getPos(),
-                getLine(),
-                getLinePos()
-        );
+        int mark = out.valueMark();
+        appendSource(start, getPos());
+        return emit(JSXToken.Type.NUMBER, mark, null, start, getPos());
     }
 
     /**
      * 解析字符串
      */
-    private Token readString() {
+    private int readString() {
         char quote = advance(); // consume opening quote
         int start = getPos();
         while (!isAtEnd() && peekChar() != quote) {
             advance();
         }
-        String value = input.substring(start, getPos());
+        int mark = out.valueMark();
+        appendSource(start, getPos());
         advance(); // consume closing quote
-        return new JSXToken(
-                JSXToken.Type.STRING,
-                value,
-                start,
-                getPos(),
-                getLine(),
-                getLinePos()
-        );
+        return emit(JSXToken.Type.STRING, mark, null, start, getPos());
     }
 }
@@ -0,0 +1,157 @@
+package org.wzl.depspider.ast.jsx.tokenizer;
+
+/**
+ * 扫描范围内的符号表
+ * 将导入路径和导入名规范化为同一个字符串实例：同一次扫描中所有文件的 'react'、'antd'、useState 等
+ * 都指向同一个对象，不再为每个文件各保存一份，比较时也可以直接命中 {@link String#equals(Object)} 的同一实例判断。
+ * <p>
+ * 可以直接按字符区查找，已经存在的符号不会创建新的字符串。
+ * 哈希值与 {@link String#hashCode()} 一致，按哈希值分段加锁，可以被多个扫描线程同时使用。
+ * 过长的值一般不会重复出现，不放入符号表。
+ *
+ * @author weizhilong
+ */
+public final class SymbolTable {
+
+    /**
+     * 放入符号表的最大长度
+     */
+    public static final int MAX_SYMBOL_LENGTH = 256;
+
+    private static final int SEGMENT_COUNT = 32;
+
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    public SymbolTable() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * 获取与字符串相同的规范实例
+     * @param value 字符串
+     * @return      规范实例，value为null或过长时原样返回
+     */
+    public String intern(String value) {
+        if (value == null || value.length() > MAX_SYMBOL_LENGTH) {
+            return value;
+        }
+        int hash = value.hashCode();
+        return segmentFor(hash).intern(value, hash);
+    }
+
+    /**
+     * 获取与字符区内容相同的规范实例，符号已经存在时不创建字符串
+     * @param chars     字符区
+     * @param offset    起始位置
+     * @param length    长度
+     * @return          规范实例，过长时返回新的字符串
+     */
+    public String intern(char[] chars, int offset, int length) {
+        if (length > MAX_SYMBOL_LENGTH) {
+            return new String(chars, offset, length);
+        }
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        return segmentFor(hash).intern(chars, offset, length, hash);
+    }
+
+    /**
+     * 符号数量
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[spread(hash) >>> 27];
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    /**
+     * 开放寻址的哈希表，段内的读写都需要对段加锁
+     */
+    private static final class Segment {
+
+        private String[] symbols = new String[INITIAL_SEGMENT_CAPACITY];
+
+        private int size = 0;
+
+        synchronized String intern(String value, int hash) {
+            int mask = symbols.length - 1;
+            for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+                String symbol = symbols[i];
+                if (symbol == null) {
+                    return add(i, value);
+                }
+                if (symbol.hashCode() == hash && symbol.equals(value)) {
+                    return symbol;
+                }
+            }
+        }
+
+        synchronized String intern(char[] chars, int offset, int length, int hash) {
+            int mask = symbols.length - 1;
+            for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+                String symbol = symbols[i];
+                if (symbol == null) {
+                    return add(i, new String(chars, offset, length));
+                }
+                if (symbol.hashCode() == hash && regionEquals(symbol, chars, offset, length)) {
+                    return symbol;
+                }
+            }
+        }
+
+        private String add(int slot, String value) {
+            symbols[slot] = value;
+            //装载因子超过一半时扩容
+            if (++size * 2 > symbols.length) {
+                rehash();
+            }
+            return value;
+        }
+
+        private void rehash() {
+            String[] old = symbols;
+            symbols = new String[old.length * 2];
+            int mask = symbols.length - 1;
+            for (String symbol : old) {
+                if (symbol == null) {
+                    continue;
+                }
+                int i = spread(symbol.hashCode()) & mask;
+                while (symbols[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                symbols[i] = symbol;
+            }
+        }
+
+        private static boolean regionEquals(String symbol, char[] chars, int offset, int length) {
+            if (symbol.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (symbol.charAt(i) != chars[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package org.wzl.depspider.ast.jsx.tokenizer;
+
+import java.util.Arrays;
+
+/**
+ * 紧凑的token缓冲区
+ * 每个token不再是一个对象，而是若干个并列的基本类型数组中的同一个下标：
+ * 类型、起止位置、行列、字节偏移，以及token值在字符区中的位置。
+ * token值的字符统一追加到一个char数组中，只有在调用 {@link #value(int)} 时才会生成字符串，
+ * 关键字、标点等固定的值直接复用常量字符串。
+ * 仍然基于对象访问token的代码通过 {@link #token(int)} 取得的token对象每个下标只创建一次。
+ *
+ * @author weizhilong
+ */
+public final class TokenBuffer {
+
+    private static final JSXToken.Type[] TYPES = JSXToken.Type.values();
+
+    /**
+     * ASCII单字符的字符串常量，单字符token的值不需要分配新的字符串
+     */
+    private static final String[] ASCII_VALUES = new String[128];
+
+    static {
+        for (char c = 0; c < ASCII_VALUES.length; c++) {
+            ASCII_VALUES[c] = String.valueOf(c).intern();
+        }
+    }
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int size = 0;
+
+    private int[] types;
+    private int[] starts;
+    private int[] ends;
+    private int[] lines;
+    private int[] columns;
+    private long[] startBytes;
+    private long[] endBytes;
+
+    /**
+     * token值在字符区中的起始位置和长度
+     */
+    private int[] valueOffsets;
+    private int[] valueLengths;
+
+    /**
+     * 已经生成的token值，按需填充
+     */
+    private String[] values;
+
+    /**
+     * 已经生成的token对象，按需填充，重复访问同一个下标时复用
+     */
+    private JSXToken[] tokens;
+
+    /**
+     * 所有token值的字符
+     */
+    private char[] chars;
+
+    private int charCount = 0;
+
+    public TokenBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TokenBuffer(int capacity) {
+        int initial = Math.max(16, capacity);
+        types = new int[initial];
+        starts = new int[initial];
+        ends = new int[initial];
+        lines = new int[initial];
+        columns = new int[initial];
+        startBytes = new long[initial];
+        endBytes = new long[initial];
+        valueOffsets = new int[initial];
+        valueLengths = new int[initial];
+        values = new String[initial];
+        tokens = new JSXToken[initial];
+        chars = new char[initial * 4];
+    }
+
+    /**
+     * 当前字符区的位置，作为下一个token值的起点
+     * @return  字符区位置
+     */
+    public int valueMark() {
+        return charCount;
+    }
+
+    /**
+     * 向正在生成的token值追加字符
+     * @param c 字符
+     */
+    public void appendValue(char c) {
+        if (charCount == chars.length) {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+        chars[charCount++] = c;
+    }
+
+    /**
+     * 删除正在生成的token值末尾的指定字符
+     * @param mark  token值的起点
+     * @param c     需要删除的字符
+     */
+    public void trimValue(int mark, char c) {
+        if (charCount > mark && chars[charCount - 1] == c) {
+            charCount--;
+        }
+    }
+
+    /**
+     * 正在生成的token值是否与字符串相同，不会创建字符串
+     * @param mark  token值的起点
+     * @param value 比较的字符串
+     * @return      相同返回true
+     */
+    public boolean pendingValueEquals(int mark, String value) {
+        return regionEquals(mark, charCount - mark, value);
+    }
+
+    /**
+     * 正在生成的token值的哈希值，与 {@link String#hashCode()} 一致，不会创建字符串
+     * @param mark  token值的起点
+     * @return      哈希值
+     */
+    public int pendingValueHash(int mark) {
+        int hash = 0;
+        for (int i = mark; i < charCount; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    /**
+     * 添加token，token值为从mark开始追加的字符
+     * @return  token下标
+     */
+    public int add(JSXToken.Type type, int mark, int start, int end, int line, int column, long startByte, long endByte) {
+        return add(type, mark, null, start, end, line, column, startByte, endByte);
+    }
+
+    /**
+     * 添加token
+     * @param constantValue token值的常量字符串，为null时按需从字符区生成
+     * @return  token下标
+     */
+    public int add(JSXToken.Type type, int mark, String constantValue,
+                   int start, int end, int line, int column, long startByte, long endByte) {
+        if (size == types.length) {
+            grow();
+        }
+        int index = size++;
+        types[index] = type.ordinal();
+        starts[index] = start;
+        ends[index] = end;
+        lines[index] = line;
+        columns[index] = column;
+        startBytes[index] = startByte;
+        endBytes[index] = endByte;
+        valueOffsets[index] = mark;
+        valueLengths[index] = charCount - mark;
+        values[index] = constantValue;
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public JSXToken.Type type(int index) {
+        return TYPES[types[index]];
+    }
+
+    public boolean isType(int index, JSXToken.Type type) {
+        return types[index] == type.ordinal();
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int end(int index) {
+        return ends[index];
+    }
+
+    public int line(int index) {
+        return lines[index];
+    }
+
+    public int column(int index) {
+        return columns[index];
+    }
+
+    public long startByte(int index) {
+        return startBytes[index];
+    }
+
+    public long endByte(int index) {
+        return endBytes[index];
+    }
+
+    /**
+     * 获取token值，第一次调用时才生成字符串
+     * @param index token下标
+     * @return      token值
+     */
+    public String value(int index) {
+        String value = values[index];
+        if (value == null) {
+            int length = valueLengths[index];
+            int offset = valueOffsets[index];
+            if (length == 0) {
+                value = "";
+            } else if (length == 1 && chars[offset] < ASCII_VALUES.length) {
+                value = ASCII_VALUES[chars[offset]];
+            } else {
+                value = new String(chars, offset, length);
+            }
+            values[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * 获取符号表中的token值，符号已经存在时不会创建字符串
+     * @param index     token下标
+     * @param symbols   符号表，为null时与 {@link #value(int)} 相同
+     * @return          token值的规范实例
+     */
+    public String symbol(int index, SymbolTable symbols) {
+        if (symbols == null) {
+            return value(index);
+        }
+        String value = values[index];
+        if (value == null) {
+            value = symbols.intern(chars, valueOffsets[index], valueLengths[index]);
+        } else {
+            value = symbols.intern(value);
+        }
+        values[index] = value;
+        return value;
+    }
+
+    /**
+     * token值是否与字符串相同，不会创建字符串
+     * @param index token下标
+     * @param value 比较的字符串
+     * @return      相同返回true
+     */
+    public boolean valueEquals(int index, String value) {
+        String cached = values[index];
+        if (cached != null) {
+            return cached.equals(value);
+        }
+        return regionEquals(valueOffsets[index], valueLengths[index], value);
+    }
+
+    /**
+     * 获取token对象，供仍然基于对象访问token的代码使用，第一次调用时才创建
+     * @param index token下标
+     * @return      token
+     */
+    public JSXToken token(int index) {
+        JSXToken token = tokens[index];
+        if (token == null) {
+            token = new JSXToken(
+                    type(index),
+                    value(index),
+                    starts[index],
+                    ends[index],
+                    lines[index],
+                    columns[index],
+                    startBytes[index],
+                    endBytes[index]
+            );
+            tokens[index] = token;
+        }
+        return token;
+    }
+
+    /**
+     * 清空缓冲区，保留已经分配的数组
+     */
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(tokens, 0, size, null);
+        size = 0;
+        charCount = 0;
+    }
+
+    private boolean regionEquals(int offset, int length, String value) {
+        if (value == null || value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        startBytes = Arrays.copyOf(startBytes, capacity);
+        endBytes = Arrays.copyOf(endBytes, capacity);
+        valueOffsets = Arrays.copyOf(valueOffsets, capacity);
+        valueLengths = Arrays.copyOf(valueLengths, capacity);
+        values = Arrays.copyOf(values, capacity);
+        tokens = Arrays.copyOf(tokens, capacity);
+    }
+}
@@ -0,0 +1,137 @@
+package org.wzl.depspider.ast.jsx.tokenizer;
+
+/**
+ * 按需拉取的token流
+ * 语法分析访问到某个下标时才让词法分析器继续向后扫描，已经扫描过的token保存在 {@link TokenBuffer} 中，
+ * 支持回退和向前查看。只解析import的场景下，语法分析提前结束后剩余的代码不会再被词法分析。
+ * <p>
+ * 语法分析可以通过下标直接读取token的各个属性，不需要为每个token创建对象。
+ *
+ * @author weizhilong
+ */
+public class TokenStream {
+
+    private final JSXTokenizer tokenizer;
+
+    /**
+     * 已经扫描出的token
+     */
+    private final TokenBuffer buffer = new TokenBuffer();
+
+    /**
+     * 是否已经扫描到EOF
+     */
+    private boolean exhausted = false;
+
+    public TokenStream(JSXTokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * 指定下标的token是否存在，必要时继续扫描
+     * @param index token下标
+     * @return      超出EOF时返回false
+     */
+    public boolean has(int index) {
+        while (index >= buffer.size() && !exhausted) {
+            pull();
+        }
+        return index >= 0 && index < buffer.size();
+    }
+
+    /**
+     * 获取指定下标的token对象，必要时继续扫描
+     * @param index token下标
+     * @return      token，超出EOF时返回null
+     */
+    public JSXToken get(int index) {
+        return has(index) ? buffer.token(index) : null;
+    }
+
+    /**
+     * 指定下标的token是否为指定类型
+     * @param index token下标
+     * @param type  token类型
+     * @return      token不存在或类型不同时返回false
+     */
+    public boolean isType(int index, JSXToken.Type type) {
+        return has(index) && buffer.isType(index, type);
+    }
+
+    /**
+     * 获取token类型，调用前需要通过 {@link #has(int)} 确认token存在
+     */
+    public JSXToken.Type type(int index) {
+        return buffer.type(index);
+    }
+
+    public String value(int index) {
+        return buffer.value(index);
+    }
+
+    /**
+     * 获取token值在符号表中的规范实例
+     * @param symbols   符号表，为null时与 {@link #value(int)} 相同
+     */
+    public String symbol(int index, SymbolTable symbols) {
+        return buffer.symbol(index, symbols);
+    }
+
+    public boolean valueEquals(int index, String value) {
+        return buffer.valueEquals(index, value);
+    }
+
+    public int start(int index) {
+        return buffer.start(index);
+    }
+
+    public int end(int index) {
+        return buffer.end(index);
+    }
+
+    public int line(int index) {
+        return buffer.line(index);
+    }
+
+    public int column(int index) {
+        return buffer.column(index);
+    }
+
+    public long endByte(int index) {
+        return buffer.endByte(index);
+    }
+
+    /**
+     * 扫描剩余的所有代码，返回EOF token的下标
+     * @return  EOF token下标
+     */
+    public int eof() {
+        while (!exhausted) {
+            pull();
+        }
+        return buffer.size() - 1;
+    }
+
+    /**
+     * 获取最后一个已经扫描出的token的下标
+     * @return  token下标，还没有扫描时返回-1
+     */
+    public int last() {
+        return buffer.size() - 1;
+    }
+
+    /**
+     * 已经扫描出的token数量
+     * @return  token数量
+     */
+    public int scannedSize() {
+        return buffer.size();
+    }
+
+    private void pull() {
+        int index = tokenizer.next(buffer);
+        if (buffer.isType(index, JSXToken.Type.EOF)) {
+            exhausted = true;
+        }
+    }
+}
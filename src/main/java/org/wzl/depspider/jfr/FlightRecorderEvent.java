@@ -0,0 +1,212 @@
+package org.wzl.depspider.jfr;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 通过反射定义的 Java Flight Recorder 事件类型
+ * 项目以Java 8为编译目标，不能直接继承 jdk.jfr.Event，因此通过 jdk.jfr.EventFactory 在运行时定义事件类型，
+ * 事件方法通过 MethodHandle 调用。JVM不提供JFR时所有方法都是空操作。
+ * <p>
+ * 事件类型没有被录制时 {@link #begin()} 返回null，调用方只需要一次判断，不会创建事件对象。
+ * 使用方式：
+ * <pre>
+ * Object event = EVENT.begin();
+ * ...
+ * EVENT.commit(event, field0, field1);
+ * </pre>
+ *
+ * @author weizhilong
+ */
+@Slf4j
+public final class FlightRecorderEvent {
+
+    private static final String CATEGORY = "DepSpider";
+
+    private static final Jfr JFR = Jfr.load();
+
+    /**
+     * 事件工厂，JFR不可用或定义失败时为null
+     */
+    private final Object factory;
+
+    private final Object eventType;
+
+    private final int fieldCount;
+
+    private FlightRecorderEvent(Object factory, Object eventType, int fieldCount) {
+        this.factory = factory;
+        this.eventType = eventType;
+        this.fieldCount = fieldCount;
+    }
+
+    /**
+     * 定义事件类型
+     * @param name          事件名称，例如 depspider.Parse
+     * @param label         事件标签
+     * @param description   事件描述
+     * @param fieldNames    字段名称
+     * @param fieldTypes    字段类型，只支持基本类型和String
+     * @return              事件类型，JFR不可用时返回空操作的事件类型
+     */
+    public static FlightRecorderEvent define(String name, String label, String description,
+                                             String[] fieldNames, Class<?>[] fieldTypes) {
+        if (JFR == null) {
+            return new FlightRecorderEvent(null, null, fieldNames.length);
+        }
+        try {
+            Object factory = JFR.createFactory(name, label, description, fieldNames, fieldTypes);
+            return new FlightRecorderEvent(factory, JFR.getEventType.invoke(factory), fieldNames.length);
+        } catch (Throwable e) {
+            log.debug("define flight recorder event {} fail", name, e);
+            return new FlightRecorderEvent(null, null, fieldNames.length);
+        }
+    }
+
+    /**
+     * JVM是否提供JFR
+     */
+    public static boolean isAvailable() {
+        return JFR != null;
+    }
+
+    /**
+     * 事件类型是否正在被录制
+     */
+    public boolean isEnabled() {
+        if (factory == null) {
+            return false;
+        }
+        try {
+            return (boolean) JFR.isEnabled.invoke(eventType);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * 开始一个事件并开始计时
+     * @return  事件，事件类型没有被录制时返回null
+     */
+    public Object begin() {
+        if (!isEnabled()) {
+            return null;
+        }
+        try {
+            Object event = JFR.newEvent.invoke(factory);
+            JFR.begin.invoke(event);
+            return event;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 结束计时，设置字段并提交事件
+     * @param event     {@link #begin()} 返回的事件，为null时不做任何事
+     * @param values    字段的值，顺序与定义时一致
+     */
+    public void commit(Object event, Object... values) {
+        if (event == null) {
+            return;
+        }
+        try {
+            JFR.end.invoke(event);
+            if (!(boolean) JFR.shouldCommit.invoke(event)) {
+                return;
+            }
+            for (int i = 0; i < fieldCount && i < values.length; i++) {
+                JFR.set.invoke(event, i, values[i]);
+            }
+            JFR.commit.invoke(event);
+        } catch (Throwable e) {
+            log.debug("commit flight recorder event fail", e);
+        }
+    }
+
+    /**
+     * jdk.jfr 中用到的类和方法
+     */
+    private static final class Jfr {
+
+        private final Constructor<?> annotationElement;
+        private final Constructor<?> valueDescriptor;
+        private final Class<?> nameAnnotation;
+        private final Class<?> labelAnnotation;
+        private final Class<?> descriptionAnnotation;
+        private final Class<?> categoryAnnotation;
+        private final Class<?> stackTraceAnnotation;
+        private final MethodHandle createFactory;
+        private final MethodHandle getEventType;
+        private final MethodHandle isEnabled;
+        private final MethodHandle newEvent;
+        private final MethodHandle begin;
+        private final MethodHandle end;
+        private final MethodHandle shouldCommit;
+        private final MethodHandle set;
+        private final MethodHandle commit;
+
+        private Jfr() throws ReflectiveOperationException {
+            ClassLoader loader = ClassLoader.getSystemClassLoader();
+            Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement", false, loader);
+            Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor", false, loader);
+            Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory", false, loader);
+            Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType", false, loader);
+            Class<?> eventClass = Class.forName("jdk.jfr.Event", false, loader);
+            this.annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+            this.valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+            this.nameAnnotation = Class.forName("jdk.jfr.Name", false, loader);
+            this.labelAnnotation = Class.forName("jdk.jfr.Label", false, loader);
+            this.descriptionAnnotation = Class.forName("jdk.jfr.Description", false, loader);
+            this.categoryAnnotation = Class.forName("jdk.jfr.Category", false, loader);
+            this.stackTraceAnnotation = Class.forName("jdk.jfr.StackTrace", false, loader);
+
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            this.createFactory = lookup.findStatic(eventFactoryClass, "create",
+                    MethodType.methodType(eventFactoryClass, List.class, List.class));
+            this.getEventType = lookup.findVirtual(eventFactoryClass, "getEventType", MethodType.methodType(eventTypeClass));
+            this.isEnabled = lookup.findVirtual(eventTypeClass, "isEnabled", MethodType.methodType(boolean.class));
+            this.newEvent = lookup.findVirtual(eventFactoryClass, "newEvent", MethodType.methodType(eventClass));
+            this.begin = lookup.findVirtual(eventClass, "begin", MethodType.methodType(void.class));
+            this.end = lookup.findVirtual(eventClass, "end", MethodType.methodType(void.class));
+            this.shouldCommit = lookup.findVirtual(eventClass, "shouldCommit", MethodType.methodType(boolean.class));
+            this.set = lookup.findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class));
+            this.commit = lookup.findVirtual(eventClass, "commit", MethodType.methodType(void.class));
+        }
+
+        private static Jfr load() {
+            try {
+                return new Jfr();
+            } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+                return null;
+            }
+        }
+
+        private Object createFactory(String name, String label, String description,
+                                     String[] fieldNames, Class<?>[] fieldTypes) throws Throwable {
+            List<Object> annotations = Arrays.asList(
+                    annotationElement.newInstance(nameAnnotation, name),
+                    annotationElement.newInstance(labelAnnotation, label),
+                    annotationElement.newInstance(descriptionAnnotation, description),
+                    annotationElement.newInstance(categoryAnnotation, new String[]{CATEGORY}),
+                    //事件数量可能很多，默认不记录调用栈
+                    annotationElement.newInstance(stackTraceAnnotation, false)
+            );
+            List<Object> fields = new ArrayList<>(fieldNames.length);
+            for (int i = 0; i < fieldNames.length; i++) {
+                List<Object> fieldAnnotations = Collections.singletonList(
+                        annotationElement.newInstance(labelAnnotation, fieldNames[i]));
+                fields.add(valueDescriptor.newInstance(fieldTypes[i], fieldNames[i], fieldAnnotations));
+            }
+            return createFactory.invoke(annotations, fields);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.wzl.depspider.jfr;
+
+/**
+ * 扫描过程中发出的JFR事件
+ * 可以通过 jcmd &lt;pid&gt; JFR.start 录制，在 JDK Mission Control 的 DepSpider 分类下查看。
+ * JVM不提供JFR时不会发出任何事件。
+ *
+ * @author weizhilong
+ */
+public final class ScanEvents {
+
+    /**
+     * 解析单个文件，词法分析由语法分析按需驱动，两者在同一个事件中计时
+     */
+    public static final FlightRecorderEvent PARSE = FlightRecorderEvent.define(
+            "depspider.Parse", "Parse File", "Tokenize and parse a source file",
+            new String[]{"file", "importOnly", "tokens", "bytes"},
+            new Class<?>[]{String.class, boolean.class, long.class, long.class}
+    );
+
+    /**
+     * 解析一个导入路径
+     */
+    public static final FlightRecorderEvent RESOLVE = FlightRecorderEvent.define(
+            "depspider.Resolve", "Resolve Import", "Resolve an import specifier to a project file",
+            new String[]{"importer", "specifier", "kind", "outcome", "resolved"},
+            new Class<?>[]{String.class, String.class, String.class, String.class, String.class}
+    );
+
+    /**
+     * 分析单个路由文件
+     */
+    public static final FlightRecorderEvent ANALYZE_ROUTE_FILE = FlightRecorderEvent.define(
+            "depspider.AnalyzeRouteFile", "Analyze Route File", "Extract page routes from a route file",
+            new String[]{"file", "routes", "imports"},
+            new Class<?>[]{String.class, int.class, int.class}
+    );
+
+    /**
+     * 构建组件索引
+     */
+    public static final FlightRecorderEvent COMPONENT_INDEX = FlightRecorderEvent.define(
+            "depspider.ComponentIndex", "Build Component Index", "Build the component file index of a project snapshot",
+            new String[]{"files"},
+            new Class<?>[]{int.class}
+    );
+
+    /**
+     * 解析导入路径的结果：命中缓存
+     */
+    public static final String OUTCOME_CACHED = "cached";
+
+    /**
+     * 解析导入路径的结果：找到项目文件
+     */
+    public static final String OUTCOME_RESOLVED = "resolved";
+
+    /**
+     * 解析导入路径的结果：不是项目文件或找不到
+     */
+    public static final String OUTCOME_NOT_FOUND = "not-found";
+
+    private ScanEvents() {
+    }
+}
@@ -0,0 +1,28 @@
+package org.wzl.depspider.react.dto;
+
+import lombok.Data;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * 导入环
+ * 一组互相直接或间接导入的文件（依赖图中的一个强连通分量），只有一个文件时表示该文件导入了自己
+ *
+ * @author weizhilong
+ */
+@Data
+public class ImportCycle {
+
+    /**
+     * 环中的文件，按路径排序
+     */
+    private List<File> files;
+
+    /**
+     * 环中的导入关系，只包含导入环中其他文件的部分，
+     * targetFile 为导入者，relationFilePaths 为它导入的环中的文件
+     */
+    private List<ProjectFileRelation> relations;
+
+}
@@ -0,0 +1,25 @@
+package org.wzl.depspider.react.exception;
+
+import org.wzl.depspider.react.project.scan.ScanProgress;
+
+/**
+ * 扫描被取消或超过截止时间
+ * 异常中带有取消时的扫描进度；流式扫描在取消之前已经交给consumer的结果仍然有效，
+ * 完整扫描被取消时不会替换已有的项目快照。
+ */
+public class ScanCancelledException extends RuntimeException {
+
+    private final transient ScanProgress progress;
+
+    public ScanCancelledException(String message, ScanProgress progress) {
+        super(message);
+        this.progress = progress;
+    }
+
+    /**
+     * 取消时的扫描进度
+     */
+    public ScanProgress getProgress() {
+        return progress;
+    }
+}
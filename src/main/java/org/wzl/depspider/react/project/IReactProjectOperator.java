@@ -1,15 +1,62 @@
 package org.wzl.depspider.react.project;
 
 import org.wzl.depspider.react.dto.FileImport;
+import org.wzl.depspider.react.dto.ImportCycle;
 import org.wzl.depspider.react.dto.PageRouterDefine;
 import org.wzl.depspider.react.dto.ProjectFileRelation;
+import org.wzl.depspider.react.project.scan.CancellationToken;
+import org.wzl.depspider.react.project.scan.ScanListener;
+import org.wzl.depspider.react.project.scan.ScanStatistics;
+import org.wzl.depspider.react.project.watch.ProjectWatcher;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface IReactProjectOperator {
 
+    /**
+     * 重新扫描项目，重建项目快照
+     * 所有查询都基于第一次查询时构建的快照回答，项目文件发生变化后需要调用该函数
+     */
+    void refresh();
+
+    /**
+     * 重新扫描项目，重建项目快照，扫描过程中报告进度并可以被取消
+     * 扫描被取消或超过截止时间时抛出 ScanCancelledException，已有的项目快照保持不变
+     * @param listener  进度监听器，为null时使用 ProjectConfiguration#scanListener
+     * @param token     取消令牌，为null时按 ProjectConfiguration#scanTimeoutMillis 设置截止时间
+     */
+    void refresh(ScanListener listener, CancellationToken token);
+
+    /**
+     * 增量更新项目快照
+     * 只重新解析变化的文件，并修补文件关系、反向依赖、递归关系缓存和路由定义缓存；
+     * 还没有快照时会进行一次完整扫描
+     * @param changed   新增或修改的文件，传入目录时会包含其下所有文件
+     * @param deleted   删除的文件或目录
+     */
+    void update(Collection<Path> changed, Collection<Path> deleted);
+
+    /**
+     * 开始监听项目的src目录和扫描路径，文件变化会自动增量更新到项目快照
+     * 使用完毕后需要调用 ProjectWatcher#close 停止监听
+     * @return  文件监听器
+     */
+    ProjectWatcher watch();
+
+    /**
+     * 获取最近一次扫描操作的统计信息
+     * 完整扫描、增量更新、流式扫描以及路由分析都会生成一份新的统计信息，只从项目快照中回答的查询不会替换它。
+     * 统计信息包括每个阶段的墙钟时间和CPU时间、处理的文件数、字节数和token数，导入路径解析缓存的命中情况、
+     * 文件系统调用次数以及耗时最长的文件
+     * @return  统计信息，还没有进行过扫描时各项均为0
+     */
+    ScanStatistics getLastScanStatistics();
+
     /**
      * 获取项目文件关系
      * 通过一个文件的import来判断
@@ -18,6 +65,23 @@ public interface IReactProjectOperator {
      */
     List<ProjectFileRelation> jsxFileRelation();
 
+    /**
+     * 以流的方式获取项目文件关系，结果与 jsxFileRelation 一致
+     * 已有项目快照时直接从快照中逐个交出；否则边扫描边交出，每批文件处理完后立即交给consumer，
+     * 不构建也不保留项目快照，适合把结果直接写入数据库等场景，内存占用不随项目规模增长
+     * @param consumer  文件关系消费者，在调用线程中按 jsxFileRelation 的顺序调用
+     */
+    void scanRelations(Consumer<? super ProjectFileRelation> consumer);
+
+    /**
+     * 以流的方式获取项目文件关系，扫描过程中报告进度并可以被取消
+     * 扫描被取消或超过截止时间时抛出 ScanCancelledException，此前已经交给consumer的结果仍然有效
+     * @param consumer  文件关系消费者，在调用线程中按 jsxFileRelation 的顺序调用
+     * @param listener  进度监听器，为null时使用 ProjectConfiguration#scanListener
+     * @param token     取消令牌，为null时按 ProjectConfiguration#scanTimeoutMillis 设置截止时间
+     */
+    void scanRelations(Consumer<? super ProjectFileRelation> consumer, ScanListener listener, CancellationToken token);
+
     /**
      * 查找项目中的哪些文件import了函数、或组件
      * 该函数可以通过 导入名和导入的内容来查找
@@ -30,17 +94,74 @@ public interface IReactProjectOperator {
 
     /**
      * 获取项目文件关系，通过递归来将所有的子文件也包含进去
+     * 只返回没有被其他文件导入的根文件，每个根文件的关联文件按路径排序
      * @param originRelation   源关系列表
      * @return  项目文件关系列表，
      */
     List<ProjectFileRelation> deepSearchProjectRelation(List<ProjectFileRelation> originRelation);
 
+    /**
+     * 查找直接导入了该文件的文件
+     * 基于项目快照中的反向依赖回答，不需要遍历所有文件关系
+     * @param file  被导入的文件，路径写法与 jsxFileRelation 返回的文件一致
+     * @return      直接导入者
+     */
+    List<File> findDependents(File file);
+
+    /**
+     * 查找直接或间接导入了该文件的文件，可用于评估修改一个文件会影响哪些页面
+     * @param file      被导入的文件，路径写法与 jsxFileRelation 返回的文件一致
+     * @param depth     最大层数，1表示只返回直接导入者，小于等于0时不限制层数
+     * @return          导入者，按层数从近到远排列，不包含文件本身
+     */
+    List<File> findTransitiveDependents(File file, int depth);
+
+    /**
+     * 批量查询多个文件分别直接或间接导入了哪些目标文件
+     * 所有起始文件共用同一次传递闭包计算，不需要对每个文件调用 deepSearchProjectRelation
+     * @param sources   起始文件，路径写法与 jsxFileRelation 返回的文件一致
+     * @param targets   目标文件
+     * @return          key为起始文件，value为它导入的目标文件，起始文件本身是目标文件时包含它自己
+     */
+    Map<File, List<File>> findReachableTargets(Collection<File> sources, Collection<File> targets);
+
+    /**
+     * 查找受文件修改影响的页面路由
+     * 页面路由来自 findPageRouterDefine，路由的组件文件直接或间接导入了任意一个修改的文件（或者本身被修改）时受到影响
+     * @param changedFiles  修改的文件，路径写法与 jsxFileRelation 返回的文件一致
+     * @return              受影响的页面路由，顺序与 findPageRouterDefine 一致
+     */
+    List<PageRouterDefine> findAffectedPages(Collection<File> changedFiles);
+
+    /**
+     * 查找项目中的所有导入环
+     * 在依赖图上线性时间内找出所有强连通分量，每个导入环包含环中的文件以及环内部的导入关系
+     * @return  导入环，按环中第一个文件的路径排序
+     */
+    List<ImportCycle> findImportCycles();
+
     /**
      * 获取所有文件的import信息
      * @return  项目所有文件的import信息
      */
     List<FileImport> findFileImport();
 
+    /**
+     * 以流的方式获取所有文件的import信息，结果与 findFileImport 一致
+     * 没有项目快照时边解析边交出，不构建也不保留项目快照
+     * @param consumer  import信息消费者，在调用线程中按 findFileImport 的顺序调用
+     */
+    void scanFileImports(Consumer<? super FileImport> consumer);
+
+    /**
+     * 以流的方式获取所有文件的import信息，扫描过程中报告进度并可以被取消
+     * 扫描被取消或超过截止时间时抛出 ScanCancelledException，此前已经交给consumer的结果仍然有效
+     * @param consumer  import信息消费者，在调用线程中按 findFileImport 的顺序调用
+     * @param listener  进度监听器，为null时使用 ProjectConfiguration#scanListener
+     * @param token     取消令牌，为null时按 ProjectConfiguration#scanTimeoutMillis 设置截止时间
+     */
+    void scanFileImports(Consumer<? super FileImport> consumer, ScanListener listener, CancellationToken token);
+
     /**
      * 获取项目的package.json文件信息，返回的时json字符串
      * @return  package.json文件
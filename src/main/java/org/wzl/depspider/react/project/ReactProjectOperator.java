@@ -4,8 +4,10 @@ import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.wzl.depspider.ast.core.tokenizer.SourceLoader;
 import org.wzl.depspider.ast.jsx.visitor.JSXImportVisitor;
 import org.wzl.depspider.ast.jsx.parser.JSXParse;
+import org.wzl.depspider.ast.jsx.tokenizer.SymbolTable;
 import org.wzl.depspider.ast.jsx.parser.node.FileNode;
 import org.wzl.depspider.ast.jsx.parser.node.ProgramNode;
 import org.wzl.depspider.ast.jsx.parser.node.definition.ArrayExpression;
@@ -25,12 +27,22 @@ import org.wzl.depspider.ast.jsx.parser.node.definition.declaration.VariableDecl
 import org.wzl.depspider.ast.jsx.parser.node.definition.literal.StringLiteral;
 import org.wzl.depspider.ast.jsx.parser.node.definition.specifier.ImportSpecifier;
 import org.wzl.depspider.ast.jsx.parser.node.definition.specifier.Specifier;
+import org.wzl.depspider.jfr.ScanEvents;
 import org.wzl.depspider.react.dto.FileImport;
 import org.wzl.depspider.react.dto.FileImportDetail;
 import org.wzl.depspider.react.dto.FileRelationDetail;
+import org.wzl.depspider.react.dto.ImportCycle;
 import org.wzl.depspider.react.dto.PageRouterDefine;
 import org.wzl.depspider.react.dto.ProjectFileRelation;
 import org.wzl.depspider.react.exception.ReactProjectInitException;
+import org.wzl.depspider.react.project.cache.ParseCache;
+import org.wzl.depspider.react.project.graph.DependencyGraph;
+import org.wzl.depspider.react.project.model.ComponentIndex;
+import org.wzl.depspider.react.project.model.ProjectModel;
+import org.wzl.depspider.react.project.model.RouteAnalysisResult;
+import org.wzl.depspider.react.project.resolve.DirectoryIndex;
+import org.wzl.depspider.react.project.resolve.ModuleResolver;
+import org.wzl.depspider.react.project.resolve.PathAliases;
 import org.wzl.depspider.react.exception.ReactProjectValidException;
 import org.wzl.depspider.react.exception.ScanPathSetException;
 import org.wzl.depspider.react.project.config.language.CompositeLanguageStrategy;
@@ -38,6 +50,13 @@ import org.wzl.depspider.react.project.config.language.Language;
 import org.wzl.depspider.react.project.config.ProjectConfiguration;
 import org.wzl.depspider.react.project.config.language.LanguageStrategy;
 import org.wzl.depspider.react.project.config.language.LanguageStrategyFactory;
+import org.wzl.depspider.react.project.scan.CancellationToken;
+import org.wzl.depspider.react.project.scan.ScanContext;
+import org.wzl.depspider.react.project.scan.ScanExecutor;
+import org.wzl.depspider.react.project.scan.ScanListener;
+import org.wzl.depspider.react.project.scan.ScanPhase;
+import org.wzl.depspider.react.project.scan.ScanStatistics;
+import org.wzl.depspider.react.project.watch.ProjectWatcher;
 import org.wzl.depspider.utils.FileUtil;
 
 import java.io.File;
@@ -45,13 +64,14 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayDeque;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -59,6 +79,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -71,6 +94,16 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ReactProjectOperator implements IReactProjectOperator {
 
+    /**
+     * 增量更新后写入解析缓存的最小间隔
+     */
+    private static final long UPDATE_CACHE_FLUSH_INTERVAL_MILLIS = 30_000;
+
+    /**
+     * 监听项目时单独监听的项目根目录下的文件
+     */
+    private static final String[] WATCHED_PROJECT_FILES = {"package.json", "tsconfig.json", "jsconfig.json"};
+
     /**
      * 项目根目录
      */
@@ -102,14 +135,20 @@ public class ReactProjectOperator implements IReactProjectOperator {
     private final List<File> srcFolderChildren;
 
     /**
-     * component 文件名称索引
+     * 项目快照，第一次查询时构建，调用 refresh() 时重建
+     * 构建、重建和增量更新都在operator的锁内进行，读取快照不需要加锁
+     */
+    private volatile ProjectModel projectModel;
+
+    /**
+     * 最近一次扫描操作的统计信息
      */
-    private final Map<String, List<File>> componentNameIndex = new HashMap<>();
+    private volatile ScanStatistics lastScanStatistics;
 
     /**
-     * component 文件名称索引是否已经构建
+     * package.json的内容，按文件大小和修改时间缓存
      */
-    private boolean componentIndexBuilt = false;
+    private volatile CachedFile packageJson;
 
     /**
      * 扫描路径
@@ -122,12 +161,46 @@ public class ReactProjectOperator implements IReactProjectOperator {
      */
     private LanguageStrategy languageStrategy;
 
+    /**
+     * 目录列表缓存，解析导入路径时通过它判断文件是否存在，每次扫描开始时按目录修改时间失效
+     */
+    private final DirectoryIndex directoryIndex = new DirectoryIndex();
+
+    /**
+     * 导入路径解析，按（导入文件所在目录，导入路径）缓存解析结果，每次扫描开始时清空
+     */
+    @Getter
+    private ModuleResolver moduleResolver;
+
     /**
      * 项目的入口文件，例如index.js、index.jsx、index.tsx等
      * 该文件只包含了是否调用了 ReactDOM.render() 或 root.render()等方法来渲染组件
      */
     private File projectIndexFile;
 
+    /**
+     * 扫描执行器，并行度由 ProjectConfiguration#parallelism 决定
+     */
+    private final ScanExecutor scanExecutor;
+
+    /**
+     * 持久化解析缓存，未启用时为null
+     */
+    private final ParseCache parseCache;
+
+    /**
+     * 导入路径和导入名的符号表，完整扫描和之后的增量更新共用同一份，
+     * 更新后重新解析的文件与快照中其它文件的相同导入路径仍然是同一个实例；refresh时换成新的符号表，丢弃已经删除的文件留下的符号
+     */
+    private volatile SymbolTable symbols = new SymbolTable();
+
+    /**
+     * 还没有项目快照时按路径后缀搜索组件使用的索引，见 {@link #componentIndex()}
+     */
+    private volatile ComponentIndex componentIndex;
+
+    private final Object componentIndexLock = new Object();
+
     /**
      * 构造函数
      * @param projectPath 项目根目录
@@ -138,7 +211,11 @@ public class ReactProjectOperator implements IReactProjectOperator {
         this.projectPath = projectPath;
         this.projectFileFolder = new File(projectPath);
         this.projectConfiguration = projectConfiguration;
+        this.scanExecutor = new ScanExecutor(projectConfiguration.getParallelism());
         this.srcFileFolder = new File(projectPath, "src");
+        this.parseCache = createParseCache();
+        this.lastScanStatistics = new ScanStatistics(projectConfiguration.getSlowestFileCount());
+        this.lastScanStatistics.finish();
         this.srcFolderChildren = new ArrayList<>();
         for (File file : Objects.requireNonNull(this.srcFileFolder.listFiles())) {
             if (file.isDirectory()) {
@@ -149,12 +226,35 @@ public class ReactProjectOperator implements IReactProjectOperator {
         initProject();
     }
 
+    private ParseCache createParseCache() {
+        if (!projectConfiguration.isParseCacheEnabled()) {
+            return null;
+        }
+        File cacheDirectory = new File(projectConfiguration.getParseCacheDirectory());
+        if (!cacheDirectory.isAbsolute()) {
+            cacheDirectory = new File(projectFileFolder, projectConfiguration.getParseCacheDirectory());
+        }
+        return new ParseCache(cacheDirectory);
+    }
+
     private void initProject() {
         setScanPath();
         setLanguageStrategy();
+        setModuleResolver();
         setProjectIndexFile();
     }
 
+    private void setModuleResolver() {
+        this.moduleResolver = new ModuleResolver(
+                projectFileFolder,
+                srcFileFolder,
+                projectConfiguration.getLanguages(),
+                languageStrategy,
+                directoryIndex,
+                this::searchComponentInProject
+        );
+    }
+
     /**
      * 获取一个项目的入口文件
      */
@@ -163,10 +263,10 @@ public class ReactProjectOperator implements IReactProjectOperator {
             if (file.isDirectory()) {
                 continue;
             }
-            String regexp = "(createRoot\\s*\\(|root\\.render\\s*\\(|ReactDOM\\.render\\s*\\(|React\\.createElement\\s*\\(|hydrateRoot\\s*\\(|hydrate\\s*\\()\n";
+            String regexp = "(createRoot\\s*\\(|root\\.render\\s*\\(|ReactDOM\\.render\\s*\\(|React\\.createElement\\s*\\(|hydrateRoot\\s*\\(|hydrate\\s*\\()\r?\n";
             String fileContent;
             try {
-                fileContent = FileUtil.getInputString(file);
+                fileContent = SourceLoader.readString(file);
             } catch (IOException e) {
                 throw new ReactProjectInitException("读取文件入口失败: " + file.getAbsolutePath());
             }
@@ -210,118 +310,818 @@ public class ReactProjectOperator implements IReactProjectOperator {
         }
     }
 
+    @Override
+    public void refresh() {
+        refresh(null, null);
+    }
+
+    /**
+     * 重新扫描项目并替换快照
+     * 重建过程持有operator的锁，与增量更新串行执行：重建期间到达的更新会等待重建完成后应用到新快照上，
+     * 不会因为新快照覆盖旧快照而丢失
+     * 重建使用一份新的符号表，重建成功后与新快照一起替换，之后的增量更新继续使用这份符号表；
+     * 重建被取消或失败时保留原来的快照和符号表
+     */
+    @Override
+    public void refresh(ScanListener listener, CancellationToken token) {
+        SymbolTable refreshSymbols = new SymbolTable();
+        synchronized (this) {
+            withScan(listener, token, refreshSymbols, scan -> {
+                this.projectModel = buildProjectModel(scan);
+                this.symbols = refreshSymbols;
+                this.componentIndex = null;
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 获取项目快照，不存在时进行一次完整扫描
+     * @return  项目快照
+     */
+    private ProjectModel getProjectModel() {
+        ProjectModel model = this.projectModel;
+        if (model != null) {
+            return model;
+        }
+        return withScan(this::getProjectModel);
+    }
+
+    /**
+     * 获取项目快照，不存在时进行一次完整扫描，扫描过程记录到给定的统计信息中
+     * @param scan          当前扫描操作的上下文
+     * @return              项目快照
+     */
+    private ProjectModel getProjectModel(ScanContext scan) {
+        ProjectModel model = this.projectModel;
+        if (model != null) {
+            return model;
+        }
+        synchronized (this) {
+            if (this.projectModel == null) {
+                this.projectModel = buildProjectModel(scan);
+                this.componentIndex = null;
+            }
+            return this.projectModel;
+        }
+    }
+
+    @Override
+    public ScanStatistics getLastScanStatistics() {
+        return lastScanStatistics;
+    }
+
+    /**
+     * 使用配置中的进度监听器和超时时间执行扫描操作
+     * @see #withScan(ScanListener, CancellationToken, Function)
+     */
+    private <R> R withScan(Function<ScanContext, R> operation) {
+        return withScan(null, null, operation);
+    }
+
+    /**
+     * 以一份新的扫描上下文执行扫描操作，结束后（包括异常结束）将其统计信息记录为最近一次扫描的统计信息
+     * 导入路径解析缓存和目录列表的计数器是整个operator共享的，统计的是操作期间的增量
+     * @param listener  进度监听器，为null时使用 ProjectConfiguration#scanListener
+     * @param token     取消令牌，为null时按 ProjectConfiguration#scanTimeoutMillis 设置截止时间
+     * @param operation 扫描操作
+     * @param <R>       结果类型
+     * @return          操作的结果
+     */
+    private <R> R withScan(ScanListener listener, CancellationToken token, Function<ScanContext, R> operation) {
+        return withScan(listener, token, this.symbols, operation);
+    }
+
+    /**
+     * 使用指定的符号表执行扫描操作
+     * @param symbols   扫描中使用的符号表
+     * @see #withScan(ScanListener, CancellationToken, Function)
+     */
+    private <R> R withScan(ScanListener listener, CancellationToken token, SymbolTable symbols,
+                           Function<ScanContext, R> operation) {
+        ScanStatistics statistics = new ScanStatistics(projectConfiguration.getSlowestFileCount());
+        ScanContext scan = new ScanContext(
+                statistics,
+                listener == null ? projectConfiguration.getScanListener() : listener,
+                token == null
+                        ? CancellationToken.withTimeout(projectConfiguration.getScanTimeoutMillis(), TimeUnit.MILLISECONDS)
+                        : token,
+                symbols
+        );
+        long resolveHits = moduleResolver.getHitCount();
+        long resolveMisses = moduleResolver.getMissCount();
+        long statCalls = directoryIndex.getStatCount();
+        try {
+            return operation.apply(scan);
+        } finally {
+            statistics.addResolveCache(moduleResolver.getHitCount() - resolveHits,
+                    moduleResolver.getMissCount() - resolveMisses);
+            statistics.addStatCalls(directoryIndex.getStatCount() - statCalls);
+            statistics.finish();
+            this.lastScanStatistics = statistics;
+            log.debug("{} {}", scan.getProgress(), statistics);
+            scan.finish();
+        }
+    }
+
+    /**
+     * 扫描项目并构建快照
+     * 只遍历一次目录，每个文件只解析一次，扫描路径和src目录下的代码文件共享解析结果
+     * @param scan          当前扫描操作的上下文
+     * @return              项目快照
+     */
+    private ProjectModel buildProjectModel(ScanContext scan) {
+        moduleResolver.beginScan();
+        File scanRoot = (this.scanPath == null) ? this.srcFileFolder : this.scanPath;
+
+        ScanStatistics.Stopwatch listing = ScanStatistics.Stopwatch.start();
+        List<File> srcFiles = new ArrayList<>();
+        this.listScanFiles(srcFileFolder, srcFiles);
+
+        List<File> scanFiles;
+        if (isAncestorOrSelf(srcFileFolder, scanRoot)) {
+            //扫描路径位于src目录下时，直接从src的遍历结果中截取，目录遍历顺序保持一致
+            String scanRootPath = scanRoot.getAbsolutePath() + File.separator;
+            scanFiles = new ArrayList<>();
+            for (File file : srcFiles) {
+                if (file.getAbsolutePath().startsWith(scanRootPath) || file.equals(scanRoot)) {
+                    scanFiles.add(file);
+                }
+            }
+        } else {
+            scanFiles = new ArrayList<>();
+            this.listScanFiles(scanRoot, scanFiles);
+        }
+        recordListing(scan, listing, isAncestorOrSelf(srcFileFolder, scanRoot)
+                ? srcFiles.size() : srcFiles.size() + scanFiles.size());
+
+        List<File> codeFiles = new ArrayList<>();
+        for (File file : srcFiles) {
+            if (isCodeFile(file)) {
+                codeFiles.add(file);
+            }
+        }
+
+        //需要解析的文件：扫描路径下的jsx/tsx文件 + src下的所有代码文件
+        Set<File> parseFileSet = new LinkedHashSet<>(codeFiles);
+        for (File file : scanFiles) {
+            if (isRelationSourceFile(file)) {
+                parseFileSet.add(file);
+            }
+        }
+        List<File> parseFiles = new ArrayList<>(parseFileSet);
+        ScanStatistics.Stopwatch parsing = ScanStatistics.Stopwatch.start();
+        List<List<JSXImportVisitor.ImportRecord>> parsed = scanExecutor.map(parseFiles,
+                file -> readImportRecords(file, scan));
+        if (parseCache != null) {
+            //完整扫描列出了所有需要解析的文件，清除已经不存在的文件的缓存
+            parseCache.retain(parseFiles);
+        }
+        flushParseCache();
+        scan.getStatistics().recordPhase(ScanPhase.PARSE, parsing);
+
+        Map<File, List<JSXImportVisitor.ImportRecord>> importRecords = new HashMap<>();
+        for (int i = 0; i < parseFiles.size(); i++) {
+            importRecords.put(parseFiles.get(i), parsed.get(i));
+        }
+
+        ScanStatistics.Stopwatch resolving = ScanStatistics.Stopwatch.start();
+        List<FileRelationDetail> relations = scanExecutor.map(scanFiles, file -> {
+            scan.checkCancelled();
+            return buildFileRelationDetail(
+                    file,
+                    isRelationSourceFile(file) ? importRecords.get(file) : Collections.emptyList(),
+                    scan
+            );
+        });
+        scan.getStatistics().recordPhase(ScanPhase.RESOLVE, resolving);
+
+        return new ProjectModel(scanFiles, codeFiles, importRecords, relations, this::componentPathSegments);
+    }
+
+    private boolean isAncestorOrSelf(File ancestor, File file) {
+        String ancestorPath = ancestor.getAbsolutePath();
+        String filePath = file.getAbsolutePath();
+        return filePath.equals(ancestorPath) || filePath.startsWith(ancestorPath + File.separator);
+    }
+
+    /**
+     * 是否需要分析文件关系的文件，目前只分析jsx和tsx文件
+     * @param file  文件
+     * @return      是否为jsx或tsx文件
+     */
+    private boolean isRelationSourceFile(File file) {
+        return file.getPath().endsWith(".jsx") || file.getPath().endsWith(".tsx");
+    }
+
     @Override
     public List<ProjectFileRelation> jsxFileRelation() {
-        List<FileRelationDetail> fileRelationDetails = this.srcScan();
-        return fileRelationDetails.stream().map(f -> {
-            ProjectFileRelation projectFileRelation = new ProjectFileRelation();
-            projectFileRelation.setRelationFilePaths(f.getRelationFilePaths());
-            projectFileRelation.setTargetFile(f.getTargetFile());
-            return projectFileRelation;
-        }).collect(Collectors.toList());
+        List<FileRelationDetail> fileRelationDetails = getProjectModel().getRelations();
+        return fileRelationDetails.stream().map(this::toProjectFileRelation).collect(Collectors.toList());
+    }
+
+    @Override
+    public void scanRelations(Consumer<? super ProjectFileRelation> consumer) {
+        scanRelations(consumer, null, null);
+    }
+
+    @Override
+    public void scanRelations(Consumer<? super ProjectFileRelation> consumer,
+                              ScanListener listener, CancellationToken token) {
+        ProjectModel model = this.projectModel;
+        if (model != null) {
+            for (FileRelationDetail relation : model.getRelations()) {
+                consumer.accept(toProjectFileRelation(relation));
+            }
+            return;
+        }
+
+        withScan(listener, token, scan -> {
+            moduleResolver.beginScan();
+            ScanStatistics.Stopwatch listing = ScanStatistics.Stopwatch.start();
+            List<File> scanFiles = new ArrayList<>();
+            this.listScanFiles(this.scanPath == null ? this.srcFileFolder : this.scanPath, scanFiles);
+            recordListing(scan, listing, scanFiles.size());
+
+            //解析和路径解析逐个文件交替进行，墙钟时间计入解析阶段
+            ScanStatistics.Stopwatch parsing = ScanStatistics.Stopwatch.start();
+            try {
+                scanExecutor.forEachOrdered(scanFiles, file -> {
+                    scan.checkCancelled();
+                    return toProjectFileRelation(buildFileRelationDetail(
+                            file,
+                            isRelationSourceFile(file) ? readImportRecords(file, scan) : Collections.emptyList(),
+                            scan
+                    ));
+                }, consumer);
+            } finally {
+                flushParseCache();
+                scan.getStatistics().recordPhase(ScanPhase.PARSE, parsing);
+            }
+            return null;
+        });
+    }
+
+    private ProjectFileRelation toProjectFileRelation(FileRelationDetail relation) {
+        ProjectFileRelation projectFileRelation = new ProjectFileRelation();
+        projectFileRelation.setRelationFilePaths(new ArrayList<>(relation.getRelationFilePaths()));
+        projectFileRelation.setTargetFile(relation.getTargetFile());
+        return projectFileRelation;
     }
 
     @Override
     public List<File> findJsxFileWithImport(Map<String, List<String>> importMap) {
-        List<FileRelationDetail> fileRelationDetails = this.srcScan();
+        //查询条件中的导入名转为集合，每个文件只按查询的导入路径做哈希查找，不再遍历文件的全部import
+        List<Map.Entry<String, Set<String>>> conditions = new ArrayList<>(importMap.size());
+        for (Map.Entry<String, List<String>> entry : importMap.entrySet()) {
+            conditions.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(),
+                    entry.getValue() == null ? null : new HashSet<>(entry.getValue())));
+        }
+        List<FileRelationDetail> fileRelationDetails = getProjectModel().getRelations();
         Set<File> files = new HashSet<>();
         for (FileRelationDetail fileRelationDetail : fileRelationDetails) {
             Map<String, List<String>> importedMap = fileRelationDetail.getImportMap();
-            for (Map.Entry<String, List<String>> entry : importedMap.entrySet()) {
-                String key = entry.getKey();
-                boolean find = false;
-                if (importMap.containsKey(key)) {
-                    List<String> importValues = importMap.get(key);
-                    if (null == importValues) {
-                        files.add(fileRelationDetail.getTargetFile());
-                        break;
-                    }
-                    List<String> importedValues = importedMap.get(key);
-                    for (String importedValue : importedValues) {
-                        if (importValues.contains(importedValue)) {
-                            files.add(fileRelationDetail.getTargetFile());
-                            find = true;
-                            break;
-                        }
+            if (importsAny(importedMap, conditions)) {
+                files.add(fileRelationDetail.getTargetFile());
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * 文件是否满足任意一个查询条件
+     * @param importedMap   文件的import，导入路径和导入名都是符号表中的规范实例
+     * @param conditions    导入路径及需要包含的导入名，导入名为null时只要导入了该路径即满足
+     * @return              满足返回true
+     */
+    private static boolean importsAny(Map<String, List<String>> importedMap,
+                                      List<Map.Entry<String, Set<String>>> conditions) {
+        for (Map.Entry<String, Set<String>> condition : conditions) {
+            List<String> importedValues = importedMap.get(condition.getKey());
+            if (importedValues == null) {
+                continue;
+            }
+            Set<String> importValues = condition.getValue();
+            if (importValues == null) {
+                return true;
+            }
+            for (String importedValue : importedValues) {
+                if (importValues.contains(importedValue)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<ProjectFileRelation> deepSearchProjectRelation(List<ProjectFileRelation> projectFileRelations) {
+        DependencyGraph graph;
+        if (isSnapshotRelations(projectFileRelations)) {
+            //传入的关系与项目快照一致时，直接复用快照中的依赖图
+            graph = this.projectModel.getGraph();
+        } else {
+            Map<File, List<File>> targetMap = new LinkedHashMap<>();
+            for (ProjectFileRelation relation : projectFileRelations) {
+                targetMap.put(relation.getTargetFile(), relation.getRelationFilePaths());
+            }
+            graph = DependencyGraph.of(targetMap);
+        }
+
+        //所有 root 共用同一个传递闭包
+        List<ProjectFileRelation> result = new ArrayList<>();
+        for (File root : graph.roots()) {
+            ProjectFileRelation rootRelation = new ProjectFileRelation();
+            rootRelation.setTargetFile(root);
+            rootRelation.setRelationFilePaths(graph.closure(root));
+            result.add(rootRelation);
+        }
+        return result;
+    }
+
+    @Override
+    public List<File> findDependents(File file) {
+        return getProjectModel().getGraph().dependents(file);
+    }
+
+    @Override
+    public List<File> findTransitiveDependents(File file, int depth) {
+        return getProjectModel().getGraph().transitiveDependents(file, depth);
+    }
+
+    @Override
+    public Map<File, List<File>> findReachableTargets(Collection<File> sources, Collection<File> targets) {
+        return getProjectModel().getGraph().reachableTargets(sources, targets);
+    }
+
+    @Override
+    public List<PageRouterDefine> findAffectedPages(Collection<File> changedFiles) {
+        List<PageRouterDefine> routes = findPageRouterDefine();
+        //路由的组件文件可能包含 ./ 和 ../，规范化后才能与扫描到的文件对应
+        List<File> componentFiles = new ArrayList<>(routes.size());
+        for (PageRouterDefine route : routes) {
+            File componentFile = route.getComponentFile();
+            componentFiles.add(componentFile == null ? null : componentFile.toPath().normalize().toFile());
+        }
+        Set<File> affected = new HashSet<>(getProjectModel().getGraph().reachingAny(componentFiles, changedFiles));
+        List<PageRouterDefine> result = new ArrayList<>();
+        for (int i = 0; i < routes.size(); i++) {
+            if (componentFiles.get(i) != null && affected.contains(componentFiles.get(i))) {
+                result.add(routes.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<ImportCycle> findImportCycles() {
+        return getProjectModel().getGraph().importCycles();
+    }
+
+    /**
+     * 判断传入的关系是否与当前项目快照完全一致
+     * @param projectFileRelations  关系列表
+     * @return                      一致时返回true
+     */
+    private boolean isSnapshotRelations(List<ProjectFileRelation> projectFileRelations) {
+        ProjectModel model = this.projectModel;
+        if (model == null) {
+            return false;
+        }
+        List<FileRelationDetail> snapshot = model.getRelations();
+        if (snapshot.size() != projectFileRelations.size()) {
+            return false;
+        }
+        for (ProjectFileRelation relation : projectFileRelations) {
+            FileRelationDetail snapshotRelation = model.getRelation(relation.getTargetFile());
+            if (snapshotRelation == null
+                    || !snapshotRelation.getRelationFilePaths().equals(relation.getRelationFilePaths())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void update(Collection<Path> changed, Collection<Path> deleted) {
+        if (this.projectModel == null) {
+            //还没有快照时，直接进行一次完整扫描
+            getProjectModel();
+            return;
+        }
+        //持有锁之后再取得符号表，与正在进行的refresh串行，使用的是refresh之后快照的符号表
+        synchronized (this) {
+            withScan(scan -> {
+                applyUpdate(this.projectModel,
+                        changed == null ? Collections.<Path>emptyList() : changed,
+                        deleted == null ? Collections.<Path>emptyList() : deleted,
+                        scan);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public ProjectWatcher watch() {
+        List<File> roots = new ArrayList<>();
+        roots.add(srcFileFolder);
+        if (scanPath != null && !isAncestorOrSelf(srcFileFolder, scanPath)) {
+            roots.add(scanPath);
+        }
+        //package.json和路径别名配置位于项目根目录，不在监听的目录中，需要单独监听
+        List<File> files = new ArrayList<>();
+        for (String name : WATCHED_PROJECT_FILES) {
+            files.add(new File(projectFileFolder, name));
+        }
+        return new ProjectWatcher(
+                this,
+                roots,
+                files,
+                projectConfiguration.getWatchDebounceMillis(),
+                projectConfiguration.getWatchPollingIntervalMillis(),
+                projectConfiguration.isWatchPolling()
+        );
+    }
+
+    /**
+     * 将文件变化增量应用到项目快照
+     * 只重新解析变化的文件；只有新增或删除文件时，才会重新解析可能引用这些文件的导入者；
+     * tsconfig.json / jsconfig.json 变化导致路径别名重新加载时，重新解析所有文件的关联文件
+     * @param model     项目快照
+     * @param changed   新增或修改的文件（目录会展开为其下所有文件）
+     * @param deleted   删除的文件或目录
+     * @param scan          当前扫描操作的上下文
+     */
+    private void applyUpdate(ProjectModel model, Collection<Path> changed, Collection<Path> deleted,
+                             ScanContext scan) {
+        boolean aliasesReloaded = moduleResolver.beginScan();
+        File scanRoot = (this.scanPath == null) ? this.srcFileFolder : this.scanPath;
+        Set<File> knownFiles = new LinkedHashSet<>(model.getScanFiles());
+        knownFiles.addAll(model.getCodeFiles());
+
+        Set<File> changedFiles = new LinkedHashSet<>();
+        Set<File> deletedFiles = new LinkedHashSet<>();
+        for (Path path : deleted) {
+            collectDeletedFiles(toProjectFile(path), knownFiles, deletedFiles);
+        }
+        for (Path path : changed) {
+            File file = toProjectFile(path);
+            if (file.isDirectory()) {
+                List<File> children = new ArrayList<>();
+                listScanFiles(file, children);
+                changedFiles.addAll(children);
+            } else if (file.isFile()) {
+                changedFiles.add(file);
+            } else {
+                collectDeletedFiles(file, knownFiles, deletedFiles);
+            }
+        }
+        changedFiles.removeAll(deletedFiles);
+
+        List<File> parseFiles = new ArrayList<>();
+        Set<File> createdFiles = new LinkedHashSet<>();
+        for (File file : changedFiles) {
+            boolean scanFile = isAncestorOrSelf(scanRoot, file);
+            boolean codeFile = isAncestorOrSelf(srcFileFolder, file) && isCodeFile(file);
+            if (!scanFile && !codeFile) {
+                continue;
+            }
+            if (!knownFiles.contains(file)) {
+                createdFiles.add(file);
+            }
+            if (codeFile || (scanFile && isRelationSourceFile(file))) {
+                parseFiles.add(file);
+            }
+        }
+
+        //解析在写锁之外进行，查询不会被阻塞
+        ScanStatistics.Stopwatch parsing = ScanStatistics.Stopwatch.start();
+        List<List<JSXImportVisitor.ImportRecord>> parsed = scanExecutor.map(parseFiles,
+                file -> readImportRecords(file, scan));
+        scan.getStatistics().recordPhase(ScanPhase.PARSE, parsing);
+        Map<File, List<JSXImportVisitor.ImportRecord>> parsedRecords = new HashMap<>();
+        for (int i = 0; i < parseFiles.size(); i++) {
+            parsedRecords.put(parseFiles.get(i), parsed.get(i));
+        }
+        Set<File> removedFiles = new LinkedHashSet<>();
+        for (File file : deletedFiles) {
+            if (knownFiles.contains(file)) {
+                removedFiles.add(file);
+            }
+        }
+        boolean routerImportChanged = false;
+        for (Map.Entry<File, List<JSXImportVisitor.ImportRecord>> entry : parsedRecords.entrySet()) {
+            if (importsReactRouter(model.getImportRecords(entry.getKey())) || importsReactRouter(entry.getValue())) {
+                routerImportChanged = true;
+            }
+        }
+        boolean structureChanged = !createdFiles.isEmpty() || !removedFiles.isEmpty() || aliasesReloaded;
+        boolean finalRouterImportChanged = routerImportChanged;
+
+        ScanStatistics.Stopwatch resolving = ScanStatistics.Stopwatch.start();
+        model.write(() -> {
+            //需要重新解析关联文件的文件
+            Set<File> toResolve = new LinkedHashSet<>();
+            for (File file : removedFiles) {
+                toResolve.addAll(model.getGraph().dependents(file));
+            }
+            for (File file : removedFiles) {
+                model.removeFile(file);
+                if (parseCache != null) {
+                    parseCache.remove(file);
+                }
+            }
+
+            for (File file : changedFiles) {
+                boolean scanFile = isAncestorOrSelf(scanRoot, file);
+                boolean codeFile = isAncestorOrSelf(srcFileFolder, file) && isCodeFile(file);
+                if (scanFile) {
+                    model.addScanFile(file);
+                    toResolve.add(file);
+                }
+                if (codeFile) {
+                    model.addCodeFile(file);
+                }
+                List<JSXImportVisitor.ImportRecord> records = parsedRecords.get(file);
+                if (records != null) {
+                    model.putImportRecords(file, records);
+                }
+            }
+
+            if (aliasesReloaded) {
+                toResolve.addAll(model.getScanFiles());
+            } else if (structureChanged) {
+                Set<String> affectedNames = new HashSet<>();
+                for (File file : createdFiles) {
+                    addModuleNames(file, affectedNames);
+                }
+                for (File file : removedFiles) {
+                    addModuleNames(file, affectedNames);
+                }
+                for (File file : model.getScanFiles()) {
+                    if (isRelationSourceFile(file) && importsAnyModule(model.getImportRecords(file), affectedNames)) {
+                        toResolve.add(file);
                     }
-                    if (find) {
-                        break;
+                }
+            }
+            toResolve.removeAll(removedFiles);
+
+            for (File file : toResolve) {
+                if (!model.isScanFile(file)) {
+                    continue;
+                }
+                model.putRelation(buildFileRelationDetail(
+                        file,
+                        isRelationSourceFile(file) ? model.getImportRecords(file) : Collections.emptyList(),
+                        scan
+                ));
+            }
+
+            //路由分析结果：结构变化时可能影响任意路由文件的组件解析，全部失效；否则只失效被修改的路由文件
+            boolean routesInvalidated = structureChanged || finalRouterImportChanged;
+            if (structureChanged) {
+                model.getRouteAnalysis().clear();
+            } else {
+                for (File file : changedFiles) {
+                    if (model.getRouteAnalysis().remove(file) != null) {
+                        routesInvalidated = true;
                     }
                 }
             }
+            if (routesInvalidated) {
+                model.setPageRouterDefines(null);
+            }
+        });
+        scan.getStatistics().recordPhase(ScanPhase.RESOLVE, resolving);
+        if (parseCache != null) {
+            //增量更新很频繁，只按间隔写入；未写入的条目在下一次写入时一起写出
+            parseCache.flushIfDue(UPDATE_CACHE_FLUSH_INTERVAL_MILLIS);
+        }
+    }
+
+    /**
+     * 将外部传入的路径转换为与快照中一致的File表示
+     * @param path  文件路径
+     * @return      位于项目内时以项目根目录为parent的File，否则为绝对路径
+     */
+    private File toProjectFile(Path path) {
+        Path absolute = path.toAbsolutePath().normalize();
+        Path projectRoot = projectFileFolder.getAbsoluteFile().toPath().normalize();
+        if (absolute.startsWith(projectRoot) && !absolute.equals(projectRoot)) {
+            return new File(projectFileFolder, projectRoot.relativize(absolute).toString());
+        }
+        return absolute.toFile();
+    }
+
+    private void collectDeletedFiles(File file, Set<File> knownFiles, Set<File> deletedFiles) {
+        deletedFiles.add(file);
+        String prefix = file.getPath() + File.separator;
+        for (File known : knownFiles) {
+            if (known.getPath().startsWith(prefix)) {
+                deletedFiles.add(known);
+            }
+        }
+    }
+
+    /**
+     * 获取文件作为模块时可能被导入的名称：文件名（去掉后缀），index文件还包括其所在目录名
+     */
+    private void addModuleNames(File file, Set<String> names) {
+        String baseName = removeFileExtension(file.getName());
+        names.add(baseName.toLowerCase(Locale.ROOT));
+        if ("index".equalsIgnoreCase(baseName) && file.getParentFile() != null) {
+            names.add(file.getParentFile().getName().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * 文件的导入路径是否可能指向名字在names中的模块
+     * 按导入路径的最后一段判断；匹配路径别名的导入路径还会按别名替换后的每个候选路径判断，
+     * 例如 "@btn": ["src/shared/Button"] 中的 '@btn' 按 Button 判断
+     */
+    private boolean importsAnyModule(List<JSXImportVisitor.ImportRecord> records, Set<String> names) {
+        PathAliases aliases = moduleResolver.getPathAliases();
+        for (JSXImportVisitor.ImportRecord record : records) {
+            if (record.sourcePath == null) {
+                continue;
+            }
+            if (pathMatchesModule(record.sourcePath, names)) {
+                return true;
+            }
+            for (File candidate : aliases.candidates(record.sourcePath)) {
+                if (pathMatchesModule(candidate.getPath().replace(File.separatorChar, '/'), names)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean pathMatchesModule(String path, Set<String> names) {
+        String[] segments = path.split("/");
+        String last = removeFileExtension(segments[segments.length - 1]).toLowerCase(Locale.ROOT);
+        if (names.contains(last)) {
+            return true;
+        }
+        return "index".equals(last) && segments.length > 1
+                && names.contains(segments[segments.length - 2].toLowerCase(Locale.ROOT));
+    }
+
+    private boolean importsReactRouter(List<JSXImportVisitor.ImportRecord> records) {
+        for (JSXImportVisitor.ImportRecord record : records) {
+            if ("react-router".equals(record.sourcePath) || "react-router-dom".equals(record.sourcePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<FileImport> findFileImport() {
+        ProjectModel model = getProjectModel();
+        List<FileImport> fileImports = new ArrayList<>();
+        for (File file : model.getCodeFiles()) {
+            fileImports.add(buildFileImport(file, model.getImportRecords(file)));
         }
-        return new ArrayList<>(files);
+        return fileImports;
     }
 
     @Override
-    public List<ProjectFileRelation> deepSearchProjectRelation(List<ProjectFileRelation> projectFileRelations) {
-        Map<File, ProjectFileRelation> targetMap = new HashMap<>();
-        Map<File, List<File>> reverseMap = new HashMap<>();
+    public void scanFileImports(Consumer<? super FileImport> consumer) {
+        scanFileImports(consumer, null, null);
+    }
 
-        for (ProjectFileRelation relation : projectFileRelations) {
-            targetMap.put(relation.getTargetFile(), relation);
-            for (File child : relation.getRelationFilePaths()) {
-                reverseMap.computeIfAbsent(child, k -> new ArrayList<>()).add(relation.getTargetFile());
+    @Override
+    public void scanFileImports(Consumer<? super FileImport> consumer,
+                                ScanListener listener, CancellationToken token) {
+        ProjectModel model = this.projectModel;
+        if (model != null) {
+            for (File file : model.getCodeFiles()) {
+                consumer.accept(buildFileImport(file, model.getImportRecords(file)));
             }
+            return;
         }
 
-        Set<File> allTargets = targetMap.keySet();
-        Set<File> referenced = reverseMap.keySet();
-        Set<File> roots = new HashSet<>(allTargets);
-        roots.removeAll(referenced);
-
-        // 对每个 root 节点递归合并其 relationFilePaths
-        List<ProjectFileRelation> result = new ArrayList<>();
-        Set<File> visitedTargets = new HashSet<>();
+        withScan(listener, token, scan -> {
+            ScanStatistics.Stopwatch listing = ScanStatistics.Stopwatch.start();
+            List<File> codeFiles = new ArrayList<>();
+            this.listScanFiles(srcFileFolder, codeFiles);
+            recordListing(scan, listing, codeFiles.size());
+            codeFiles.removeIf(file -> !isCodeFile(file));
 
-        for (File root : roots) {
-            ProjectFileRelation rootRelation = new ProjectFileRelation();
-            rootRelation.setTargetFile(root);
-            List<File> merged = new ArrayList<>();
-            Set<File> visitedFiles = new HashSet<>();
+            ScanStatistics.Stopwatch parsing = ScanStatistics.Stopwatch.start();
+            try {
+                scanExecutor.forEachOrdered(codeFiles,
+                        file -> buildFileImport(file, readImportRecords(file, scan)), consumer);
+            } finally {
+                flushParseCache();
+                scan.getStatistics().recordPhase(ScanPhase.PARSE, parsing);
+            }
+            return null;
+        });
+    }
 
-            collectDownwardRelations(root, targetMap, visitedFiles, merged);
+    /**
+     * 读取文件的import记录
+     * 启用解析缓存时，文件大小和修改时间都未变化则直接返回缓存结果，不再进行词法和语法分析；
+     * 解析失败的文件按没有任何import处理，并报告给扫描进度监听器
+     * @param file          代码文件
+     * @param scan          当前扫描操作的上下文
+     * @return              import记录
+     */
+    private List<JSXImportVisitor.ImportRecord> readImportRecords(File file, ScanContext scan) {
+        scan.checkCancelled();
+        ScanStatistics.Stopwatch stopwatch = ScanStatistics.Stopwatch.start();
+        ParseCache.FileStamp stamp = null;
+        if (parseCache != null) {
+            stamp = ParseCache.FileStamp.of(file);
+            scan.getStatistics().addStatCalls(1);
+            List<JSXImportVisitor.ImportRecord> cached = parseCache.get(file, stamp);
+            if (cached != null) {
+                internRecords(cached, scan.getSymbols());
+                scan.getStatistics().addParseCacheHit();
+                scan.getStatistics().recordTask(ScanPhase.PARSE, stopwatch);
+                scan.parsed(file);
+                return cached;
+            }
+            scan.getStatistics().addParseCacheMiss();
+        }
+
+        JSXImportVisitor visitor = new JSXImportVisitor();
+        JSXParse jsxParse;
+        try {
+            jsxParse = new JSXParse(file.getAbsolutePath(), scan.getSymbols());
+            FileNode fileNode = jsxParse.parse(true);
+            visitor.visit(fileNode);
+        } catch (RuntimeException e) {
+            log.warn("解析文件失败: {}", file.getAbsolutePath(), e);
+            scan.getStatistics().recordTask(ScanPhase.PARSE, stopwatch);
+            scan.failed(file, e);
+            return Collections.emptyList();
+        }
+        List<JSXImportVisitor.ImportRecord> records = visitor.getImports();
 
-            rootRelation.setRelationFilePaths(merged);
-            result.add(rootRelation);
-            visitedTargets.add(root);
+        if (parseCache != null) {
+            parseCache.put(file, stamp, records);
         }
+        scan.getStatistics().recordFile(ScanPhase.PARSE, file, stopwatch, jsxParse.getScannedBytes(), jsxParse.getTokenCount());
+        scan.parsed(file);
+        return records;
+    }
 
-        return result;
+    /**
+     * 将解析缓存中读出的import记录替换为符号表中的规范实例
+     * 缓存返回的是副本，可以直接修改
+     */
+    private static void internRecords(List<JSXImportVisitor.ImportRecord> records, SymbolTable symbols) {
+        for (JSXImportVisitor.ImportRecord record : records) {
+            record.sourcePath = symbols.intern(record.sourcePath);
+            record.importedNames.replaceAll(symbols::intern);
+        }
     }
 
-    @Override
-    public List<FileImport> findFileImport() {
-        //获取src目录
-        File src = new File(srcFileFolder.getAbsolutePath());
-        //获取src下面的所有的代码文件
-        List<File> allCodeFile = new ArrayList<>();
-        getAllCodeFile(src, allCodeFile);
+    /**
+     * 记录列出目录的耗时和发现的文件，列出目录在发起扫描的线程中进行，CPU时间同样在该线程中测量
+     */
+    private void recordListing(ScanContext scan, ScanStatistics.Stopwatch stopwatch, int files) {
+        scan.getStatistics().recordPhase(ScanPhase.LIST, stopwatch);
+        scan.getStatistics().recordTask(ScanPhase.LIST, stopwatch);
+        scan.getStatistics().addFiles(ScanPhase.LIST, files);
+        scan.discovered(files);
+        scan.checkCancelled();
+    }
 
-        List<FileImport> fileImports = new ArrayList<>();
-        for (File file : allCodeFile) {
-            FileImport fileImport = new FileImport();
-
-            JSXImportVisitor visitor = new JSXImportVisitor();
-            JSXParse jsxParse = new JSXParse(file.getAbsolutePath());
-            FileNode parse = jsxParse.parse(true);
-            visitor.visit(parse);
-            List<JSXImportVisitor.ImportRecord> imports = visitor.getImports();
-            List<FileImportDetail> collect = imports.stream().map(importRecord -> {
-                FileImportDetail fileImportDetail = new FileImportDetail();
-                fileImportDetail.setImportPath(importRecord.sourcePath);
-                fileImportDetail.setImportItems(importRecord.importedNames);
-                return fileImportDetail;
-            }).collect(Collectors.toList());
-
-            fileImport.setFile(file);
-            fileImport.setImports(collect);
-
-            fileImports.add(fileImport);
+    private void flushParseCache() {
+        if (parseCache != null) {
+            parseCache.flush();
         }
-        return fileImports;
     }
 
+    /**
+     * 构建单个文件的import信息
+     * @param file      代码文件
+     * @param imports   文件的import记录
+     * @return          文件的import信息
+     */
+    private FileImport buildFileImport(File file, List<JSXImportVisitor.ImportRecord> imports) {
+        FileImport fileImport = new FileImport();
+
+        List<FileImportDetail> collect = imports.stream().map(importRecord -> {
+            FileImportDetail fileImportDetail = new FileImportDetail();
+            fileImportDetail.setImportPath(importRecord.sourcePath);
+            fileImportDetail.setImportItems(new ArrayList<>(importRecord.importedNames));
+            return fileImportDetail;
+        }).collect(Collectors.toList());
+
+        fileImport.setFile(file);
+        fileImport.setImports(collect);
+        return fileImport;
+    }
+
+    /**
+     * 读取package.json，不需要项目快照
+     * 按文件大小和修改时间缓存内容，文件变化后重新读取
+     */
     @Override
     public String getPackageJsonString() {
         File packageJsonFile = new File(
@@ -329,53 +1129,104 @@ public class ReactProjectOperator implements IReactProjectOperator {
         );
 
         try {
-            return new String(Files.readAllBytes(packageJsonFile.toPath()), StandardCharsets.UTF_8);
+            BasicFileAttributes attributes = Files.readAttributes(packageJsonFile.toPath(), BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            CachedFile cached = this.packageJson;
+            if (cached != null && cached.size == attributes.size() && cached.lastModified == lastModified) {
+                return cached.content;
+            }
+            String content = new String(Files.readAllBytes(packageJsonFile.toPath()), StandardCharsets.UTF_8);
+            this.packageJson = new CachedFile(attributes.size(), lastModified, content);
+            return content;
         } catch (IOException e) {
             log.error("getPackageJsonString error", e);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * 按文件大小和修改时间缓存的文件内容
+     */
+    private static final class CachedFile {
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final String content;
+
+        private CachedFile(long size, long lastModified, String content) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.content = content;
+        }
+    }
+
     @Override
     public List<PageRouterDefine> findPageRouterDefine() {
-        //校验是否引入了react-router
+        ProjectModel model = this.projectModel;
+        if (model != null && model.getPageRouterDefines() != null) {
+            validReactRouter();
+            return new ArrayList<>(model.getPageRouterDefines());
+        }
+        return withScan(this::findPageRouterDefine);
+    }
+
+    private List<PageRouterDefine> findPageRouterDefine(ScanContext scan) {
+        //校验是否引入了react-router，只读取package.json，在扫描之前进行
         validReactRouter();
+        ProjectModel model = getProjectModel(scan);
+        List<PageRouterDefine> cachedDefines = model.getPageRouterDefines();
+        if (cachedDefines != null) {
+            return new ArrayList<>(cachedDefines);
+        }
+
         List<File> entryFiles = discoverEntryFiles();
         if (entryFiles.isEmpty()) {
             throw new ReactProjectValidException("未找到项目入口文件");
         }
 
         Map<String, PageRouterDefine> collected = new LinkedHashMap<>();
-        Deque<File> toVisit = new ArrayDeque<>(entryFiles);
         Set<File> visited = new HashSet<>();
-
-        while (!toVisit.isEmpty()) {
-            File current = toVisit.pollFirst();
-            if (current == null || !current.exists() || !current.isFile()) {
-                continue;
-            }
-            if (!visited.add(current)) {
-                continue;
+        List<File> level = entryFiles;
+        ScanStatistics.Stopwatch routing = ScanStatistics.Stopwatch.start();
+
+        //按层广度优先遍历：同一层的文件并行分析，分析完成后按层内顺序合并路由并收集下一层，
+        //处理顺序与逐个出队时完全一致，visited和collected只在当前线程中修改
+        while (!level.isEmpty()) {
+            List<File> current = new ArrayList<>(level.size());
+            for (File file : level) {
+                if (file != null && file.exists() && file.isFile() && visited.add(file)) {
+                    current.add(file);
+                }
             }
 
-            RouteAnalysisResult analysisResult = analyzeRouteFile(current);
-            for (PageRouterDefine define : analysisResult.getRouteDefines()) {
-                if (define == null || define.getRoutePath() == null) {
-                    continue;
+            List<RouteAnalysisResult> analysisResults = scanExecutor.map(current,
+                    file -> analyzeRouteFile(file, model.getRouteAnalysis(), scan));
+            List<File> next = new ArrayList<>();
+            for (RouteAnalysisResult analysisResult : analysisResults) {
+                for (PageRouterDefine define : analysisResult.getRouteDefines()) {
+                    if (define == null || define.getRoutePath() == null) {
+                        continue;
+                    }
+                    String key = define.getRoutePath() + "|" +
+                            (define.getRelativeFilePath() == null ? "" : define.getRelativeFilePath());
+                    collected.putIfAbsent(key, define);
                 }
-                String key = define.getRoutePath() + "|" +
-                        (define.getRelativeFilePath() == null ? "" : define.getRelativeFilePath());
-                collected.putIfAbsent(key, define);
-            }
 
-            for (File imported : analysisResult.getImportedProjectFiles()) {
-                if (imported != null && imported.exists() && imported.isFile() && !visited.contains(imported)) {
-                    toVisit.addLast(imported);
+                for (File imported : analysisResult.getImportedProjectFiles()) {
+                    if (imported != null && !visited.contains(imported)) {
+                        next.add(imported);
+                    }
                 }
             }
+            level = next;
         }
+        scan.getStatistics().recordPhase(ScanPhase.ROUTE, routing);
 
-        return new ArrayList<>(collected.values());
+        List<PageRouterDefine> defines = new ArrayList<>(collected.values());
+        model.setPageRouterDefines(defines);
+        return new ArrayList<>(defines);
     }
 
     @Override
@@ -389,12 +1240,50 @@ public class ReactProjectOperator implements IReactProjectOperator {
             throw new ReactProjectValidException("路由配置文件不存在: " + relativeFilePath);
         }
 
-        return analyzeRouteFile(routeFile).getRouteDefines();
+        return withScan(scan -> {
+            //只分析这一个文件，已经有项目快照时复用快照中的分析结果，没有时不为此进行完整扫描
+            ProjectModel model = this.projectModel;
+            ScanStatistics.Stopwatch routing = ScanStatistics.Stopwatch.start();
+            List<PageRouterDefine> defines = analyzeRouteFile(routeFile,
+                    model == null ? null : model.getRouteAnalysis(), scan).getRouteDefines();
+            scan.getStatistics().recordPhase(ScanPhase.ROUTE, routing);
+            return defines;
+        });
+    }
+
+    /**
+     * 分析路由文件，同一快照内每个文件只分析一次
+     * @param routeFile     路由文件
+     * @param routeAnalysis 快照中按文件缓存的分析结果，为null时不缓存
+     * @param scan          当前扫描操作的上下文
+     * @return              分析结果
+     */
+    private RouteAnalysisResult analyzeRouteFile(File routeFile, Map<File, RouteAnalysisResult> routeAnalysis,
+                                                 ScanContext scan) {
+        RouteAnalysisResult result = routeAnalysis == null ? null : routeAnalysis.get(routeFile);
+        if (result == null) {
+            scan.checkCancelled();
+            Object event = ScanEvents.ANALYZE_ROUTE_FILE.begin();
+            ScanStatistics.Stopwatch stopwatch = ScanStatistics.Stopwatch.start();
+            result = doAnalyzeRouteFile(routeFile, stopwatch, scan);
+            if (routeAnalysis != null) {
+                routeAnalysis.put(routeFile, result);
+            }
+            ScanEvents.ANALYZE_ROUTE_FILE.commit(event, routeFile.getPath(),
+                    result.getRouteDefines().size(), result.getImportedProjectFiles().size());
+        }
+        return result;
     }
 
-    private RouteAnalysisResult analyzeRouteFile(File routeFile) {
-        ProgramNode programNode = safeParseProgram(routeFile);
+    /**
+     * 分析路由文件，路由文件完整解析的字节数和token数计入路由分析阶段
+     */
+    private RouteAnalysisResult doAnalyzeRouteFile(File routeFile, ScanStatistics.Stopwatch stopwatch,
+                                                   ScanContext scan) {
+        JSXParse jsxParse = safeParse(routeFile);
+        ProgramNode programNode = safeParseProgram(jsxParse, routeFile);
         if (programNode == null) {
+            scan.getStatistics().recordFile(ScanPhase.ROUTE, routeFile, stopwatch, 0, 0);
             return new RouteAnalysisResult(Collections.emptyList(), Collections.emptyList());
         }
 
@@ -415,12 +1304,24 @@ public class ReactProjectOperator implements IReactProjectOperator {
 
         List<PageRouterDefine> deduplicated = deduplicateRoutes(defines);
         List<File> imports = collectProjectImportFiles(programNode, routeFile);
+        scan.getStatistics().recordFile(ScanPhase.ROUTE, routeFile, stopwatch, jsxParse.getScannedBytes(), jsxParse.getTokenCount());
         return new RouteAnalysisResult(deduplicated, imports);
     }
 
-    private ProgramNode safeParseProgram(File file) {
+    private JSXParse safeParse(File file) {
+        try {
+            return new JSXParse(file.getAbsolutePath());
+        } catch (Exception ex) {
+            log.warn("解析文件失败: {}", file.getAbsolutePath(), ex);
+            return null;
+        }
+    }
+
+    private ProgramNode safeParseProgram(JSXParse jsxParse, File file) {
+        if (jsxParse == null) {
+            return null;
+        }
         try {
-            JSXParse jsxParse = new JSXParse(file.getAbsolutePath());
             FileNode fileNode = jsxParse.parse();
             return fileNode == null ? null : fileNode.getProgram();
         } catch (Exception ex) {
@@ -443,11 +1344,11 @@ public class ReactProjectOperator implements IReactProjectOperator {
                 if (importPath == null || importPath.isEmpty()) {
                     continue;
                 }
-                if (!isProjectImport(importPath)) {
+                if (!moduleResolver.isProjectImport(importPath)) {
                     continue;
                 }
-                File resolved = resolveComponentFile(currentFile, importPath);
-                if (resolved != null && resolved.exists() && resolved.isFile()) {
+                File resolved = moduleResolver.resolveComponent(currentFile, importPath);
+                if (resolved != null && directoryIndex.isFile(resolved)) {
                     result.add(resolved);
                 }
             }
@@ -501,7 +1402,7 @@ public class ReactProjectOperator implements IReactProjectOperator {
             define.setTitle("");
             define.setComponentFile(componentFile);
             define.setRelativeFilePath(componentFile != null ? projectRelativePath(componentFile) : null);
-            define.setComponentFileExists(componentFile != null && componentFile.exists());
+            define.setComponentFileExists(componentFile != null && directoryIndex.exists(componentFile));
 
             String key = define.getRoutePath() + "|" + (define.getRelativeFilePath() == null ? "" : define.getRelativeFilePath());
             if (seen.add(key)) {
@@ -579,7 +1480,7 @@ public class ReactProjectOperator implements IReactProjectOperator {
             Matcher importMatcher = Pattern.compile("import\\((['\"])\\s*([^'\"]+)\\s*\\1\\)").matcher(trimmed);
             if (importMatcher.find()) {
                 String importPath = importMatcher.group(2);
-                return resolveComponentFile(routeFile, importPath);
+                return moduleResolver.resolveComponent(routeFile, importPath);
             }
         }
         if (trimmed.contains(".")) {
@@ -716,24 +1617,6 @@ public class ReactProjectOperator implements IReactProjectOperator {
         return entries;
     }
 
-    private static class RouteAnalysisResult {
-        private final List<PageRouterDefine> routeDefines;
-        private final List<File> importedProjectFiles;
-
-        RouteAnalysisResult(List<PageRouterDefine> routeDefines, List<File> importedProjectFiles) {
-            this.routeDefines = routeDefines;
-            this.importedProjectFiles = importedProjectFiles;
-        }
-
-        List<PageRouterDefine> getRouteDefines() {
-            return routeDefines;
-        }
-
-        List<File> getImportedProjectFiles() {
-            return importedProjectFiles;
-        }
-    }
-
     /**
      * 校验项目中是否引入了react-router
      * @author 卫志龙
@@ -755,37 +1638,17 @@ public class ReactProjectOperator implements IReactProjectOperator {
     }
 
     /**
-     * 获取所有的代码文件
-     * @param folder 当前处理的文件或文件夹
-     * @param allCodeFile 收集代码文件的列表
+     * 是否为项目语言对应的代码文件
+     * @param file 文件
+     * @return 是否为代码文件
      */
-    private void getAllCodeFile(File folder, List<File> allCodeFile) {
-        if (Objects.isNull(folder)) {
-            return ;
-        }
-        if (folder.isFile()) {
-            Set<Language> languages = projectConfiguration.getLanguages();
-            if (languages.contains(Language.JS)) {
-                String name = folder.getName();
-                if (name.endsWith(".jsx") || name.endsWith(".js")) {
-                    allCodeFile.add(folder);
-                }
-            }
-            if (languages.contains(Language.TS)) {
-                String name = folder.getName();
-                if (name.endsWith(".tsx") || name.endsWith(".ts")) {
-                    allCodeFile.add(folder);
-                }
-            }
-        }
-        if (folder.isDirectory()) {
-            File[] files = folder.listFiles();
-            if (Objects.nonNull(files)) {
-                for (File file : files) {
-                    getAllCodeFile(file, allCodeFile);
-                }
-            }
+    private boolean isCodeFile(File file) {
+        Set<Language> languages = projectConfiguration.getLanguages();
+        String name = file.getName();
+        if (languages.contains(Language.JS) && (name.endsWith(".jsx") || name.endsWith(".js"))) {
+            return true;
         }
+        return languages.contains(Language.TS) && (name.endsWith(".tsx") || name.endsWith(".ts"));
     }
 
     private Map<String, Node> collectTopLevelBindings(ProgramNode programNode) {
@@ -903,7 +1766,7 @@ public class ReactProjectOperator implements IReactProjectOperator {
         define.setTitle(title != null ? title : "");
         define.setComponentFile(componentFile);
         define.setRelativeFilePath(componentFile != null ? projectRelativePath(componentFile) : null);
-        define.setComponentFileExists(componentFile != null && componentFile.exists());
+        define.setComponentFileExists(componentFile != null && directoryIndex.exists(componentFile));
         return define;
     }
 
@@ -978,7 +1841,7 @@ public class ReactProjectOperator implements IReactProjectOperator {
             Expression firstArgument = arguments.get(0);
             if (firstArgument instanceof StringLiteral) {
                 String importPath = stripQuotes(((StringLiteral) firstArgument).getValue());
-                return resolveComponentFile(routeFile, importPath);
+                return moduleResolver.resolveComponent(routeFile, importPath);
             }
             return null;
         }
@@ -989,78 +1852,8 @@ public class ReactProjectOperator implements IReactProjectOperator {
         return null;
     }
 
-    private File resolveComponentFile(File routeFile, String importPath) {
-        if (importPath == null || importPath.isEmpty()) {
-            return null;
-        }
-
-        File base;
-        if (importPath.startsWith("./") || importPath.startsWith("../")) {
-            File parent = routeFile.getParentFile();
-            base = parent == null ? new File(importPath) : new File(parent, importPath);
-        } else if (importPath.startsWith("/")) {
-            base = new File(projectFileFolder, importPath.substring(1));
-        } else if (importPath.startsWith("src/")) {
-            base = new File(projectFileFolder, importPath);
-        } else if (importPath.startsWith("@/")) {
-            base = new File(srcFileFolder, importPath.substring(2));
-        } else if (importPath.startsWith("$src/")) {
-            base = new File(srcFileFolder, importPath.substring(5));
-        } else if (importPath.startsWith("@")) {
-            String trimmed = importPath.substring(1);
-            if (trimmed.startsWith("/")) {
-                trimmed = trimmed.substring(1);
-            }
-            base = new File(srcFileFolder, trimmed);
-        } else {
-            base = new File(srcFileFolder, importPath);
-        }
-
-        base = base.getAbsoluteFile();
-        List<String> extensions = candidateExtensions();
-        File resolved = resolveExistingComponent(base, extensions);
-        if (resolved != null) {
-            return resolved;
-        }
-
-        File parent = base.getParentFile();
-        if (parent != null) {
-            for (String extension : extensions) {
-                File withExtension = new File(parent, base.getName() + extension);
-                resolved = resolveExistingComponent(withExtension, extensions);
-                if (resolved != null) {
-                    return resolved;
-                }
-            }
-        }
-
-        File searched = searchComponentInProject(importPath);
-        if (searched != null) {
-            return searched;
-        }
-
-        if (hasKnownExtension(importPath, extensions)) {
-            return base;
-        }
-
-        for (String extension : extensions) {
-            File indexCandidate = new File(base, "index" + extension);
-            resolved = resolveExistingComponent(indexCandidate, extensions);
-            if (resolved != null) {
-                return resolved;
-            }
-        }
-
-        if (!extensions.isEmpty()) {
-            return new File(base, "index" + extensions.get(0));
-        }
-
-        return base;
-    }
 
     private File searchComponentInProject(String importPath) {
-        ensureComponentIndex();
-
         List<String> importSegments = normalizedImportSegments(importPath);
         if (importSegments.isEmpty()) {
             return null;
@@ -1071,66 +1864,36 @@ public class ReactProjectOperator implements IReactProjectOperator {
             return null;
         }
 
-        List<File> candidates = componentNameIndex.getOrDefault(lastSegment.toLowerCase(Locale.ROOT), Collections.emptyList());
-        if (candidates.isEmpty()) {
-            return null;
-        }
-
-        File best = null;
-        int bestScore = 0;
-        int bestDepth = Integer.MAX_VALUE;
-        for (File candidate : candidates) {
-            List<String> candidateSegments = componentPathSegments(candidate);
-            if (candidateSegments.isEmpty()) {
-                continue;
-            }
-            int score = suffixMatchScore(candidateSegments, importSegments);
-            if (score > bestScore || (score == bestScore && score > 0 && candidateSegments.size() < bestDepth)) {
-                best = candidate;
-                bestScore = score;
-                bestDepth = candidateSegments.size();
-            }
-        }
-
-        return bestScore > 0 ? best : null;
-    }
-
-    private void ensureComponentIndex() {
-        if (componentIndexBuilt) {
-            return;
-        }
-        synchronized (componentNameIndex) {
-            if (componentIndexBuilt) {
-                return;
-            }
-            List<File> allCodeFiles = new ArrayList<>();
-            getAllCodeFile(srcFileFolder, allCodeFiles);
-            for (File file : allCodeFiles) {
-                indexComponentFile(file);
-            }
-            componentIndexBuilt = true;
+        ProjectModel model = this.projectModel;
+        if (model != null) {
+            return model.findComponent(importSegments);
         }
+        return componentIndex().find(importSegments);
     }
 
-    private void indexComponentFile(File file) {
-        if (file == null) {
-            return;
-        }
-        String baseName = removeFileExtension(file.getName());
-        addComponentIndexKey(baseName, file);
-        if ("index".equalsIgnoreCase(baseName)) {
-            File parent = file.getParentFile();
-            if (parent != null) {
-                addComponentIndexKey(parent.getName(), file);
+    /**
+     * 还没有项目快照时使用的组件索引，只列出src下的代码文件，不解析
+     * 单独分析路由文件时不需要为了按路径后缀搜索组件而进行完整扫描；快照建立后改用快照中的组件索引
+     */
+    private ComponentIndex componentIndex() {
+        ComponentIndex index = this.componentIndex;
+        if (index == null) {
+            synchronized (componentIndexLock) {
+                index = this.componentIndex;
+                if (index == null) {
+                    List<File> srcFiles = new ArrayList<>();
+                    this.listScanFiles(srcFileFolder, srcFiles);
+                    index = new ComponentIndex(this::componentPathSegments);
+                    for (File file : srcFiles) {
+                        if (isCodeFile(file)) {
+                            index.add(file);
+                        }
+                    }
+                    this.componentIndex = index;
+                }
             }
         }
-    }
-
-    private void addComponentIndexKey(String key, File file) {
-        if (key == null || key.isEmpty()) {
-            return;
-        }
-        componentNameIndex.computeIfAbsent(key.toLowerCase(Locale.ROOT), ignore -> new ArrayList<>()).add(file);
+        return index;
     }
 
     private List<String> normalizedImportSegments(String importPath) {
@@ -1205,21 +1968,6 @@ public class ReactProjectOperator implements IReactProjectOperator {
         return segments;
     }
 
-    private int suffixMatchScore(List<String> candidateSegments, List<String> importSegments) {
-        int i = candidateSegments.size() - 1;
-        int j = importSegments.size() - 1;
-        int score = 0;
-        while (i >= 0 && j >= 0) {
-            if (!candidateSegments.get(i).equalsIgnoreCase(importSegments.get(j))) {
-                break;
-            }
-            score++;
-            i--;
-            j--;
-        }
-        return score;
-    }
-
     private String removeFileExtension(String value) {
         if (value == null) {
             return null;
@@ -1231,55 +1979,6 @@ public class ReactProjectOperator implements IReactProjectOperator {
         return value;
     }
 
-    private File resolveExistingComponent(File candidate, List<String> extensions) {
-        if (candidate.exists()) {
-            if (candidate.isFile()) {
-                return candidate;
-            }
-            if (candidate.isDirectory()) {
-                File index = resolveIndexFile(candidate, extensions);
-                if (index != null) {
-                    return index;
-                }
-            }
-        }
-        return null;
-    }
-
-    private File resolveIndexFile(File directory, List<String> extensions) {
-        for (String extension : extensions) {
-            File index = new File(directory, "index" + extension);
-            if (index.exists()) {
-                return index;
-            }
-        }
-        return null;
-    }
-
-    private boolean hasKnownExtension(String importPath, List<String> extensions) {
-        for (String extension : extensions) {
-            if (importPath.endsWith(extension)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private List<String> candidateExtensions() {
-        LinkedHashSet<String> extensions = new LinkedHashSet<>();
-        Set<Language> languages = projectConfiguration.getLanguages();
-        if (languages.contains(Language.TS)) {
-            extensions.add(".tsx");
-            extensions.add(".ts");
-        }
-        if (languages.contains(Language.JS)) {
-            extensions.add(".jsx");
-            extensions.add(".js");
-        }
-        extensions.add(".mjs");
-        extensions.add(".cjs");
-        return new ArrayList<>(extensions);
-    }
 
     private String projectRelativePath(File file) {
         if (file == null) {
@@ -1318,7 +2017,7 @@ public class ReactProjectOperator implements IReactProjectOperator {
                 if (importPath == null) {
                     continue;
                 }
-                File resolved = resolveComponentFile(routeFile, importPath);
+                File resolved = moduleResolver.resolveComponent(routeFile, importPath);
                 for (Specifier specifier : importDeclarationNode.getSpecifiers()) {
                     if (!(specifier instanceof ImportSpecifier)) {
                         continue;
@@ -1392,277 +2091,69 @@ public class ReactProjectOperator implements IReactProjectOperator {
         return false;
     }
 
-    private void collectDownwardRelations(File current, Map<File, ProjectFileRelation> targetMap,
-                                          Set<File> visited, List<File> result) {
-        ProjectFileRelation relation = targetMap.get(current);
-        if (relation == null) return;
-
-        for (File child : relation.getRelationFilePaths()) {
-            if (visited.add(child)) {
-                result.add(child);
-                collectDownwardRelations(child, targetMap, visited, result);
-            }
-        }
-    }
-
-    private List<FileRelationDetail> srcScan() {
-        File file = (this.scanPath == null)
-                ? new File(this.srcFileFolder.getPath())
-                : new File(this.scanPath.getPath());
-
-        List<FileRelationDetail> details = new ArrayList<>();
-        this._projectFileRelation(file, details);
-        return details;
-    }
-
-
-    private void _projectFileRelation(File file, List<FileRelationDetail> projectFileRelations) {
+    /**
+     * 递归列出扫描路径下的所有文件
+     * @param file  当前处理的文件或文件夹
+     * @param files 收集文件的列表
+     */
+    private void listScanFiles(File file, List<File> files) {
         if (file.isDirectory()) {
-            for (File childFile : Objects.requireNonNull(file.listFiles())) {
-                _projectFileRelation(childFile, projectFileRelations);
-            }
-        } else if (file.isFile()){
-            FileRelationDetail projectFileRelation = new FileRelationDetail();
-            Map<String, List<String>> importMap = new HashMap<>();
-            projectFileRelation.setTargetFile(file);
-            List<File> relationFiles = new ArrayList<>();
-            if (file.getPath().endsWith(".jsx") || file.getPath().endsWith(".tsx")) {
-                JSXImportVisitor jsxImportVisitor = new JSXImportVisitor();
-                JSXParse jsxParse = new JSXParse(file.getAbsolutePath());
-                FileNode astNode = jsxParse.parse(true);
-                jsxImportVisitor.visit(astNode);
-                List<JSXImportVisitor.ImportRecord> importRecords = jsxImportVisitor.getImports();
-
-                for (JSXImportVisitor.ImportRecord importInfo : importRecords) {
-                    //目标文件
-                    String source = importInfo.sourcePath;
-                    //目标文件所导入的组件
-                    List<String> importItems = importInfo.importedNames;
-                    importMap.put(source, importItems);
-                    boolean projectImport = isProjectImport(source);
-                    if (projectImport) {
-                        //查看引入的文件(source)是否有对应的文件
-                        File relativeFile = findFileBySource(source, file);
-                        //如果有对应的文件，则添加到关系中
-                        if (null != relativeFile) {
-                            relationFiles.add(relativeFile);
-                        }
-                    }
-                }
-            }
-            projectFileRelation.setImportMap(importMap);
-            projectFileRelation.setRelationFilePaths(relationFiles);
-            projectFileRelations.add(projectFileRelation);
+            listScanChildren(file, files);
+        } else if (file.isFile()) {
+            files.add(file);
         }
     }
 
     /**
-     * 寻找一条导入语句中，导入的文件在项目中的位置
-     * @param source    在 import { refresh } from 'react' 中的'react'部分
-     * @param curFile   当前的文件的file对象
+     * 通过目录列表缓存递归列出目录下的所有文件，列出的目录同时用于之后的导入路径解析
+     * @param directory 目录
+     * @param files     收集文件的列表
      */
-    private File findFileBySource(String source, File curFile) {
-        File relativeFile;
-        Set<Language> languages = projectConfiguration.getLanguages();
-        //导入有四种规则
-        // 1、../components/CommonCard
-        // 2、../components/CommonCard/index.jsx
-        // 3、../components/CommonCard/index
-        // 4、../components/CommonCard.js
-        if (source.startsWith("@") || (source.startsWith("$") && source.contains("src"))) {
-            String[] split = source.split("/");
-            File currentFile = srcFileFolder;
-            for (int i = 1 ; i < split.length; i++) {
-                String folder = split[i];
-
-                if (i == split.length - 1) {
-                    //当导入规则为4时
-                    File currentFile4 = languageStrategy.createNewChildWithPrefix(currentFile, folder);
-                    if (null != currentFile4) {
-                        return currentFile4;
-                    }
-                    //当导入规则为2时，直接返回
-                    if (folder.contains(".")) {
-                        relativeFile = new File(currentFile, folder);
-                        return relativeFile;
-                    }
-                    //当第3种情况时
-                    File currentFile1 = languageStrategy.createNewChildWithPrefix(currentFile, folder);
-                    if (null != currentFile1) {
-                        return currentFile1;
-                    }
-
-                    //第1种可能
-                    currentFile = new File(currentFile, folder);
-                    currentFile1 = languageStrategy.createNewChildIndexFile(currentFile);
-                    if (null != currentFile1) {
-                        return currentFile1;
-                    }
-                } else {
-                    currentFile = new File(currentFile, folder);
-                }
-            }
-
-            return languageStrategy.createNewChildIndexFile(currentFile);
-        } else if (source.startsWith("../")) {
-            File parentFile = curFile;
-            parentFile = parentFile.getParentFile();
-            String[] split = source.split("/");
-
-            for (int i = 0 ; i < split.length ; i++) {
-                String str = split[i];
-
-                if (str.equals("..")) {
-                    parentFile = parentFile.getParentFile();
-                    continue;
-                }
-
-                if (i == split.length - 1) {
-                    //导入规则是4时
-                    File currentFile4 = languageStrategy.createNewChildWithPrefix(parentFile, str);
-                    if (null != currentFile4) {
-                        return currentFile4;
-                    }
-                    //当导入规则为2时，直接返回
-                    if (str.contains(".")) {
-                        relativeFile = new File(parentFile, str);
-                        return relativeFile;
-                    }
-
-                    //当第3种情况时
-                    File currentFile = languageStrategy.createNewChildIndexFile(parentFile);
-                    if (null != currentFile) {
-                        return currentFile;
-                    }
-
-                    //第1种可能
-                    parentFile = new File(parentFile, str);
-                    currentFile = languageStrategy.createNewChildIndexFile(parentFile);
-                    if (null != currentFile) {
-                        return currentFile;
-                    }
-                } else {
-                    parentFile = new File(parentFile, str);
-                }
-            }
-        } else if (source.startsWith("./")) {
-            File parentFile = curFile.getParentFile();
-            String[] split = source.split("/");
-            for (int i = 1 ; i < split.length ; i++) {
-                parentFile = new File(parentFile, split[i]);
-            }
-            if (parentFile.isFile()) {
-                return parentFile;
-            }
-            if (languages.contains(Language.TS)) {
-                //直接加.ts或者.tsx
-                relativeFile = new File(parentFile.getAbsolutePath() + ".tsx");
-                if (relativeFile.isFile()) {
-                    return relativeFile;
-                }
-                relativeFile = new File(parentFile.getAbsolutePath() + ".ts");
-                if (relativeFile.isFile()) {
-                    return relativeFile;
-                }
-                //加index.ts或者index.tsx
-                relativeFile = new File(parentFile, "index.tsx");
-                if (relativeFile.isFile()) {
-                    return relativeFile;
-                }
-                relativeFile = new File(parentFile, "index.ts");
-                if (relativeFile.isFile()) {
-                    return relativeFile;
-                }
-            }
-            if (languages.contains(Language.JS)) {
-                //直接加.js或者.jsx
-                relativeFile = new File(parentFile.getAbsolutePath() + ".jsx");
-                if (relativeFile.isFile()) {
-                    return relativeFile;
-                }
-                relativeFile = new File(parentFile.getAbsolutePath() + ".js");
-                if (relativeFile.isFile()) {
-                    return relativeFile;
-                }
-                //加index.js或者index.jsx
-                relativeFile = new File(parentFile, "index.jsx");
-                if (relativeFile.isFile()) {
-                    return relativeFile;
-                }
-                relativeFile = new File(parentFile, "index.js");
-                if (relativeFile.isFile()) {
-                    return relativeFile;
-                }
+    private void listScanChildren(File directory, List<File> files) {
+        DirectoryIndex.Listing listing = directoryIndex.listing(directory);
+        for (int i = 0; i < listing.size(); i++) {
+            String name = listing.name(i);
+            File child = new File(directory, name);
+            if (listing.isDirectory(name)) {
+                listScanChildren(child, files);
+            } else {
+                files.add(child);
             }
         }
-        return null;
-    }
-
-    /**
-     * 判断一条import语句中， 是否为项目文件
-     * @param importPath    导入 的模块路径
-     */
-    private boolean isProjectImport(String importPath) {
-        //如果是@开头的，有可能导入node_modules中的文件，也有可能导入项目中的那文件
-        if (importPath.startsWith("@") || importPath.startsWith("$src")) {
-            String[] split = importPath.split("/");
-            split[0] = split[0].substring(1); // 去掉@符号
-            return dfsFileHasProject(srcFileFolder, 1, split);
-        }
-        return importPath.startsWith("./")
-                || importPath.startsWith("../")
-                || importPath.startsWith("/")
-                || importPath.startsWith("src/")
-                || importPath.endsWith(".css")
-                || importPath.endsWith(".less")
-                || importPath.endsWith(".scss");
     }
 
     /**
-     * 通过dfs方式寻找是否在根目录下，是否存在路径符合split路径的文件。
-     * eg: file: 是一个项目的根目录
-     * folders: ["src", "components", "CommonCard"]
-     * 那么他会寻找 这个项目根目录开始，是否存在 /src/components/CommonCard/ 这个路径。
-     * @param file          文件寻找的根目录
-     * @param index         folders的下标
-     * @param folders       导入的路径
-     * @return              是否存在符合路径的文件
+     * 根据文件的import记录，找到其在项目中关联的文件
+     * 并行扫描时会被多个线程同时调用，不能修改共享状态
+     * @param file          代码文件
+     * @param importRecords 文件的import记录
+     * @return              文件关系
      */
-    private boolean dfsFileHasProject(File file, int index, String[] folders) {
-        if (index >= folders.length) {
-            return true;
-        }
-
-        File[] children = file.listFiles();
-        if (children == null) {
-            return false;
-        }
-
-        if (index == folders.length - 1) {
-            for (File child : children) {
-                if (child.isFile()) {
-                    String fileName = child.getName().split("\\.")[0];
-                    if (fileName.equals(folders[index])) {
-                        return true;
-                    }
-                } else if (child.getName().equals(folders[index])) {
-                    file = new File(file, folders[index]);
-                    File newChildIndexFile = languageStrategy.createNewChildIndexFile(file);
-                    if (null == newChildIndexFile) {
-                        continue;
-                    }
-                    return newChildIndexFile.isFile();
-                }
-            }
-        } else {
-            for (File child : children) {
-                if (child.isDirectory() && child.getName().equals(folders[index])) {
-                    return dfsFileHasProject(child, index + 1, folders);
-                }
-            }
-        }
-
-        return false;
+    private FileRelationDetail buildFileRelationDetail(File file,
+                                                       List<JSXImportVisitor.ImportRecord> importRecords,
+                                                       ScanContext scan) {
+        ScanStatistics.Stopwatch stopwatch = ScanStatistics.Stopwatch.start();
+        FileRelationDetail projectFileRelation = new FileRelationDetail();
+        Map<String, List<String>> importMap = new HashMap<>();
+        projectFileRelation.setTargetFile(file);
+        List<File> relationFiles = new ArrayList<>();
+        for (JSXImportVisitor.ImportRecord importInfo : importRecords) {
+            //目标文件
+            String source = importInfo.sourcePath;
+            //目标文件所导入的组件
+            List<String> importItems = importInfo.importedNames;
+            importMap.put(source, importItems);
+            //查看引入的文件(source)是否为项目中对应的文件
+            File relativeFile = moduleResolver.resolve(file, source);
+            //如果有对应的文件，则添加到关系中
+            if (null != relativeFile) {
+                relationFiles.add(relativeFile);
+            }
+        }
+        projectFileRelation.setImportMap(importMap);
+        projectFileRelation.setRelationFilePaths(relationFiles);
+        scan.getStatistics().recordFile(ScanPhase.RESOLVE, file, stopwatch, 0, 0);
+        return projectFileRelation;
     }
 
 
@@ -0,0 +1,475 @@
+package org.wzl.depspider.react.project.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.wzl.depspider.ast.jsx.parser.JSXParse;
+import org.wzl.depspider.ast.jsx.visitor.JSXImportVisitor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 持久化的文件解析缓存
+ * 以文件绝对路径 + 文件大小 + 最后修改时间作为key，缓存文件的import记录。
+ * 文件未变化时直接复用缓存结果，跳过词法分析和语法分析。
+ * <p>
+ * 缓存文件格式（DataOutputStream 大端序）：
+ * <pre>
+ *     int     MAGIC
+ *     int     FORMAT_VERSION
+ *     int     JSXParse.PARSER_VERSION
+ *     int     字符串表大小 n，随后 n 个 UTF 字符串
+ *     int     条目数量 m，随后 m 个条目：
+ *             int 路径下标, long 文件大小, long 修改时间, int import数量 k，
+ *             随后 k 个 import：int 来源下标, int 导入名数量 j, j 个 int 导入名下标
+ * </pre>
+ * 格式版本或解析器版本不一致，或者缓存文件损坏时，整个缓存失效。
+ * <p>
+ * 修改时间与读取文件戳的时刻过于接近的文件不会被缓存：在时间戳精度较粗的文件系统上，
+ * 同一个时间戳内大小不变的修改无法通过文件戳区分。
+ *
+ * @author weizhilong
+ */
+@Slf4j
+public class ParseCache {
+
+    /**
+     * 缓存文件名
+     */
+    private static final String CACHE_FILE_NAME = "imports.bin";
+
+    /**
+     * 缓存文件魔数 "DSPC"
+     */
+    private static final int MAGIC = 0x44535043;
+
+    /**
+     * 缓存文件格式版本，格式变化时需要递增
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 修改时间与读取文件戳时刻的最小间隔，小于该间隔的文件不写入缓存
+     */
+    private static final long RACY_INTERVAL_MILLIS = 2000;
+
+    /**
+     * 读取缓存文件时允许的最大数量，超过时认为缓存文件已损坏
+     */
+    private static final int MAX_COUNT = 1 << 24;
+
+    /**
+     * {@link DataOutputStream#writeUTF(String)} 能写入的最大字节数
+     */
+    private static final int MAX_UTF_LENGTH = 65535;
+
+    /**
+     * 缓存目录
+     */
+    private final File cacheDirectory;
+
+    /**
+     * 缓存条目，key为文件绝对路径
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 是否已从磁盘加载
+     */
+    private volatile boolean loaded = false;
+
+    /**
+     * 修改计数，每次修改条目后递增
+     */
+    private final AtomicLong modifications = new AtomicLong();
+
+    /**
+     * 已经写入磁盘的修改计数，与 {@link #modifications} 不同时说明有未写入磁盘的修改
+     * 写入期间发生的修改不会被当作已经写入
+     */
+    private volatile long flushedModifications = 0;
+
+    /**
+     * 上一次写入磁盘的时刻
+     */
+    private volatile long lastFlushMillis = 0;
+
+    public ParseCache(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * 文件戳，用于判断文件是否发生变化
+     */
+    public static class FileStamp {
+        private final long size;
+        private final long lastModified;
+
+        /**
+         * 读取文件戳的时刻
+         */
+        private final long readAt;
+
+        private FileStamp(long size, long lastModified, long readAt) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.readAt = readAt;
+        }
+
+        /**
+         * 读取文件的大小和修改时间，只需要一次文件系统调用
+         * @param file  文件
+         * @return      文件戳，读取失败时返回null
+         */
+        public static FileStamp of(File file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                return new FileStamp(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                        System.currentTimeMillis());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        boolean matches(Entry entry) {
+            return entry.size == size && entry.lastModified == lastModified;
+        }
+
+        /**
+         * 修改时间是否足够早，之后同样大小的修改一定会改变修改时间
+         */
+        boolean isStable() {
+            return lastModified < readAt - RACY_INTERVAL_MILLIS;
+        }
+    }
+
+    private static class Entry {
+        private final long size;
+        private final long lastModified;
+        private final List<JSXImportVisitor.ImportRecord> records;
+
+        private Entry(long size, long lastModified, List<JSXImportVisitor.ImportRecord> records) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.records = records;
+        }
+    }
+
+    /**
+     * 获取文件的import记录缓存
+     * @param file  文件
+     * @param stamp 文件当前的文件戳
+     * @return      文件未变化时返回缓存的import记录副本，否则返回null
+     */
+    public List<JSXImportVisitor.ImportRecord> get(File file, FileStamp stamp) {
+        if (stamp == null) {
+            return null;
+        }
+        ensureLoaded();
+        Entry entry = entries.get(file.getAbsolutePath());
+        if (entry == null || !stamp.matches(entry)) {
+            return null;
+        }
+        return copyRecords(entry.records);
+    }
+
+    /**
+     * 写入文件的import记录，文件刚被修改过时不写入
+     * @param file      文件
+     * @param stamp     解析前读取的文件戳
+     * @param records   import记录
+     */
+    public void put(File file, FileStamp stamp, List<JSXImportVisitor.ImportRecord> records) {
+        if (stamp == null || !stamp.isStable()) {
+            return;
+        }
+        String path = file.getAbsolutePath();
+        if (!isSerializable(path, records)) {
+            return;
+        }
+        ensureLoaded();
+        entries.put(path, new Entry(stamp.size, stamp.lastModified, copyRecords(records)));
+        modifications.incrementAndGet();
+    }
+
+    /**
+     * 移除文件的缓存
+     * @param file  文件
+     */
+    public void remove(File file) {
+        if (entries.remove(file.getAbsolutePath()) != null) {
+            modifications.incrementAndGet();
+        }
+    }
+
+    /**
+     * 只保留指定文件的缓存，用于完整扫描后清除已经不存在的文件
+     * @param files 完整扫描中列出的文件
+     */
+    public void retain(Collection<File> files) {
+        ensureLoaded();
+        Set<String> paths = new HashSet<>(files.size() * 2);
+        for (File file : files) {
+            paths.add(file.getAbsolutePath());
+        }
+        if (entries.keySet().retainAll(paths)) {
+            modifications.incrementAndGet();
+        }
+    }
+
+    /**
+     * 将缓存写入磁盘，只有存在修改时才会写入
+     * 先写入同一目录下的临时文件再原子替换，多个进程同时写入时不会读到写了一半的缓存
+     */
+    public synchronized void flush() {
+        //在复制条目之前取得修改计数，之后的修改会让缓存保持未写入状态
+        long current = modifications.get();
+        if (current == flushedModifications) {
+            return;
+        }
+        if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            log.warn("无法创建解析缓存目录: {}", cacheDirectory.getAbsolutePath());
+            return;
+        }
+        File target = new File(cacheDirectory, CACHE_FILE_NAME);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(cacheDirectory.toPath(), CACHE_FILE_NAME, ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                write(new DataOutputStream(new BufferedOutputStream(out)));
+            }
+            try {
+                Files.move(temp, target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+            flushedModifications = current;
+            lastFlushMillis = System.currentTimeMillis();
+        } catch (IOException e) {
+            log.warn("写入解析缓存失败: {}", target.getAbsolutePath(), e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.debug("删除临时缓存文件失败: {}", temp, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 距离上一次写入超过指定间隔时才写入磁盘，用于频繁的增量更新，避免每次保存文件都重写整个缓存
+     * @param intervalMillis    最小写入间隔（毫秒）
+     */
+    public void flushIfDue(long intervalMillis) {
+        if (modifications.get() != flushedModifications
+                && System.currentTimeMillis() - lastFlushMillis >= intervalMillis) {
+            flush();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            File cacheFile = new File(cacheDirectory, CACHE_FILE_NAME);
+            if (cacheFile.isFile()) {
+                try (InputStream in = Files.newInputStream(cacheFile.toPath())) {
+                    read(new DataInputStream(new BufferedInputStream(in)));
+                } catch (IOException | RuntimeException e) {
+                    //缓存文件损坏时按空缓存处理，下一次写入时会被覆盖
+                    log.warn("读取解析缓存失败，将重新解析所有文件: {}", cacheFile.getAbsolutePath(), e);
+                    entries.clear();
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    private void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a depspider parse cache");
+        }
+        int formatVersion = in.readInt();
+        int parserVersion = in.readInt();
+        if (formatVersion != FORMAT_VERSION || parserVersion != JSXParse.PARSER_VERSION) {
+            log.info("解析缓存版本已变化({}/{})，缓存失效", formatVersion, parserVersion);
+            return;
+        }
+
+        int stringCount = readCount(in);
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = in.readUTF();
+        }
+
+        int entryCount = readCount(in);
+        Map<String, Entry> loadedEntries = new HashMap<>();
+        for (int i = 0; i < entryCount; i++) {
+            String path = readString(in, strings);
+            long size = in.readLong();
+            long lastModified = in.readLong();
+            int recordCount = readCount(in);
+            List<JSXImportVisitor.ImportRecord> records = new ArrayList<>(Math.min(recordCount, 64));
+            for (int j = 0; j < recordCount; j++) {
+                JSXImportVisitor.ImportRecord record = new JSXImportVisitor.ImportRecord(readString(in, strings));
+                int nameCount = readCount(in);
+                for (int k = 0; k < nameCount; k++) {
+                    record.importedNames.add(readString(in, strings));
+                }
+                records.add(record);
+            }
+            loadedEntries.put(path, new Entry(size, lastModified, records));
+        }
+        //整个文件读取成功后才生效，文件损坏时不会留下一部分条目
+        entries.putAll(loadedEntries);
+    }
+
+    /**
+     * 读取数量，负数或过大时说明缓存文件已损坏
+     */
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("corrupt parse cache: count " + count);
+        }
+        return count;
+    }
+
+    private static String readString(DataInputStream in, String[] strings) throws IOException {
+        int index = in.readInt();
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("corrupt parse cache: string index " + index);
+        }
+        return strings[index];
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        //已经删除的文件通过 remove 和 retain 移除，这里不再逐个检查文件是否存在
+        Map<String, Entry> snapshot = new HashMap<>(entries);
+
+        //字符串表，路径、导入来源、导入名都只写一次
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+            intern(entry.getKey(), stringIndex, strings);
+            for (JSXImportVisitor.ImportRecord record : entry.getValue().records) {
+                intern(record.sourcePath, stringIndex, strings);
+                for (String name : record.importedNames) {
+                    intern(name, stringIndex, strings);
+                }
+            }
+        }
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(JSXParse.PARSER_VERSION);
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+        out.writeInt(snapshot.size());
+        for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+            Entry value = entry.getValue();
+            out.writeInt(stringIndex.get(entry.getKey()));
+            out.writeLong(value.size);
+            out.writeLong(value.lastModified);
+            out.writeInt(value.records.size());
+            for (JSXImportVisitor.ImportRecord record : value.records) {
+                out.writeInt(stringIndex.get(record.sourcePath));
+                out.writeInt(record.importedNames.size());
+                for (String name : record.importedNames) {
+                    out.writeInt(stringIndex.get(name));
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private static void intern(String value, Map<String, Integer> stringIndex, List<String> strings) {
+        if (!stringIndex.containsKey(value)) {
+            stringIndex.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+
+    /**
+     * 条目能否写入缓存文件：不能包含null，字符串不能超过 writeUTF 的长度限制
+     */
+    private static boolean isSerializable(String path, List<JSXImportVisitor.ImportRecord> records) {
+        if (!isWritableUtf(path)) {
+            return false;
+        }
+        for (JSXImportVisitor.ImportRecord record : records) {
+            if (!isWritableUtf(record.sourcePath)) {
+                return false;
+            }
+            for (String name : record.importedNames) {
+                if (!isWritableUtf(name)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 字符串按 modified UTF-8 编码后是否不超过 {@link #MAX_UTF_LENGTH}
+     */
+    private static boolean isWritableUtf(String value) {
+        if (value == null) {
+            return false;
+        }
+        int length = value.length();
+        if (length * 3 <= MAX_UTF_LENGTH) {
+            return true;
+        }
+        long bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                bytes++;
+            } else if (c > 0x07FF) {
+                bytes += 3;
+            } else {
+                bytes += 2;
+            }
+        }
+        return bytes <= MAX_UTF_LENGTH;
+    }
+
+    private static List<JSXImportVisitor.ImportRecord> copyRecords(List<JSXImportVisitor.ImportRecord> records) {
+        List<JSXImportVisitor.ImportRecord> copy = new ArrayList<>(records.size());
+        for (JSXImportVisitor.ImportRecord record : records) {
+            JSXImportVisitor.ImportRecord recordCopy = new JSXImportVisitor.ImportRecord(record.sourcePath);
+            recordCopy.importedNames.addAll(record.importedNames);
+            copy.add(recordCopy);
+        }
+        return copy;
+    }
+}
@@ -2,6 +2,7 @@ package org.wzl.depspider.react.project.config;
 
 import lombok.Data;
 import org.wzl.depspider.react.project.config.language.Language;
+import org.wzl.depspider.react.project.scan.ScanListener;
 
 import java.util.List;
 import java.util.Set;
@@ -20,4 +21,51 @@ public class ProjectConfiguration {
      */
     private Set<Language> languages;
 
+    /**
+     * 扫描并行度
+     * 小于等于1时在当前线程中逐个解析文件；大于1时先列出所有文件，再在对应并行度的ForkJoinPool中解析
+     */
+    private int parallelism = 1;
+
+    /**
+     * 是否启用持久化解析缓存
+     * 启用后，未变化的文件会直接复用上一次的import解析结果
+     */
+    private boolean parseCacheEnabled = false;
+
+    /**
+     * 解析缓存目录，相对路径时相对于项目根目录
+     */
+    private String parseCacheDirectory = ".depspider/cache";
+
+    /**
+     * 监听模式下合并文件变化的静默时间（毫秒）
+     */
+    private long watchDebounceMillis = 200;
+
+    /**
+     * 监听模式下轮询的间隔（毫秒），仅在WatchService不可用或强制轮询时使用
+     */
+    private long watchPollingIntervalMillis = 1000;
+
+    /**
+     * 监听模式下是否强制使用轮询
+     */
+    private boolean watchPolling = false;
+
+    /**
+     * 扫描统计信息中保留的最慢文件数量
+     */
+    private int slowestFileCount = 10;
+
+    /**
+     * 扫描进度监听器，未通过参数指定监听器的扫描操作都使用它
+     */
+    private ScanListener scanListener = ScanListener.NONE;
+
+    /**
+     * 未通过参数指定取消令牌的扫描操作的超时时间（毫秒），超时后扫描抛出 ScanCancelledException；小于等于0时不限制
+     */
+    private long scanTimeoutMillis = 0;
+
 }
@@ -1,5 +1,7 @@
 package org.wzl.depspider.react.project.config.language;
 
+import org.wzl.depspider.react.project.resolve.DirectoryIndex;
+
 import java.io.File;
 import java.util.List;
 
@@ -38,4 +40,26 @@ public class CompositeLanguageStrategy implements LanguageStrategy {
         }
         return null;
     }
+
+    @Override
+    public File createNewChildIndexFile(File folder, DirectoryIndex index) {
+        for (LanguageStrategy strategy : strategies) {
+            File newChildIndexFile = strategy.createNewChildIndexFile(folder, index);
+            if (null != newChildIndexFile) {
+                return newChildIndexFile;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public File createNewChildWithPrefix(File folder, String fileName, DirectoryIndex index) {
+        for (LanguageStrategy strategy : strategies) {
+            File newChildIndexFile = strategy.createNewChildWithPrefix(folder, fileName, index);
+            if (null != newChildIndexFile) {
+                return newChildIndexFile;
+            }
+        }
+        return null;
+    }
 }
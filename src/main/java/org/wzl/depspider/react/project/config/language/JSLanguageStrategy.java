@@ -1,5 +1,7 @@
 package org.wzl.depspider.react.project.config.language;
 
+import org.wzl.depspider.react.project.resolve.DirectoryIndex;
+
 import java.io.File;
 
 public class JSLanguageStrategy implements LanguageStrategy{
@@ -31,4 +33,14 @@ public class JSLanguageStrategy implements LanguageStrategy{
             return null;
         }
     }
+
+    @Override
+    public File createNewChildIndexFile(File folder, DirectoryIndex index) {
+        return index.findChild(folder, "index", ".js", ".jsx");
+    }
+
+    @Override
+    public File createNewChildWithPrefix(File folder, String fileName, DirectoryIndex index) {
+        return index.findChild(folder, fileName, ".js", ".jsx");
+    }
 }
@@ -1,5 +1,7 @@
 package org.wzl.depspider.react.project.config.language;
 
+import org.wzl.depspider.react.project.resolve.DirectoryIndex;
+
 import java.io.File;
 
 /**
@@ -24,4 +26,25 @@ public interface LanguageStrategy {
      * @return              目标文件，如果没有，则为null
      */
     File createNewChildWithPrefix(File folder, String fileName);
+
+    /**
+     * 同 {@link #createNewChildIndexFile(File)}，通过目录列表缓存判断文件是否存在
+     * @param folder    目录
+     * @param index     目录列表缓存
+     * @return          index文件，没有时返回null
+     */
+    default File createNewChildIndexFile(File folder, DirectoryIndex index) {
+        return createNewChildIndexFile(folder);
+    }
+
+    /**
+     * 同 {@link #createNewChildWithPrefix(File, String)}，通过目录列表缓存判断文件是否存在
+     * @param folder        当前的目录
+     * @param fileName      文件名
+     * @param index         目录列表缓存
+     * @return              目标文件，如果没有，则为null
+     */
+    default File createNewChildWithPrefix(File folder, String fileName, DirectoryIndex index) {
+        return createNewChildWithPrefix(folder, fileName);
+    }
 }
@@ -1,5 +1,7 @@
 package org.wzl.depspider.react.project.config.language;
 
+import org.wzl.depspider.react.project.resolve.DirectoryIndex;
+
 import java.io.File;
 
 public class TSLanguageStrategy implements LanguageStrategy {
@@ -31,4 +33,14 @@ public class TSLanguageStrategy implements LanguageStrategy {
             return null;
         }
     }
+
+    @Override
+    public File createNewChildIndexFile(File folder, DirectoryIndex index) {
+        return index.findChild(folder, "index", ".ts", ".tsx");
+    }
+
+    @Override
+    public File createNewChildWithPrefix(File folder, String fileName, DirectoryIndex index) {
+        return index.findChild(folder, fileName, ".ts", ".tsx");
+    }
 }
@@ -0,0 +1,395 @@
+package org.wzl.depspider.react.project.graph;
+
+import org.wzl.depspider.react.dto.ImportCycle;
+import org.wzl.depspider.react.dto.ProjectFileRelation;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 文件依赖图
+ * 每个文件按路径排序后编号为一个整数，编号只取决于文件关系的内容，与关系的遍历顺序无关，
+ * 增量更新后的依赖图与重新扫描得到的依赖图完全相同。
+ * <p>
+ * 边以 CSR（压缩稀疏行）形式保存在基本类型数组中：节点i导入的节点为 targets[offsets[i]] 到 targets[offsets[i + 1] - 1]，
+ * 反向边（导入节点i的节点）以同样的形式保存在 reverseOffsets、reverseTargets 中，按导入者编号排列。
+ * 所有图查询都在整数编号上完成，只在返回结果时转换为文件。
+ * 导入环通过 {@link StronglyConnectedComponents} 收缩为有向无环图，递归查询在收缩后的图上进行。
+ * <p>
+ * 构建后不可修改，文件关系发生变化时需要重新构建，可以在多个线程中同时查询。
+ *
+ * @author weizhilong
+ */
+public class DependencyGraph {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final File[] files;
+
+    private final Map<File, Integer> ids;
+
+    private final int[] offsets;
+
+    private final int[] targets;
+
+    private final int[] reverseOffsets;
+
+    private final int[] reverseTargets;
+
+    /**
+     * 强连通分量，第一次需要时计算
+     */
+    private volatile StronglyConnectedComponents components;
+
+    /**
+     * 传递闭包，第一次递归查询时计算
+     */
+    private volatile TransitiveClosure closure;
+
+    private DependencyGraph(File[] files, Map<File, Integer> ids, int[] offsets, int[] targets) {
+        this.files = files;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.reverseOffsets = new int[files.length + 1];
+        this.reverseTargets = new int[targets.length];
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int i = 0; i < files.length; i++) {
+            reverseOffsets[i + 1] += reverseOffsets[i];
+        }
+        int[] cursor = Arrays.copyOf(reverseOffsets, files.length);
+        for (int node = 0; node < files.length; node++) {
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                reverseTargets[cursor[targets[e]]++] = node;
+            }
+        }
+    }
+
+    /**
+     * 根据文件关系构建依赖图
+     * @param relations key为文件，value为它导入的文件，重复导入同一个文件只保留一条边
+     * @return          依赖图
+     */
+    public static DependencyGraph of(Map<File, ? extends List<File>> relations) {
+        Set<File> fileSet = new HashSet<>(relations.keySet());
+        for (List<File> children : relations.values()) {
+            fileSet.addAll(children);
+        }
+        File[] files = fileSet.toArray(new File[0]);
+        Arrays.sort(files);
+        Map<File, Integer> ids = new HashMap<>(files.length * 2);
+        for (int i = 0; i < files.length; i++) {
+            ids.put(files[i], i);
+        }
+
+        //只作为被导入文件出现的文件没有后继
+        int[][] successors = new int[files.length][];
+        Arrays.fill(successors, EMPTY);
+        //stamp[i] == source + 1 表示节点i已经是source的后继
+        int[] stamp = new int[files.length];
+        int edgeCount = 0;
+        for (Map.Entry<File, ? extends List<File>> entry : relations.entrySet()) {
+            int source = ids.get(entry.getKey());
+            List<File> children = entry.getValue();
+            int[] next = new int[children.size()];
+            int size = 0;
+            for (File child : children) {
+                int target = ids.get(child);
+                if (stamp[target] != source + 1) {
+                    stamp[target] = source + 1;
+                    next[size++] = target;
+                }
+            }
+            successors[source] = size == next.length ? next : Arrays.copyOf(next, size);
+            edgeCount += size;
+        }
+
+        int[] offsets = new int[files.length + 1];
+        int[] targets = new int[edgeCount];
+        for (int node = 0; node < files.length; node++) {
+            System.arraycopy(successors[node], 0, targets, offsets[node], successors[node].length);
+            offsets[node + 1] = offsets[node] + successors[node].length;
+        }
+        return new DependencyGraph(files, ids, offsets, targets);
+    }
+
+    /**
+     * 文件数量
+     */
+    public int size() {
+        return files.length;
+    }
+
+    /**
+     * 边的数量
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * 获取文件的编号
+     * @param file  文件
+     * @return      编号，文件不在图中时返回-1
+     */
+    public int id(File file) {
+        Integer id = ids.get(file);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * 获取编号对应的文件
+     * @param id    编号
+     * @return      文件
+     */
+    public File file(int id) {
+        return files[id];
+    }
+
+    /**
+     * 获取没有被任何文件导入的文件
+     * @return  按路径排序的文件
+     */
+    public List<File> roots() {
+        List<File> result = new ArrayList<>();
+        for (int node = 0; node < files.length; node++) {
+            if (reverseOffsets[node] == reverseOffsets[node + 1]) {
+                result.add(files[node]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取直接导入了该文件的文件
+     * @param file  被导入的文件
+     * @return      按路径排序的导入者
+     */
+    public List<File> dependents(File file) {
+        int id = id(file);
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+        List<File> result = new ArrayList<>(reverseOffsets[id + 1] - reverseOffsets[id]);
+        for (int e = reverseOffsets[id]; e < reverseOffsets[id + 1]; e++) {
+            result.add(files[reverseTargets[e]]);
+        }
+        return result;
+    }
+
+    /**
+     * 获取直接或间接导入了该文件的文件
+     * 沿反向边按层向上查找，导入环中的文件只返回一次，不包含文件本身
+     * @param file      被导入的文件
+     * @param maxDepth  最大层数，1表示只返回直接导入者，小于等于0时不限制层数
+     * @return          导入者，按层数从近到远排列，同一层按路径排序
+     */
+    public List<File> transitiveDependents(File file, int maxDepth) {
+        int id = id(file);
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+        BitSet visited = new BitSet(files.length);
+        visited.set(id);
+        int[] queue = new int[files.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = id;
+        for (int depth = 1; head < tail && (maxDepth <= 0 || depth <= maxDepth); depth++) {
+            int levelStart = tail;
+            for (; head < levelStart; head++) {
+                int node = queue[head];
+                for (int e = reverseOffsets[node]; e < reverseOffsets[node + 1]; e++) {
+                    int importer = reverseTargets[e];
+                    if (!visited.get(importer)) {
+                        visited.set(importer);
+                        queue[tail++] = importer;
+                    }
+                }
+            }
+            Arrays.sort(queue, levelStart, tail);
+        }
+        List<File> result = new ArrayList<>(tail - 1);
+        for (int i = 1; i < tail; i++) {
+            result.add(files[queue[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * 获取文件经过至少一条导入可以到达的所有文件
+     * @param file  起始文件
+     * @return      按路径排序的关联文件，文件处于导入环中时包含它自己
+     */
+    public List<File> closure(File file) {
+        int id = id(file);
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+        return toFiles(transitiveClosure().reachable(id));
+    }
+
+    /**
+     * 批量查询多个起始文件分别可以到达哪些目标文件
+     * 所有起始文件共用同一个传递闭包，每个强连通分量的可达集合只计算一次，
+     * 每个起始文件只需要把可达集合与目标文件集合做一次按位与
+     * @param sources   起始文件，不在图中的文件只可能到达它自己
+     * @param targets   目标文件
+     * @return          key为起始文件（顺序与传入顺序一致），value为它可以到达的目标文件（按路径排序），起始文件本身是目标文件时包含它自己
+     */
+    public Map<File, List<File>> reachableTargets(Collection<File> sources, Collection<File> targets) {
+        Set<File> targetSet = new HashSet<>(targets);
+        BitSet mask = toBits(targetSet);
+        Map<File, List<File>> result = new LinkedHashMap<>();
+        for (File source : sources) {
+            int id = id(source);
+            if (id < 0) {
+                result.put(source, targetSet.contains(source)
+                        ? Collections.singletonList(source) : Collections.<File>emptyList());
+                continue;
+            }
+            BitSet hits = mask.isEmpty() ? new BitSet() : transitiveClosure().reachableWithin(id, mask);
+            if (mask.get(id)) {
+                hits.set(id);
+            }
+            result.put(source, toFiles(hits));
+        }
+        return result;
+    }
+
+    /**
+     * 筛选出可以到达任意一个目标文件的起始文件
+     * 从目标文件沿反向边遍历一次，标记所有可以到达目标文件的文件，与起始文件和目标文件的数量无关
+     * @param sources   起始文件
+     * @param targets   目标文件
+     * @return          可以到达目标文件，或者本身就是目标文件的起始文件，顺序与传入顺序一致
+     */
+    public List<File> reachingAny(Collection<File> sources, Collection<File> targets) {
+        Set<File> targetSet = new HashSet<>(targets);
+        BitSet marked = toBits(targetSet);
+        int[] queue = new int[files.length];
+        int tail = 0;
+        for (int i = marked.nextSetBit(0); i >= 0; i = marked.nextSetBit(i + 1)) {
+            queue[tail++] = i;
+        }
+        for (int head = 0; head < tail; head++) {
+            int node = queue[head];
+            for (int e = reverseOffsets[node]; e < reverseOffsets[node + 1]; e++) {
+                int importer = reverseTargets[e];
+                if (!marked.get(importer)) {
+                    marked.set(importer);
+                    queue[tail++] = importer;
+                }
+            }
+        }
+        List<File> result = new ArrayList<>();
+        for (File source : sources) {
+            if (source == null) {
+                continue;
+            }
+            int id = id(source);
+            if (id >= 0 ? marked.get(id) : targetSet.contains(source)) {
+                result.add(source);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取所有导入环
+     * @return  导入环，按环中第一个文件的路径排序
+     */
+    public List<ImportCycle> importCycles() {
+        StronglyConnectedComponents scc = components();
+        List<ImportCycle> cycles = new ArrayList<>();
+        for (int c = 0; c < scc.componentCount(); c++) {
+            if (!scc.isCyclic(c)) {
+                continue;
+            }
+            int[] members = scc.members[c];
+            List<File> cycleFiles = new ArrayList<>(members.length);
+            List<ProjectFileRelation> relations = new ArrayList<>(members.length);
+            for (int node : members) {
+                cycleFiles.add(files[node]);
+                List<File> children = new ArrayList<>();
+                for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                    if (scc.component[targets[e]] == c) {
+                        children.add(files[targets[e]]);
+                    }
+                }
+                relations.add(new ProjectFileRelation(files[node], children));
+            }
+            ImportCycle cycle = new ImportCycle();
+            cycle.setFiles(cycleFiles);
+            cycle.setRelations(relations);
+            cycles.add(cycle);
+        }
+        cycles.sort((a, b) -> a.getFiles().get(0).compareTo(b.getFiles().get(0)));
+        return cycles;
+    }
+
+    /**
+     * 获取强连通分量以及收缩后的有向无环图，不存在时计算
+     */
+    public StronglyConnectedComponents components() {
+        StronglyConnectedComponents current = components;
+        if (current == null) {
+            synchronized (this) {
+                current = components;
+                if (current == null) {
+                    current = new StronglyConnectedComponents(offsets, targets);
+                    components = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 获取传递闭包，不存在时计算
+     */
+    public TransitiveClosure transitiveClosure() {
+        TransitiveClosure current = closure;
+        if (current == null) {
+            synchronized (this) {
+                current = closure;
+                if (current == null) {
+                    current = new TransitiveClosure(components());
+                    closure = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private BitSet toBits(Collection<File> files) {
+        BitSet bits = new BitSet(this.files.length);
+        for (File file : files) {
+            int id = id(file);
+            if (id >= 0) {
+                bits.set(id);
+            }
+        }
+        return bits;
+    }
+
+    private List<File> toFiles(BitSet bits) {
+        List<File> result = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result.add(files[i]);
+        }
+        return result;
+    }
+}
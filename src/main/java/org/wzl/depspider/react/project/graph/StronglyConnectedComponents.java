@@ -0,0 +1,210 @@
+package org.wzl.depspider.react.project.graph;
+
+import java.util.Arrays;
+
+/**
+ * 依赖图的强连通分量
+ * 用迭代的 Tarjan 算法在线性时间内找出所有强连通分量（导入环），并把依赖图收缩成有向无环图：
+ * 每个分量是一个节点，分量之间的边去重后同样以 CSR 形式保存。
+ * 分量按逆拓扑序编号，被依赖的分量编号更小，按编号从小到大处理分量时，所有下游分量都已经处理过，
+ * 在收缩后的图上运行的算法不会重复访问同一个环中的文件。
+ * <p>
+ * 整个过程不使用递归，导入链再深也不会栈溢出。构建后不可修改，可以在多个线程中同时查询。
+ *
+ * @author weizhilong
+ */
+public class StronglyConnectedComponents {
+
+    /**
+     * 每个节点所在的分量
+     */
+    final int[] component;
+
+    /**
+     * 每个分量中的节点，按节点编号排列
+     */
+    final int[][] members;
+
+    /**
+     * 分量是否包含环（多于一个节点，或者节点导入了自己）
+     */
+    final boolean[] cyclic;
+
+    /**
+     * 收缩后的有向无环图，分量c的后继分量为 dagTargets[dagOffsets[c]] 到 dagTargets[dagOffsets[c + 1] - 1]
+     */
+    final int[] dagOffsets;
+
+    final int[] dagTargets;
+
+    /**
+     * @param offsets   每个节点的后继在targets中的起始位置，长度为节点数量加一
+     * @param targets   所有节点的后继
+     */
+    public StronglyConnectedComponents(int[] offsets, int[] targets) {
+        int n = offsets.length - 1;
+        this.component = new int[n];
+        int componentCount = findComponents(offsets, targets);
+        this.members = new int[componentCount][];
+        this.cyclic = new boolean[componentCount];
+        this.dagOffsets = new int[componentCount + 1];
+        collectMembers(offsets, targets);
+        this.dagTargets = condense(offsets, targets);
+    }
+
+    /**
+     * 节点数量
+     */
+    public int size() {
+        return component.length;
+    }
+
+    /**
+     * 分量数量
+     */
+    public int componentCount() {
+        return members.length;
+    }
+
+    /**
+     * 节点所在的分量
+     * @param node  节点
+     * @return      分量编号，被依赖的分量编号更小
+     */
+    public int componentOf(int node) {
+        return component[node];
+    }
+
+    /**
+     * 分量中的节点
+     * @param component 分量编号
+     * @return          按节点编号排列的节点
+     */
+    public int[] members(int component) {
+        return members[component].clone();
+    }
+
+    /**
+     * 分量是否包含环
+     * @param component 分量编号
+     * @return          多于一个节点或者节点导入了自己时返回true
+     */
+    public boolean isCyclic(int component) {
+        return cyclic[component];
+    }
+
+    /**
+     * 收缩后的有向无环图中，分量直接依赖的分量
+     * @param component 分量编号
+     * @return          后继分量，编号都小于 component
+     */
+    public int[] successors(int component) {
+        return Arrays.copyOfRange(dagTargets, dagOffsets[component], dagOffsets[component + 1]);
+    }
+
+    /**
+     * 迭代版 Tarjan 算法，用显式栈记录每个节点遍历到的边的位置
+     * @return  分量数量
+     */
+    private int findComponents(int[] offsets, int[] targets) {
+        int n = component.length;
+        int[] index = new int[n];
+        int[] lowLink = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] sccStack = new int[n];
+        int sccSize = 0;
+        int[] callStack = new int[n];
+        int[] edgeCursor = Arrays.copyOf(offsets, n);
+        Arrays.fill(index, -1);
+        int nextIndex = 0;
+        int componentCount = 0;
+
+        for (int start = 0; start < n; start++) {
+            if (index[start] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth++] = start;
+            index[start] = lowLink[start] = nextIndex++;
+            sccStack[sccSize++] = start;
+            onStack[start] = true;
+
+            while (depth > 0) {
+                int node = callStack[depth - 1];
+                if (edgeCursor[node] < offsets[node + 1]) {
+                    int child = targets[edgeCursor[node]++];
+                    if (index[child] < 0) {
+                        index[child] = lowLink[child] = nextIndex++;
+                        sccStack[sccSize++] = child;
+                        onStack[child] = true;
+                        callStack[depth++] = child;
+                    } else if (onStack[child]) {
+                        lowLink[node] = Math.min(lowLink[node], index[child]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+                if (lowLink[node] == index[node]) {
+                    int member;
+                    do {
+                        member = sccStack[--sccSize];
+                        onStack[member] = false;
+                        component[member] = componentCount;
+                    } while (member != node);
+                    componentCount++;
+                }
+            }
+        }
+        return componentCount;
+    }
+
+    private void collectMembers(int[] offsets, int[] targets) {
+        int[] counts = new int[members.length];
+        for (int c : component) {
+            counts[c]++;
+        }
+        for (int c = 0; c < members.length; c++) {
+            members[c] = new int[counts[c]];
+            counts[c] = 0;
+            cyclic[c] = members[c].length > 1;
+        }
+        for (int node = 0; node < component.length; node++) {
+            int c = component[node];
+            members[c][counts[c]++] = node;
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                if (targets[e] == node) {
+                    cyclic[c] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 生成收缩后的有向无环图，去掉分量内部的边和重复的边
+     * @return  dagTargets，同时填充 dagOffsets
+     */
+    private int[] condense(int[] offsets, int[] targets) {
+        int[] result = new int[Math.max(targets.length, 1)];
+        //stamp[d] == c + 1 表示分量d已经是分量c的后继
+        int[] stamp = new int[members.length];
+        int size = 0;
+        for (int c = 0; c < members.length; c++) {
+            dagOffsets[c] = size;
+            for (int node : members[c]) {
+                for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                    int d = component[targets[e]];
+                    if (d != c && stamp[d] != c + 1) {
+                        stamp[d] = c + 1;
+                        result[size++] = d;
+                    }
+                }
+            }
+        }
+        dagOffsets[members.length] = size;
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -0,0 +1,102 @@
+package org.wzl.depspider.react.project.graph;
+
+import java.util.BitSet;
+
+/**
+ * 依赖图的传递闭包
+ * 在 {@link StronglyConnectedComponents} 收缩得到的有向无环图上，按拓扑序为每个强连通分量计算一次可达节点集合，
+ * 同一个分量中的文件以及共享的下游子图只计算一次，查询多个起点的代价与图的规模成正比，
+ * 而不是与（起点数量 × 边数）成正比。整个过程不使用递归。
+ * <p>
+ * 可达集合按需计算并缓存，查询方法是同步的，可以在多个线程中使用。
+ *
+ * @author weizhilong
+ */
+public class TransitiveClosure {
+
+    private final StronglyConnectedComponents components;
+
+    /**
+     * 每个强连通分量经过至少一条边可以到达的节点，按需计算
+     */
+    private final BitSet[] reachable;
+
+    public TransitiveClosure(StronglyConnectedComponents components) {
+        this.components = components;
+        this.reachable = new BitSet[components.componentCount()];
+    }
+
+    /**
+     * 节点经过至少一条边可以到达的所有节点，节点处于环中时包含它自己
+     * @param node  起始节点
+     * @return      可达节点的副本
+     */
+    public synchronized BitSet reachable(int node) {
+        int target = components.component[node];
+        compute(target);
+        return (BitSet) reachable[target].clone();
+    }
+
+    /**
+     * 节点可以到达的节点中，属于给定集合的节点
+     * 与 {@link #reachable(int)} 相比不需要复制完整的可达集合
+     * @param node  起始节点
+     * @param mask  关心的节点
+     * @return      mask 与可达集合的交集
+     */
+    public synchronized BitSet reachableWithin(int node, BitSet mask) {
+        int target = components.component[node];
+        compute(target);
+        BitSet result = (BitSet) mask.clone();
+        result.and(reachable[target]);
+        return result;
+    }
+
+    /**
+     * 计算分量及其所有下游分量的可达集合
+     * 先标记需要计算的分量，再按编号从小到大（即从下游到上游）依次合并后继分量的结果
+     */
+    private void compute(int target) {
+        if (reachable[target] != null) {
+            return;
+        }
+        int[] dagOffsets = components.dagOffsets;
+        int[] dagTargets = components.dagTargets;
+        int[][] members = components.members;
+
+        boolean[] needed = new boolean[members.length];
+        int[] stack = new int[members.length];
+        int size = 0;
+        needed[target] = true;
+        stack[size++] = target;
+        while (size > 0) {
+            int current = stack[--size];
+            for (int e = dagOffsets[current]; e < dagOffsets[current + 1]; e++) {
+                int next = dagTargets[e];
+                if (!needed[next] && reachable[next] == null) {
+                    needed[next] = true;
+                    stack[size++] = next;
+                }
+            }
+        }
+        for (int c = 0; c <= target; c++) {
+            if (!needed[c]) {
+                continue;
+            }
+            BitSet bits = new BitSet(components.size());
+            if (components.cyclic[c]) {
+                for (int node : members[c]) {
+                    bits.set(node);
+                }
+            }
+            for (int e = dagOffsets[c]; e < dagOffsets[c + 1]; e++) {
+                int next = dagTargets[e];
+                for (int node : members[next]) {
+                    bits.set(node);
+                }
+                bits.or(reachable[next]);
+            }
+            reachable[c] = bits;
+        }
+    }
+}
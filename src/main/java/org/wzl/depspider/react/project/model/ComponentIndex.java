@@ -0,0 +1,143 @@
+package org.wzl.depspider.react.project.model;
+
+import java.io.File;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 组件文件索引
+ * 按组件路径的路径段倒序编入前缀树，例如 src/pages/order/List/index.tsx 的路径段为 [pages, order, List]，
+ * 依次插入 list -> order -> pages。查找导入路径时同样倒序向下走，到达的最深节点就是后缀匹配最长的位置，
+ * 查找只与导入路径的段数有关，与同名组件的数量无关。
+ * <p>
+ * 每个节点保存经过它的所有文件，按（路径段数量，加入顺序）排序，匹配长度相同时取路径最短、最早加入的文件。
+ * 路径段在加入时计算一次，大小写不敏感。多个线程可以同时查找和修改。
+ *
+ * @author weizhilong
+ */
+public class ComponentIndex {
+
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator
+            .comparingInt((Entry entry) -> entry.segments.length)
+            .thenComparingLong(entry -> entry.sequence);
+
+    /**
+     * 计算文件的组件路径段
+     */
+    private final Function<File, List<String>> segmentsFunction;
+
+    private final Node root = new Node();
+
+    private final Map<File, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param segmentsFunction  计算文件的组件路径段，例如 src/pages/home/index.jsx 为 [pages, home]
+     */
+    public ComponentIndex(Function<File, List<String>> segmentsFunction) {
+        this.segmentsFunction = segmentsFunction;
+    }
+
+    /**
+     * 加入文件，文件已存在时按新的加入顺序重新加入
+     * @param file  组件文件
+     */
+    public void add(File file) {
+        List<String> segments = segmentsFunction.apply(file);
+        if (segments.isEmpty()) {
+            return;
+        }
+        String[] normalized = new String[segments.size()];
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = segments.get(i).toLowerCase(Locale.ROOT);
+        }
+        Entry entry = new Entry(file, normalized, sequence.incrementAndGet());
+        Entry old = entries.put(file, entry);
+        if (old != null) {
+            unlink(old);
+        }
+        Node node = root;
+        for (int i = normalized.length - 1; i >= 0; i--) {
+            node = node.children.computeIfAbsent(normalized[i], ignore -> new Node());
+            node.files.add(entry);
+        }
+    }
+
+    /**
+     * 删除文件
+     * @param file  组件文件
+     */
+    public void remove(File file) {
+        Entry entry = entries.remove(file);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * 查找与导入路径后缀匹配最长的文件
+     * @param importSegments    导入路径的路径段，例如 @/pages/home 为 [pages, home]
+     * @return                  匹配的文件，最后一段都不匹配时返回null
+     */
+    public File find(List<String> importSegments) {
+        Node node = root;
+        Entry best = null;
+        for (int i = importSegments.size() - 1; i >= 0; i--) {
+            node = node.children.get(importSegments.get(i).toLowerCase(Locale.ROOT));
+            if (node == null) {
+                break;
+            }
+            Entry first = node.first();
+            if (first == null) {
+                break;
+            }
+            best = first;
+        }
+        return best == null ? null : best.file;
+    }
+
+    private void unlink(Entry entry) {
+        Node node = root;
+        for (int i = entry.segments.length - 1; i >= 0 && node != null; i--) {
+            node = node.children.get(entry.segments[i]);
+            if (node != null) {
+                node.files.remove(entry);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final File file;
+        private final String[] segments;
+        private final long sequence;
+
+        private Entry(File file, String[] segments, long sequence) {
+            this.file = file;
+            this.segments = segments;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new ConcurrentHashMap<>();
+
+        /**
+         * 经过该节点的文件，按路径段数量和加入顺序排序
+         */
+        private final NavigableSet<Entry> files = new ConcurrentSkipListSet<>(ENTRY_ORDER);
+
+        private Entry first() {
+            Iterator<Entry> iterator = files.iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package org.wzl.depspider.react.project.model;
+
+import org.wzl.depspider.ast.jsx.visitor.JSXImportVisitor;
+import org.wzl.depspider.jfr.ScanEvents;
+import org.wzl.depspider.react.dto.FileRelationDetail;
+import org.wzl.depspider.react.dto.PageRouterDefine;
+import org.wzl.depspider.react.project.graph.DependencyGraph;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 项目快照
+ * 一次扫描得到的文件列表、每个文件的import记录、解析后的文件关系、依赖图以及组件索引。
+ * IReactProjectOperator 的所有查询都基于同一个快照回答，只有显式 refresh 时才会重新扫描项目；
+ * 文件发生变化时可以通过 update 只对变化的文件进行增量修补。
+ * <p>
+ * 读操作持有读锁，增量修补通过 {@link #write(Runnable)} 持有写锁，保证查询不会看到修补到一半的快照。
+ *
+ * @author weizhilong
+ */
+public class ProjectModel {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 扫描路径下的所有文件，顺序与目录遍历顺序一致，增量新增的文件追加在末尾
+     */
+    private final Set<File> scanFiles;
+
+    /**
+     * src目录下的所有代码文件
+     */
+    private final Set<File> codeFiles;
+
+    /**
+     * 每个已解析文件的import记录
+     */
+    private final Map<File, List<JSXImportVisitor.ImportRecord>> importRecords;
+
+    /**
+     * 扫描路径下每个文件的关系，顺序与scanFiles一致
+     */
+    private final Map<File, FileRelationDetail> relations = new LinkedHashMap<>();
+
+    /**
+     * 计算组件文件的路径段，用于构建组件索引
+     */
+    private final Function<File, List<String>> componentSegments;
+
+    /**
+     * 组件索引，第一次查找组件时构建
+     */
+    private volatile ComponentIndex componentIndex;
+
+    /**
+     * 由文件关系构建的依赖图，反向依赖和递归关系都在依赖图上查询，第一次查询时构建，文件关系变化后重新构建
+     */
+    private volatile DependencyGraph graph;
+
+    /**
+     * 路由文件的分析结果，在路由查询时按需填充
+     */
+    private final Map<File, RouteAnalysisResult> routeAnalysis = new ConcurrentHashMap<>();
+
+    /**
+     * 页面路由定义，第一次查询时填充
+     */
+    private volatile List<PageRouterDefine> pageRouterDefines;
+
+    public ProjectModel(List<File> scanFiles,
+                        List<File> codeFiles,
+                        Map<File, List<JSXImportVisitor.ImportRecord>> importRecords,
+                        List<FileRelationDetail> relations,
+                        Function<File, List<String>> componentSegments) {
+        this.componentSegments = componentSegments;
+        this.scanFiles = new LinkedHashSet<>(scanFiles);
+        this.codeFiles = new LinkedHashSet<>(codeFiles);
+        this.importRecords = new HashMap<>(importRecords);
+        for (FileRelationDetail relation : relations) {
+            putRelation(relation);
+        }
+    }
+
+    /**
+     * 在写锁中执行修改，修改期间的查询会等待修改完成
+     * @param action 修改操作
+     */
+    public void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> supplier) {
+        lock.readLock().lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<File> getScanFiles() {
+        return read(() -> new ArrayList<>(scanFiles));
+    }
+
+    public List<File> getCodeFiles() {
+        return read(() -> new ArrayList<>(codeFiles));
+    }
+
+    public boolean isScanFile(File file) {
+        return read(() -> scanFiles.contains(file));
+    }
+
+    public boolean isCodeFile(File file) {
+        return read(() -> codeFiles.contains(file));
+    }
+
+    /**
+     * 获取文件的import记录
+     * @param file  代码文件
+     * @return      import记录，文件未被解析时返回空列表
+     */
+    public List<JSXImportVisitor.ImportRecord> getImportRecords(File file) {
+        return read(() -> {
+            List<JSXImportVisitor.ImportRecord> records = importRecords.get(file);
+            return records == null ? Collections.<JSXImportVisitor.ImportRecord>emptyList() : records;
+        });
+    }
+
+    /**
+     * 获取所有已解析文件的import记录
+     * @return  key为文件，value为import记录
+     */
+    public Map<File, List<JSXImportVisitor.ImportRecord>> getAllImportRecords() {
+        return read(() -> new HashMap<>(importRecords));
+    }
+
+    /**
+     * 获取扫描路径下所有文件的关系
+     * @return  文件关系，顺序与scanFiles一致
+     */
+    public List<FileRelationDetail> getRelations() {
+        return read(() -> new ArrayList<>(relations.values()));
+    }
+
+    /**
+     * 获取单个文件的关系
+     * @param file  文件
+     * @return      文件关系，不在扫描路径下时返回null
+     */
+    public FileRelationDetail getRelation(File file) {
+        return read(() -> relations.get(file));
+    }
+
+    /**
+     * 查找与导入路径后缀匹配最长的组件文件
+     * 匹配长度相同时取路径段最少的文件，仍然相同时取最早加入快照的文件
+     * @param importSegments    导入路径的路径段，大小写不敏感
+     * @return                  组件文件，没有匹配时返回null
+     */
+    public File findComponent(List<String> importSegments) {
+        return read(() -> componentIndex().find(importSegments));
+    }
+
+    /**
+     * 获取组件索引，不存在时从src下的代码文件构建
+     * 构建时持有读锁，不会与增量修补同时进行
+     */
+    private ComponentIndex componentIndex() {
+        ComponentIndex index = componentIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = componentIndex;
+                if (index == null) {
+                    Object event = ScanEvents.COMPONENT_INDEX.begin();
+                    index = new ComponentIndex(componentSegments);
+                    for (File codeFile : codeFiles) {
+                        index.add(codeFile);
+                    }
+                    componentIndex = index;
+                    ScanEvents.COMPONENT_INDEX.commit(event, codeFiles.size());
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 获取依赖图，不存在时从文件关系构建
+     * 依赖图构建后不可修改，可以在锁之外查询；构建时持有读锁，不会与增量修补同时进行
+     * @return  当前文件关系的依赖图
+     */
+    public DependencyGraph getGraph() {
+        return read(this::graph);
+    }
+
+    private DependencyGraph graph() {
+        DependencyGraph current = graph;
+        if (current == null) {
+            synchronized (this) {
+                current = graph;
+                if (current == null) {
+                    Map<File, List<File>> edges = new LinkedHashMap<>();
+                    for (FileRelationDetail relation : relations.values()) {
+                        edges.put(relation.getTargetFile(), relation.getRelationFilePaths());
+                    }
+                    current = DependencyGraph.of(edges);
+                    graph = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public Map<File, RouteAnalysisResult> getRouteAnalysis() {
+        return routeAnalysis;
+    }
+
+    public List<PageRouterDefine> getPageRouterDefines() {
+        return pageRouterDefines;
+    }
+
+    public void setPageRouterDefines(List<PageRouterDefine> pageRouterDefines) {
+        this.pageRouterDefines = pageRouterDefines;
+    }
+
+    /**
+     * 新增或替换扫描路径下的文件
+     * @param file  文件
+     */
+    public void addScanFile(File file) {
+        write(() -> scanFiles.add(file));
+    }
+
+    /**
+     * 新增或替换src下的代码文件
+     * @param file  代码文件
+     */
+    public void addCodeFile(File file) {
+        write(() -> {
+            ComponentIndex index = componentIndex;
+            if (codeFiles.add(file) && index != null) {
+                index.add(file);
+            }
+        });
+    }
+
+    /**
+     * 更新文件的import记录
+     * @param file      文件
+     * @param records   import记录
+     */
+    public void putImportRecords(File file, List<JSXImportVisitor.ImportRecord> records) {
+        write(() -> importRecords.put(file, records));
+    }
+
+    /**
+     * 更新文件的关系，依赖图在下一次图查询时重新构建
+     * @param relation  文件关系
+     */
+    public void putRelation(FileRelationDetail relation) {
+        write(() -> {
+            graph = null;
+            relations.put(relation.getTargetFile(), relation);
+        });
+    }
+
+    /**
+     * 从快照中删除文件，包括其import记录、关系、组件索引和路由分析结果
+     * @param file  被删除的文件
+     */
+    public void removeFile(File file) {
+        write(() -> {
+            scanFiles.remove(file);
+            ComponentIndex index = componentIndex;
+            if (codeFiles.remove(file) && index != null) {
+                index.remove(file);
+            }
+            importRecords.remove(file);
+            if (relations.remove(file) != null) {
+                graph = null;
+            }
+            routeAnalysis.remove(file);
+        });
+    }
+}
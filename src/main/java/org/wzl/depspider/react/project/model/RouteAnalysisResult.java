@@ -0,0 +1,37 @@
+package org.wzl.depspider.react.project.model;
+
+import org.wzl.depspider.react.dto.PageRouterDefine;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * 单个路由文件的分析结果
+ *
+ * @author weizhilong
+ */
+public class RouteAnalysisResult {
+
+    /**
+     * 文件中声明的路由
+     */
+    private final List<PageRouterDefine> routeDefines;
+
+    /**
+     * 文件导入的项目文件，路由发现时会继续分析这些文件
+     */
+    private final List<File> importedProjectFiles;
+
+    public RouteAnalysisResult(List<PageRouterDefine> routeDefines, List<File> importedProjectFiles) {
+        this.routeDefines = routeDefines;
+        this.importedProjectFiles = importedProjectFiles;
+    }
+
+    public List<PageRouterDefine> getRouteDefines() {
+        return routeDefines;
+    }
+
+    public List<File> getImportedProjectFiles() {
+        return importedProjectFiles;
+    }
+}
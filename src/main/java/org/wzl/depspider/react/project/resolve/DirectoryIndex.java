@@ -0,0 +1,363 @@
+package org.wzl.depspider.react.project.resolve;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 目录列表缓存
+ * 每个目录只调用一次 {@link File#listFiles()}，之后"某个名字是否存在、是文件还是目录"都从内存中回答，
+ * 解析导入路径时不再对每个候选后缀单独访问文件系统。
+ * <p>
+ * 缓存按扫描轮次失效：每次扫描开始时调用 {@link #beginScan()}，新一轮中第一次访问某个目录时
+ * 比较一次目录的修改时间，未变化则继续使用缓存，否则重新列出目录。
+ * 修改时间距离列出目录的时刻过近时（文件系统的时间精度可能较粗），下一轮总是重新列出。
+ * <p>
+ * 名字按大小写精确匹配；精确匹配不到但有只是大小写不同的子项时，检查一次目录所在的文件系统是否区分大小写，
+ * 不区分大小写时（Windows、macOS默认卷）与 {@link File#isFile()} 一样视为存在，返回子项实际的名字。
+ * <p>
+ * 多个扫描线程可以同时访问。
+ *
+ * @author weizhilong
+ */
+public class DirectoryIndex {
+
+    /**
+     * 修改时间与列出时刻的最小间隔，小于该间隔的列表在下一轮扫描时不信任修改时间
+     */
+    private static final long RACY_INTERVAL_MILLIS = 2000;
+
+    private final Map<String, Listing> listings = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 访问文件系统元数据的次数
+     */
+    private final LongAdder statCalls = new LongAdder();
+
+    /**
+     * 开始新一轮扫描，之后访问的目录都会重新校验修改时间
+     */
+    public void beginScan() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * 访问文件系统元数据的次数：列出目录、读取目录修改时间以及判断子项类型
+     * @return  累计次数
+     */
+    public long getStatCount() {
+        return statCalls.sum();
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public void clear() {
+        listings.clear();
+    }
+
+    /**
+     * 获取目录列表
+     * @param directory 目录
+     * @return          目录列表，目录不存在时为空列表
+     */
+    public Listing listing(File directory) {
+        String key = directory.getAbsolutePath();
+        long current = generation.get();
+        Listing cached = listings.get(key);
+        if (cached != null && cached.verifiedGeneration == current) {
+            return cached;
+        }
+        long lastModified = directory.lastModified();
+        statCalls.increment();
+        if (cached != null && cached.stable && cached.lastModified == lastModified) {
+            cached.verifiedGeneration = current;
+            return cached;
+        }
+        Listing listing = Listing.load(directory, lastModified, current, statCalls);
+        listings.put(key, listing);
+        return listing;
+    }
+
+    /**
+     * 文件是否存在且为普通文件
+     */
+    public boolean isFile(File file) {
+        File parent = indexedParent(file);
+        if (parent == null) {
+            statCalls.increment();
+            return file.isFile();
+        }
+        return listing(parent).isFile(file.getName());
+    }
+
+    /**
+     * 文件是否存在且为目录
+     */
+    public boolean isDirectory(File file) {
+        File parent = indexedParent(file);
+        if (parent == null) {
+            statCalls.increment();
+            return file.isDirectory();
+        }
+        return listing(parent).isDirectory(file.getName());
+    }
+
+    /**
+     * 文件或目录是否存在
+     */
+    public boolean exists(File file) {
+        File parent = indexedParent(file);
+        if (parent == null) {
+            statCalls.increment();
+            return file.exists();
+        }
+        return listing(parent).contains(file.getName());
+    }
+
+    /**
+     * 按顺序查找目录下第一个存在的 baseName + 后缀 文件
+     * eg. folder: src/pages  baseName: index  extensions: [.js, .jsx]  result: src/pages/index.jsx
+     * @param folder        目录
+     * @param baseName      文件名（不含后缀）
+     * @param extensions    候选后缀
+     * @return              文件，都不存在时为null
+     */
+    public File findChild(File folder, String baseName, String... extensions) {
+        Listing listing = listing(folder);
+        for (String extension : extensions) {
+            String name = baseName + extension;
+            if (listing.isFile(name)) {
+                return new File(folder, listing.actualName(name));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取可以通过目录列表判断的父目录
+     * 根目录，以及以"."或".."结尾的路径无法从父目录的列表中找到，返回null
+     */
+    private static File indexedParent(File file) {
+        String name = file.getName();
+        if (name.isEmpty() || ".".equals(name) || "..".equals(name)) {
+            return null;
+        }
+        return file.getAbsoluteFile().getParentFile();
+    }
+
+    /**
+     * 一个目录的内容
+     */
+    public static final class Listing {
+
+        private static final String[] NO_NAMES = new String[0];
+
+        private final long lastModified;
+
+        /**
+         * 修改时间是否足够早，可以用来判断目录是否变化
+         */
+        private final boolean stable;
+
+        /**
+         * 子项名称，保持 {@link File#listFiles()} 的顺序
+         */
+        private final String[] names;
+
+        private final Map<String, Boolean> directories;
+
+        /**
+         * 文件名第一个"."之前的部分
+         */
+        private final Set<String> fileBaseNames;
+
+        private final File directory;
+
+        private final LongAdder statCalls;
+
+        /**
+         * 转为小写后的子项名称到实际名称，只在精确匹配不到时使用，第一次使用时创建
+         */
+        private volatile Map<String, String> foldedNames;
+
+        /**
+         * 转为小写后的文件名第一个"."之前的部分，第一次使用时创建
+         */
+        private volatile Set<String> foldedBaseNames;
+
+        /**
+         * 目录所在的文件系统是否不区分大小写，第一次需要时检查
+         */
+        private volatile Boolean caseInsensitive;
+
+        private volatile long verifiedGeneration;
+
+        private Listing(File directory, long lastModified, boolean stable, String[] names,
+                        Map<String, Boolean> directories, Set<String> fileBaseNames, long verifiedGeneration,
+                        LongAdder statCalls) {
+            this.directory = directory;
+            this.lastModified = lastModified;
+            this.stable = stable;
+            this.names = names;
+            this.directories = directories;
+            this.fileBaseNames = fileBaseNames;
+            this.verifiedGeneration = verifiedGeneration;
+            this.statCalls = statCalls;
+        }
+
+        private static Listing load(File directory, long lastModified, long generation, LongAdder statCalls) {
+            long loadedAt = System.currentTimeMillis();
+            File[] children = directory.listFiles();
+            statCalls.increment();
+            if (children == null) {
+                return new Listing(directory, lastModified, false, NO_NAMES,
+                        Collections.<String, Boolean>emptyMap(), Collections.<String>emptySet(), generation, statCalls);
+            }
+            String[] names = new String[children.length];
+            Map<String, Boolean> directories = new HashMap<>(children.length * 2);
+            Set<String> fileBaseNames = new HashSet<>();
+            int count = 0;
+            for (File child : children) {
+                boolean isDirectory = child.isDirectory();
+                statCalls.add(isDirectory ? 1 : 2);
+                if (!isDirectory && !child.isFile()) {
+                    //列出后被删除，或不是普通文件
+                    continue;
+                }
+                String name = child.getName();
+                names[count++] = name;
+                directories.put(name, isDirectory);
+                if (!isDirectory) {
+                    fileBaseNames.add(name.split("\\.")[0]);
+                }
+            }
+            if (count < names.length) {
+                String[] trimmed = new String[count];
+                System.arraycopy(names, 0, trimmed, 0, count);
+                names = trimmed;
+            }
+            boolean stable = lastModified != 0 && lastModified < loadedAt - RACY_INTERVAL_MILLIS;
+            return new Listing(directory, lastModified, stable, names, directories, fileBaseNames, generation, statCalls);
+        }
+
+        public boolean contains(String name) {
+            return actualName(name) != null;
+        }
+
+        public boolean isFile(String name) {
+            String actual = actualName(name);
+            return actual != null && Boolean.FALSE.equals(directories.get(actual));
+        }
+
+        public boolean isDirectory(String name) {
+            String actual = actualName(name);
+            return actual != null && Boolean.TRUE.equals(directories.get(actual));
+        }
+
+        /**
+         * 子项实际的名字
+         * @param name  名字
+         * @return      精确匹配的名字；文件系统不区分大小写时也可以是只有大小写不同的名字；不存在时返回null
+         */
+        public String actualName(String name) {
+            if (directories.containsKey(name)) {
+                return name;
+            }
+            if (directories.isEmpty()) {
+                return null;
+            }
+            String actual = foldedNames().get(fold(name));
+            return actual != null && isCaseInsensitive() ? actual : null;
+        }
+
+        /**
+         * 是否存在去掉后缀后与指定名字相同的文件
+         * eg. name: CommonCard  匹配 CommonCard.jsx、CommonCard.module.less
+         */
+        public boolean hasFileWithBaseName(String name) {
+            if (fileBaseNames.contains(name)) {
+                return true;
+            }
+            return !fileBaseNames.isEmpty() && foldedBaseNames().contains(fold(name)) && isCaseInsensitive();
+        }
+
+        private Map<String, String> foldedNames() {
+            Map<String, String> folded = foldedNames;
+            if (folded == null) {
+                folded = new HashMap<>(names.length * 2);
+                for (String name : names) {
+                    folded.putIfAbsent(fold(name), name);
+                }
+                foldedNames = folded;
+            }
+            return folded;
+        }
+
+        private Set<String> foldedBaseNames() {
+            Set<String> folded = foldedBaseNames;
+            if (folded == null) {
+                folded = new HashSet<>(fileBaseNames.size() * 2);
+                for (String name : fileBaseNames) {
+                    folded.add(fold(name));
+                }
+                foldedBaseNames = folded;
+            }
+            return folded;
+        }
+
+        /**
+         * 检查目录所在的文件系统是否不区分大小写：用改变了大小写的名字访问一个已经存在的子项
+         */
+        private boolean isCaseInsensitive() {
+            Boolean result = caseInsensitive;
+            if (result == null) {
+                result = false;
+                for (String name : names) {
+                    String swapped = swapCase(name);
+                    //名字中没有字母，或者改变大小写后的名字本身也存在时无法判断
+                    if (!swapped.equals(name) && !directories.containsKey(swapped)) {
+                        statCalls.increment();
+                        result = new File(directory, swapped).exists();
+                        break;
+                    }
+                }
+                caseInsensitive = result;
+            }
+            return result;
+        }
+
+        private static String fold(String name) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+
+        private static String swapCase(String name) {
+            char[] chars = name.toCharArray();
+            for (int i = 0; i < chars.length; i++) {
+                char c = chars[i];
+                chars[i] = Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c);
+            }
+            return new String(chars);
+        }
+
+        /**
+         * 子项数量，与 {@link #name(int)} 一起按 {@link File#listFiles()} 的顺序遍历子项
+         */
+        public int size() {
+            return names.length;
+        }
+
+        public String name(int index) {
+            return names[index];
+        }
+    }
+}
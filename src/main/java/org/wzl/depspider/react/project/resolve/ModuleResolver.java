@@ -0,0 +1,631 @@
+package org.wzl.depspider.react.project.resolve;
+
+import org.wzl.depspider.jfr.ScanEvents;
+import org.wzl.depspider.react.project.config.language.Language;
+import org.wzl.depspider.react.project.config.language.LanguageStrategy;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 导入路径解析
+ * 同一个导入路径（例如 @/components/Button、../utils）在项目中会被成百上千个文件重复导入，
+ * 解析结果只取决于导入文件所在的目录和导入路径本身，因此以（导入文件所在目录，导入路径）为key缓存解析结果，
+ * 未找到的结果同样缓存，解析次数只与不同的导入路径数量有关。
+ * <p>
+ * 文件关系扫描和路由分析使用不同的解析规则，分别缓存：
+ * <ul>
+ *     <li>{@link #resolve(File, String)}：文件关系扫描，只解析项目内的导入</li>
+ *     <li>{@link #resolveComponent(File, String)}：路由分析，解析路由组件文件，找不到时按路径后缀在项目中搜索</li>
+ * </ul>
+ * 项目根目录下有 tsconfig.json 或 jsconfig.json 时，非相对路径的导入先按其中的 paths 和 baseUrl 解析（见 {@link PathAliases}），
+ * 解析不到时再使用 @/、$src 等默认规则。
+ * <p>
+ * 每次扫描开始时调用 {@link #beginScan()} 清空缓存，配置文件有变化时重新加载路径别名。多个扫描线程可以同时访问。
+ *
+ * @author weizhilong
+ */
+public class ModuleResolver {
+
+    /**
+     * 缓存中表示"未找到"的占位值，ConcurrentHashMap不能保存null
+     */
+    private static final File NOT_FOUND = new File("");
+
+    private final File projectFileFolder;
+
+    /**
+     * 项目根目录规范化后的绝对路径
+     */
+    private final Path projectRoot;
+
+    /**
+     * 扫描列出的项目文件的路径前缀
+     */
+    private final String projectPathPrefix;
+
+    private final File srcFileFolder;
+
+    private final Set<Language> languages;
+
+    private final LanguageStrategy languageStrategy;
+
+    private final DirectoryIndex directoryIndex;
+
+    /**
+     * 路由组件在项目中的兜底搜索，参数为导入路径
+     */
+    private final Function<String, File> componentSearch;
+
+    /**
+     * 路由组件文件的候选后缀
+     */
+    private final List<String> extensions;
+
+    /**
+     * tsconfig/jsconfig 中的路径别名
+     */
+    private volatile PathAliases pathAliases;
+
+    private final Map<Key, File> relationCache = new ConcurrentHashMap<>();
+
+    private final Map<Key, File> componentCache = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param projectFileFolder 项目根目录
+     * @param srcFileFolder     src目录
+     * @param languages         项目所用的语言
+     * @param languageStrategy  语言策略
+     * @param directoryIndex    目录列表缓存
+     * @param componentSearch   路由组件的兜底搜索，找不到时返回null
+     */
+    public ModuleResolver(File projectFileFolder,
+                          File srcFileFolder,
+                          Set<Language> languages,
+                          LanguageStrategy languageStrategy,
+                          DirectoryIndex directoryIndex,
+                          Function<String, File> componentSearch) {
+        this.projectFileFolder = projectFileFolder;
+        this.projectRoot = projectFileFolder.toPath().toAbsolutePath().normalize();
+        this.projectPathPrefix = projectFileFolder.getPath() + File.separator;
+        this.srcFileFolder = srcFileFolder;
+        this.languages = languages;
+        this.languageStrategy = languageStrategy;
+        this.directoryIndex = directoryIndex;
+        this.componentSearch = componentSearch;
+        this.extensions = candidateExtensions(languages);
+        this.pathAliases = PathAliases.load(projectFileFolder);
+    }
+
+    /**
+     * 开始新一轮扫描：目录列表缓存按修改时间重新校验，路径别名按配置文件修改时间重新加载，解析结果缓存清空
+     * @return  路径别名是否被重新加载，重新加载后之前的解析结果都可能发生变化
+     */
+    public boolean beginScan() {
+        directoryIndex.beginScan();
+        boolean aliasesReloaded = false;
+        if (pathAliases.isStale()) {
+            pathAliases = PathAliases.load(projectFileFolder);
+            aliasesReloaded = true;
+        }
+        clear();
+        return aliasesReloaded;
+    }
+
+    /**
+     * 清空解析结果缓存，不影响目录列表缓存和命中计数
+     */
+    public void clear() {
+        relationCache.clear();
+        componentCache.clear();
+    }
+
+    /**
+     * 解析文件关系中导入的项目文件
+     * @param importer  导入方文件
+     * @param source    在 import { refresh } from 'react' 中的'react'部分
+     * @return          导入的项目文件，不是项目内的导入或找不到时返回null
+     */
+    public File resolve(File importer, String source) {
+        Object event = ScanEvents.RESOLVE.begin();
+        Key key = new Key(importer.getParentFile(), source);
+        File cached = relationCache.get(key);
+        if (cached != null) {
+            hitCount.increment();
+            File result = cached == NOT_FOUND ? null : cached;
+            commitResolveEvent(event, importer, source, "relation", ScanEvents.OUTCOME_CACHED, result);
+            return result;
+        }
+        missCount.increment();
+        File resolved = resolveAlias(source);
+        if (resolved != null && !isProjectFile(resolved)) {
+            resolved = null;
+        }
+        if (resolved == null && isProjectImport(source)) {
+            resolved = findFileBySource(source, importer);
+        }
+        resolved = toProjectFile(resolved);
+        relationCache.put(key, resolved == null ? NOT_FOUND : resolved);
+        commitResolveEvent(event, importer, source, "relation", null, resolved);
+        return resolved;
+    }
+
+    /**
+     * 解析路由中引用的组件文件
+     * @param importer      路由文件
+     * @param importPath    导入路径
+     * @return              组件文件，可能不存在；导入路径为空时返回null
+     */
+    public File resolveComponent(File importer, String importPath) {
+        if (importPath == null || importPath.isEmpty()) {
+            return null;
+        }
+        Object event = ScanEvents.RESOLVE.begin();
+        Key key = new Key(importer.getParentFile(), importPath);
+        File cached = componentCache.get(key);
+        if (cached != null) {
+            hitCount.increment();
+            File result = cached == NOT_FOUND ? null : cached;
+            commitResolveEvent(event, importer, importPath, "component", ScanEvents.OUTCOME_CACHED, result);
+            return result;
+        }
+        missCount.increment();
+        File resolved = resolveAlias(importPath);
+        if (resolved == null) {
+            resolved = resolveComponentFile(importer, importPath);
+        }
+        resolved = toProjectFile(resolved);
+        componentCache.put(key, resolved == null ? NOT_FOUND : resolved);
+        commitResolveEvent(event, importer, importPath, "component", null, resolved);
+        return resolved;
+    }
+
+    /**
+     * 提交导入路径解析的JFR事件，outcome为null时按是否找到文件确定
+     */
+    private static void commitResolveEvent(Object event, File importer, String specifier,
+                                           String kind, String outcome, File resolved) {
+        if (event == null) {
+            return;
+        }
+        if (outcome == null) {
+            outcome = resolved == null ? ScanEvents.OUTCOME_NOT_FOUND : ScanEvents.OUTCOME_RESOLVED;
+        }
+        ScanEvents.RESOLVE.commit(event, importer.getPath(), specifier, kind, outcome,
+                resolved == null ? null : resolved.getPath());
+    }
+
+    /**
+     * 获取当前的路径别名
+     */
+    public PathAliases getPathAliases() {
+        return pathAliases;
+    }
+
+    /**
+     * 缓存命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 缓存未命中次数，即实际解析的次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 按 tsconfig/jsconfig 的路径别名解析导入路径
+     * 依次尝试每个候选路径：路径本身、补全后缀、目录下的index文件
+     * @param specifier 导入路径
+     * @return          存在的文件，没有匹配的别名或候选路径都不存在时返回null
+     */
+    private File resolveAlias(String specifier) {
+        for (File candidate : pathAliases.candidates(specifier)) {
+            if (directoryIndex.isFile(candidate)) {
+                return candidate;
+            }
+            File parent = candidate.getParentFile();
+            if (parent != null) {
+                for (String extension : extensions) {
+                    File withExtension = new File(parent, candidate.getName() + extension);
+                    if (directoryIndex.isFile(withExtension)) {
+                        return withExtension;
+                    }
+                }
+            }
+            if (directoryIndex.isDirectory(candidate)) {
+                File index = resolveIndexFile(candidate, extensions);
+                if (index != null) {
+                    return index;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 将解析出的文件转换为与扫描列出的文件一致的表示
+     * 路径别名和部分相对路径规则得到的是绝对路径，项目根目录为相对路径时，同一个文件在依赖图中会被当作两个文件
+     * @param file  解析出的文件，可以为null
+     * @return      位于项目内时以项目根目录为parent的File，否则原样返回
+     */
+    private File toProjectFile(File file) {
+        if (file == null) {
+            return null;
+        }
+        String path = file.getPath();
+        if (path.startsWith(projectPathPrefix)
+                && !path.contains(File.separator + "." + File.separator)
+                && !path.contains(File.separator + ".." + File.separator)) {
+            return file;
+        }
+        Path absolute = file.toPath().toAbsolutePath().normalize();
+        if (absolute.startsWith(projectRoot) && !absolute.equals(projectRoot)) {
+            return new File(projectFileFolder, projectRoot.relativize(absolute).toString());
+        }
+        return file;
+    }
+
+    /**
+     * 是否为项目中的文件，node_modules 中的文件不属于项目
+     */
+    private boolean isProjectFile(File file) {
+        String projectPath = projectFileFolder.getAbsolutePath() + File.separator;
+        String filePath = file.getAbsolutePath();
+        return filePath.startsWith(projectPath)
+                && !filePath.contains(File.separator + "node_modules" + File.separator);
+    }
+
+    /**
+     * 寻找一条导入语句中，导入的文件在项目中的位置
+     * @param source    在 import { refresh } from 'react' 中的'react'部分
+     * @param curFile   当前的文件的file对象
+     */
+    private File findFileBySource(String source, File curFile) {
+        File relativeFile;
+        //导入有四种规则
+        // 1、../components/CommonCard
+        // 2、../components/CommonCard/index.jsx
+        // 3、../components/CommonCard/index
+        // 4、../components/CommonCard.js
+        if (source.startsWith("@") || (source.startsWith("$") && source.contains("src"))) {
+            String[] split = source.split("/");
+            File currentFile = srcFileFolder;
+            for (int i = 1 ; i < split.length; i++) {
+                String folder = split[i];
+
+                if (i == split.length - 1) {
+                    //当导入规则为4时
+                    File currentFile4 = languageStrategy.createNewChildWithPrefix(currentFile, folder, directoryIndex);
+                    if (null != currentFile4) {
+                        return currentFile4;
+                    }
+                    //当导入规则为2时，直接返回
+                    if (folder.contains(".")) {
+                        relativeFile = new File(currentFile, folder);
+                        return relativeFile;
+                    }
+                    //当第3种情况时
+                    File currentFile1 = languageStrategy.createNewChildWithPrefix(currentFile, folder, directoryIndex);
+                    if (null != currentFile1) {
+                        return currentFile1;
+                    }
+
+                    //第1种可能
+                    currentFile = new File(currentFile, folder);
+                    currentFile1 = languageStrategy.createNewChildIndexFile(currentFile, directoryIndex);
+                    if (null != currentFile1) {
+                        return currentFile1;
+                    }
+                } else {
+                    currentFile = new File(currentFile, folder);
+                }
+            }
+
+            return languageStrategy.createNewChildIndexFile(currentFile, directoryIndex);
+        } else if (source.startsWith("../")) {
+            File parentFile = curFile;
+            parentFile = parentFile.getParentFile();
+            String[] split = source.split("/");
+
+            for (int i = 0 ; i < split.length ; i++) {
+                String str = split[i];
+
+                if (str.equals("..")) {
+                    parentFile = parentFile.getParentFile();
+                    continue;
+                }
+
+                if (i == split.length - 1) {
+                    //导入规则是4时
+                    File currentFile4 = languageStrategy.createNewChildWithPrefix(parentFile, str, directoryIndex);
+                    if (null != currentFile4) {
+                        return currentFile4;
+                    }
+                    //当导入规则为2时，直接返回
+                    if (str.contains(".")) {
+                        relativeFile = new File(parentFile, str);
+                        return relativeFile;
+                    }
+
+                    //当第3种情况时
+                    File currentFile = languageStrategy.createNewChildIndexFile(parentFile, directoryIndex);
+                    if (null != currentFile) {
+                        return currentFile;
+                    }
+
+                    //第1种可能
+                    parentFile = new File(parentFile, str);
+                    currentFile = languageStrategy.createNewChildIndexFile(parentFile, directoryIndex);
+                    if (null != currentFile) {
+                        return currentFile;
+                    }
+                } else {
+                    parentFile = new File(parentFile, str);
+                }
+            }
+        } else if (source.startsWith("./")) {
+            File parentFile = curFile.getParentFile();
+            String[] split = source.split("/");
+            for (int i = 1 ; i < split.length ; i++) {
+                parentFile = new File(parentFile, split[i]);
+            }
+            if (directoryIndex.isFile(parentFile)) {
+                return parentFile;
+            }
+            if (languages.contains(Language.TS)) {
+                //直接加.ts或者.tsx
+                relativeFile = new File(parentFile.getAbsolutePath() + ".tsx");
+                if (directoryIndex.isFile(relativeFile)) {
+                    return relativeFile;
+                }
+                relativeFile = new File(parentFile.getAbsolutePath() + ".ts");
+                if (directoryIndex.isFile(relativeFile)) {
+                    return relativeFile;
+                }
+                //加index.ts或者index.tsx
+                relativeFile = new File(parentFile, "index.tsx");
+                if (directoryIndex.isFile(relativeFile)) {
+                    return relativeFile;
+                }
+                relativeFile = new File(parentFile, "index.ts");
+                if (directoryIndex.isFile(relativeFile)) {
+                    return relativeFile;
+                }
+            }
+            if (languages.contains(Language.JS)) {
+                //直接加.js或者.jsx
+                relativeFile = new File(parentFile.getAbsolutePath() + ".jsx");
+                if (directoryIndex.isFile(relativeFile)) {
+                    return relativeFile;
+                }
+                relativeFile = new File(parentFile.getAbsolutePath() + ".js");
+                if (directoryIndex.isFile(relativeFile)) {
+                    return relativeFile;
+                }
+                //加index.js或者index.jsx
+                relativeFile = new File(parentFile, "index.jsx");
+                if (directoryIndex.isFile(relativeFile)) {
+                    return relativeFile;
+                }
+                relativeFile = new File(parentFile, "index.js");
+                if (directoryIndex.isFile(relativeFile)) {
+                    return relativeFile;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 判断一条import语句中， 是否为项目文件
+     * @param importPath    导入 的模块路径
+     */
+    public boolean isProjectImport(String importPath) {
+        //如果是@开头的，有可能导入node_modules中的文件，也有可能导入项目中的那文件
+        if (importPath.startsWith("@") || importPath.startsWith("$src")) {
+            String[] split = importPath.split("/");
+            split[0] = split[0].substring(1); // 去掉@符号
+            return dfsFileHasProject(srcFileFolder, 1, split);
+        }
+        return importPath.startsWith("./")
+                || importPath.startsWith("../")
+                || importPath.startsWith("/")
+                || importPath.startsWith("src/")
+                || importPath.endsWith(".css")
+                || importPath.endsWith(".less")
+                || importPath.endsWith(".scss");
+    }
+
+    /**
+     * 通过dfs方式寻找是否在根目录下，是否存在路径符合split路径的文件。
+     * eg: file: 是一个项目的根目录
+     * folders: ["src", "components", "CommonCard"]
+     * 那么他会寻找 这个项目根目录开始，是否存在 /src/components/CommonCard/ 这个路径。
+     * @param file          文件寻找的根目录
+     * @param index         folders的下标
+     * @param folders       导入的路径
+     * @return              是否存在符合路径的文件
+     */
+    private boolean dfsFileHasProject(File file, int index, String[] folders) {
+        if (index >= folders.length) {
+            return true;
+        }
+
+        DirectoryIndex.Listing listing = directoryIndex.listing(file);
+        String folder = folders[index];
+        if (index == folders.length - 1) {
+            if (listing.hasFileWithBaseName(folder)) {
+                return true;
+            }
+            return listing.isDirectory(folder)
+                    && null != languageStrategy.createNewChildIndexFile(new File(file, folder), directoryIndex);
+        }
+        if (listing.isDirectory(folder)) {
+            return dfsFileHasProject(new File(file, folder), index + 1, folders);
+        }
+        return false;
+    }
+
+    private File resolveComponentFile(File routeFile, String importPath) {
+
+        File base;
+        if (importPath.startsWith("./") || importPath.startsWith("../")) {
+            File parent = routeFile.getParentFile();
+            base = parent == null ? new File(importPath) : new File(parent, importPath);
+        } else if (importPath.startsWith("/")) {
+            base = new File(projectFileFolder, importPath.substring(1));
+        } else if (importPath.startsWith("src/")) {
+            base = new File(projectFileFolder, importPath);
+        } else if (importPath.startsWith("@/")) {
+            base = new File(srcFileFolder, importPath.substring(2));
+        } else if (importPath.startsWith("$src/")) {
+            base = new File(srcFileFolder, importPath.substring(5));
+        } else if (importPath.startsWith("@")) {
+            String trimmed = importPath.substring(1);
+            if (trimmed.startsWith("/")) {
+                trimmed = trimmed.substring(1);
+            }
+            base = new File(srcFileFolder, trimmed);
+        } else {
+            base = new File(srcFileFolder, importPath);
+        }
+
+        base = base.getAbsoluteFile();
+        File resolved = resolveExistingComponent(base, extensions);
+        if (resolved != null) {
+            return resolved;
+        }
+
+        File parent = base.getParentFile();
+        if (parent != null) {
+            for (String extension : extensions) {
+                File withExtension = new File(parent, base.getName() + extension);
+                resolved = resolveExistingComponent(withExtension, extensions);
+                if (resolved != null) {
+                    return resolved;
+                }
+            }
+        }
+
+        File searched = componentSearch.apply(importPath);
+        if (searched != null) {
+            return searched;
+        }
+
+        if (hasKnownExtension(importPath, extensions)) {
+            return base;
+        }
+
+        for (String extension : extensions) {
+            File indexCandidate = new File(base, "index" + extension);
+            resolved = resolveExistingComponent(indexCandidate, extensions);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+
+        if (!extensions.isEmpty()) {
+            return new File(base, "index" + extensions.get(0));
+        }
+
+        return base;
+    }
+
+    private File resolveExistingComponent(File candidate, List<String> extensions) {
+        if (directoryIndex.exists(candidate)) {
+            if (directoryIndex.isFile(candidate)) {
+                return candidate;
+            }
+            if (directoryIndex.isDirectory(candidate)) {
+                File index = resolveIndexFile(candidate, extensions);
+                if (index != null) {
+                    return index;
+                }
+            }
+        }
+        return null;
+    }
+
+    private File resolveIndexFile(File directory, List<String> extensions) {
+        for (String extension : extensions) {
+            File index = new File(directory, "index" + extension);
+            if (directoryIndex.exists(index)) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasKnownExtension(String importPath, List<String> extensions) {
+        for (String extension : extensions) {
+            if (importPath.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> candidateExtensions(Set<Language> languages) {
+        LinkedHashSet<String> extensions = new LinkedHashSet<>();
+        if (languages.contains(Language.TS)) {
+            extensions.add(".tsx");
+            extensions.add(".ts");
+        }
+        if (languages.contains(Language.JS)) {
+            extensions.add(".jsx");
+            extensions.add(".js");
+        }
+        extensions.add(".mjs");
+        extensions.add(".cjs");
+        return Collections.unmodifiableList(new ArrayList<>(extensions));
+    }
+
+    /**
+     * 缓存key：导入文件所在目录 + 导入路径
+     */
+    private static final class Key {
+        private final String directory;
+        private final String specifier;
+        private final int hash;
+
+        private Key(File directory, String specifier) {
+            this.directory = directory == null ? "" : directory.getPath();
+            this.specifier = specifier;
+            this.hash = 31 * this.directory.hashCode() + specifier.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && directory.equals(key.directory) && specifier.equals(key.specifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package org.wzl.depspider.react.project.resolve;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * tsconfig.json / jsconfig.json 中的路径别名
+ * 读取项目根目录下的 tsconfig.json（不存在时读取 jsconfig.json），沿 extends 链合并 compilerOptions.baseUrl 和 compilerOptions.paths：
+ * <ul>
+ *     <li>extends 可以是相对路径、node_modules 中的包，或者数组（后面的配置覆盖前面的）</li>
+ *     <li>baseUrl 相对于定义它的配置文件所在目录</li>
+ *     <li>paths 整体覆盖，设置了 baseUrl 时相对于 baseUrl，否则相对于定义 paths 的配置文件所在目录</li>
+ * </ul>
+ * 带 * 的别名按 * 之前的前缀编入前缀树，匹配时沿导入路径逐字符向下，取前缀最长的别名，与别名数量无关；
+ * 不带 * 的别名精确匹配，优先于带 * 的别名。
+ * <p>
+ * 加载后不可修改，多个扫描线程可以同时访问。
+ *
+ * @author weizhilong
+ */
+@Slf4j
+public class PathAliases {
+
+    /**
+     * 按顺序查找的配置文件
+     */
+    private static final String[] CONFIG_FILE_NAMES = {"tsconfig.json", "jsconfig.json"};
+
+    /**
+     * 带 * 的别名，按前缀组织
+     */
+    private final TrieNode wildcardRoot = new TrieNode();
+
+    /**
+     * 不带 * 的别名，value 为替换后的路径
+     */
+    private final Map<String, List<String>> exactPatterns = new HashMap<>();
+
+    /**
+     * 合并后的 baseUrl，没有配置时为null
+     */
+    private final File baseUrl;
+
+    /**
+     * 加载时读取的配置文件及其修改时间，不存在的文件记为0
+     */
+    private final Map<File, Long> sources;
+
+    private PathAliases(File baseUrl, Map<File, Long> sources) {
+        this.baseUrl = baseUrl;
+        this.sources = sources;
+    }
+
+    /**
+     * 加载项目的路径别名
+     * 配置文件不存在或格式错误时返回没有任何别名的实例
+     * @param projectFolder 项目根目录
+     * @return              路径别名
+     */
+    public static PathAliases load(File projectFolder) {
+        Map<File, Long> sources = new LinkedHashMap<>();
+        File configFile = null;
+        for (String name : CONFIG_FILE_NAMES) {
+            File candidate = new File(projectFolder, name);
+            sources.put(candidate, candidate.lastModified());
+            if (configFile == null && candidate.isFile()) {
+                configFile = candidate;
+            }
+        }
+        if (configFile == null) {
+            return new PathAliases(null, sources);
+        }
+
+        CompilerOptions options;
+        try {
+            options = readConfig(configFile, new HashSet<>(), sources);
+        } catch (IOException | RuntimeException e) {
+            log.warn("read path aliases fail: {}", configFile.getAbsolutePath(), e);
+            return new PathAliases(null, sources);
+        }
+
+        PathAliases aliases = new PathAliases(options.baseUrl, sources);
+        File pathsBase = options.baseUrl != null ? options.baseUrl : options.pathsDirectory;
+        if (options.paths != null && pathsBase != null) {
+            for (Map.Entry<String, List<String>> entry : options.paths.entrySet()) {
+                aliases.addPattern(entry.getKey(), pathsBase, entry.getValue());
+            }
+        }
+        return aliases;
+    }
+
+    /**
+     * 配置文件是否在加载后发生了变化（包括新建和删除）
+     * @return  变化时返回true
+     */
+    public boolean isStale() {
+        for (Map.Entry<File, Long> entry : sources.entrySet()) {
+            if (entry.getKey().lastModified() != entry.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否没有配置任何别名和 baseUrl
+     */
+    public boolean isEmpty() {
+        return baseUrl == null && exactPatterns.isEmpty() && wildcardRoot.isEmpty();
+    }
+
+    /**
+     * 获取导入路径对应的候选路径，不包含后缀和index补全
+     * 依次为：精确匹配或前缀最长的 * 匹配的所有替换路径，以及 baseUrl 下的同名路径
+     * @param specifier 导入路径，相对路径（./、../、/ 开头）不会匹配
+     * @return          候选路径，按优先级排列
+     */
+    public List<File> candidates(String specifier) {
+        if (specifier == null || specifier.isEmpty() || isEmpty()
+                || specifier.startsWith("./") || specifier.startsWith("../") || specifier.startsWith("/")) {
+            return Collections.emptyList();
+        }
+        List<File> candidates = new ArrayList<>();
+        List<String> exact = exactPatterns.get(specifier);
+        if (exact != null) {
+            for (String target : exact) {
+                candidates.add(new File(target));
+            }
+        } else {
+            Pattern pattern = matchWildcard(specifier);
+            if (pattern != null) {
+                String star = specifier.substring(pattern.prefix.length(), specifier.length() - pattern.suffix.length());
+                for (String target : pattern.targets) {
+                    candidates.add(new File(target.replace("*", star)));
+                }
+            }
+        }
+        if (baseUrl != null) {
+            candidates.add(new File(baseUrl, specifier));
+        }
+        return candidates;
+    }
+
+    private Pattern matchWildcard(String specifier) {
+        Pattern best = bestPattern(wildcardRoot, specifier, 0);
+        TrieNode node = wildcardRoot;
+        for (int i = 0; i < specifier.length(); i++) {
+            node = node.children.get(specifier.charAt(i));
+            if (node == null) {
+                break;
+            }
+            Pattern pattern = bestPattern(node, specifier, i + 1);
+            if (pattern != null) {
+                best = pattern;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 前缀长度为 prefixLength 的别名中，第一个后缀也匹配的别名
+     */
+    private static Pattern bestPattern(TrieNode node, String specifier, int prefixLength) {
+        for (Pattern pattern : node.patterns) {
+            if (specifier.length() >= prefixLength + pattern.suffix.length() && specifier.endsWith(pattern.suffix)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    private void addPattern(String alias, File pathsBase, List<String> targets) {
+        List<String> resolved = new ArrayList<>(targets.size());
+        for (String target : targets) {
+            resolved.add(resolvePath(pathsBase, target).getPath());
+        }
+        int star = alias.indexOf('*');
+        if (star < 0) {
+            exactPatterns.putIfAbsent(alias, resolved);
+            return;
+        }
+        String prefix = alias.substring(0, star);
+        TrieNode node = wildcardRoot;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), c -> new TrieNode());
+        }
+        node.patterns.add(new Pattern(prefix, alias.substring(star + 1), resolved));
+    }
+
+    private static CompilerOptions readConfig(File configFile, Set<File> visiting, Map<File, Long> sources) throws IOException {
+        File canonical = configFile.getCanonicalFile();
+        if (!visiting.add(canonical)) {
+            throw new IllegalStateException("circular extends: " + configFile.getAbsolutePath());
+        }
+        sources.put(configFile, configFile.lastModified());
+        JSONObject config = JSON.parseObject(new String(Files.readAllBytes(configFile.toPath()), StandardCharsets.UTF_8));
+        //保持与项目根目录相同的写法（相对或绝对），解析出的文件才能与扫描到的文件相等
+        File directory = configFile.getParentFile() != null
+                ? configFile.getParentFile()
+                : configFile.getAbsoluteFile().getParentFile();
+
+        CompilerOptions options = new CompilerOptions();
+        Object extendsValue = config == null ? null : config.get("extends");
+        List<String> extendsList = new ArrayList<>();
+        if (extendsValue instanceof String) {
+            extendsList.add((String) extendsValue);
+        } else if (extendsValue instanceof JSONArray) {
+            for (Object item : (JSONArray) extendsValue) {
+                if (item instanceof String) {
+                    extendsList.add((String) item);
+                }
+            }
+        }
+        for (String value : extendsList) {
+            File extended = resolveExtends(value, directory);
+            if (extended == null) {
+                log.warn("extends config not found: {} in {}", value, configFile.getAbsolutePath());
+                continue;
+            }
+            options.override(readConfig(extended, visiting, sources));
+        }
+
+        JSONObject compilerOptions = config == null ? null : config.getJSONObject("compilerOptions");
+        if (compilerOptions != null) {
+            String baseUrl = compilerOptions.getString("baseUrl");
+            if (baseUrl != null) {
+                options.baseUrl = resolvePath(directory, baseUrl);
+            }
+            JSONObject paths = compilerOptions.getJSONObject("paths");
+            if (paths != null) {
+                Map<String, List<String>> aliasPaths = new LinkedHashMap<>();
+                for (Map.Entry<String, Object> entry : paths.entrySet()) {
+                    List<String> targets = new ArrayList<>();
+                    if (entry.getValue() instanceof JSONArray) {
+                        for (Object target : (JSONArray) entry.getValue()) {
+                            if (target instanceof String) {
+                                targets.add((String) target);
+                            }
+                        }
+                    } else if (entry.getValue() instanceof String) {
+                        targets.add((String) entry.getValue());
+                    }
+                    aliasPaths.put(entry.getKey(), targets);
+                }
+                options.paths = aliasPaths;
+                options.pathsDirectory = directory;
+            }
+        }
+        visiting.remove(canonical);
+        return options;
+    }
+
+    private static File resolvePath(File directory, String path) {
+        File file = new File(path).isAbsolute() ? new File(path) : new File(directory, path);
+        return file.toPath().normalize().toFile();
+    }
+
+    /**
+     * 解析 extends 指向的配置文件
+     * @param value     extends 的值
+     * @param directory 当前配置文件所在目录
+     * @return          配置文件，找不到时返回null
+     */
+    private static File resolveExtends(String value, File directory) {
+        if (value.startsWith("./") || value.startsWith("../") || new File(value).isAbsolute()) {
+            File file = new File(value).isAbsolute() ? new File(value) : new File(directory, value);
+            if (file.isFile()) {
+                return file;
+            }
+            File withExtension = new File(file.getPath() + ".json");
+            return withExtension.isFile() ? withExtension : null;
+        }
+        //包名，例如 @tsconfig/recommended/tsconfig.json，从当前目录向上查找 node_modules
+        for (File dir = directory; dir != null; dir = dir.getParentFile()) {
+            File file = new File(new File(dir, "node_modules"), value);
+            if (file.isFile()) {
+                return file;
+            }
+            File withExtension = new File(file.getPath() + ".json");
+            if (withExtension.isFile()) {
+                return withExtension;
+            }
+            File packageConfig = new File(file, "tsconfig.json");
+            if (packageConfig.isFile()) {
+                return packageConfig;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * extends 链合并后的 compilerOptions
+     */
+    private static class CompilerOptions {
+        private File baseUrl;
+        private Map<String, List<String>> paths;
+
+        /**
+         * 定义 paths 的配置文件所在目录，没有 baseUrl 时 paths 相对于该目录
+         */
+        private File pathsDirectory;
+
+        private void override(CompilerOptions other) {
+            if (other.baseUrl != null) {
+                baseUrl = other.baseUrl;
+            }
+            if (other.paths != null) {
+                paths = other.paths;
+                pathsDirectory = other.pathsDirectory;
+            }
+        }
+    }
+
+    private static class Pattern {
+        private final String prefix;
+        private final String suffix;
+        private final List<String> targets;
+
+        private Pattern(String prefix, String suffix, List<String> targets) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.targets = targets;
+        }
+    }
+
+    private static class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private final List<Pattern> patterns = new ArrayList<>(1);
+
+        private boolean isEmpty() {
+            return children.isEmpty() && patterns.isEmpty();
+        }
+    }
+}
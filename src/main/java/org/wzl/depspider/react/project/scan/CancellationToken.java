@@ -0,0 +1,68 @@
+package org.wzl.depspider.react.project.scan;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 扫描取消令牌
+ * 可以由其他线程调用 {@link #cancel()} 取消扫描，也可以设置截止时间，到期后视为已取消。
+ * 扫描在处理每个文件之前检查令牌，取消后正在处理的文件完成后即停止，并抛出
+ * {@link org.wzl.depspider.react.exception.ScanCancelledException}。
+ *
+ * @author weizhilong
+ */
+public final class CancellationToken {
+
+    /**
+     * 没有截止时间
+     */
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long deadlineNanos;
+
+    private volatile boolean cancelled;
+
+    private CancellationToken(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 创建没有截止时间的令牌，只能通过 {@link #cancel()} 取消
+     */
+    public static CancellationToken create() {
+        return new CancellationToken(NO_DEADLINE);
+    }
+
+    /**
+     * 创建在指定时间后到期的令牌
+     * @param timeout   超时时间，小于等于0时没有截止时间
+     * @param unit      时间单位
+     * @return          令牌
+     */
+    public static CancellationToken withTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            return create();
+        }
+        return new CancellationToken(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * 取消扫描
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 是否已经取消，或者已经超过截止时间
+     */
+    public boolean isCancelled() {
+        return cancelled || isExpired();
+    }
+
+    /**
+     * 是否因为超过截止时间而取消
+     */
+    public boolean isExpired() {
+        return deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0;
+    }
+}
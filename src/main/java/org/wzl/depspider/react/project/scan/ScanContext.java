@@ -0,0 +1,106 @@
+package org.wzl.depspider.react.project.scan;
+
+import org.wzl.depspider.ast.jsx.tokenizer.SymbolTable;
+import org.wzl.depspider.react.exception.ScanCancelledException;
+
+import java.io.File;
+
+/**
+ * 一次扫描操作的上下文
+ * 在扫描的各个步骤之间传递统计信息、进度监听器、取消令牌和符号表，可以在多个扫描线程中同时使用。
+ *
+ * @author weizhilong
+ */
+public class ScanContext {
+
+    private final ScanStatistics statistics;
+
+    private final ScanListener listener;
+
+    private final CancellationToken cancellationToken;
+
+    private final ScanProgress progress = new ScanProgress();
+
+    /**
+     * 导入路径和导入名的符号表
+     */
+    private final SymbolTable symbols;
+
+    /**
+     * @param statistics        统计信息
+     * @param listener          进度监听器，为null时不报告进度
+     * @param cancellationToken 取消令牌，为null时不能取消
+     */
+    public ScanContext(ScanStatistics statistics, ScanListener listener, CancellationToken cancellationToken) {
+        this(statistics, listener, cancellationToken, null);
+    }
+
+    /**
+     * @param statistics        统计信息
+     * @param listener          进度监听器，为null时不报告进度
+     * @param cancellationToken 取消令牌，为null时不能取消
+     * @param symbols           符号表，可以在多次扫描之间共享，为null时只在本次扫描中使用一份新的符号表
+     */
+    public ScanContext(ScanStatistics statistics, ScanListener listener, CancellationToken cancellationToken,
+                       SymbolTable symbols) {
+        this.statistics = statistics;
+        this.symbols = symbols == null ? new SymbolTable() : symbols;
+        this.listener = listener == null ? ScanListener.NONE : listener;
+        this.cancellationToken = cancellationToken == null ? CancellationToken.create() : cancellationToken;
+    }
+
+    public ScanStatistics getStatistics() {
+        return statistics;
+    }
+
+    public ScanProgress getProgress() {
+        return progress;
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * 扫描已经取消或超过截止时间时抛出异常，异常中带有当前进度
+     */
+    public void checkCancelled() {
+        if (cancellationToken.isCancelled()) {
+            throw new ScanCancelledException(cancellationToken.isExpired()
+                    ? "scan deadline exceeded: " + progress
+                    : "scan cancelled: " + progress, progress);
+        }
+    }
+
+    /**
+     * 记录列出目录时发现的文件
+     * @param count 文件数量
+     */
+    public void discovered(int count) {
+        progress.addDiscovered(count);
+        listener.onDiscovered(progress);
+    }
+
+    /**
+     * 记录解析成功的文件
+     */
+    public void parsed(File file) {
+        progress.addParsed();
+        listener.onFileParsed(file, progress);
+    }
+
+    /**
+     * 记录解析失败的文件
+     */
+    public void failed(File file, Throwable error) {
+        progress.addFailed();
+        listener.onFileFailed(file, error, progress);
+    }
+
+    /**
+     * 扫描结束，包括被取消的情况
+     */
+    public void finish() {
+        listener.onFinished(progress);
+    }
+}
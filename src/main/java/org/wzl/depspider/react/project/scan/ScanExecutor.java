@@ -0,0 +1,165 @@
+package org.wzl.depspider.react.project.scan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 项目扫描执行器
+ * 将已经列出的文件交给fork-join线程池并行处理，结果顺序与输入顺序保持一致。
+ * 线程池在第一次并行执行时创建，之后的每次调用（每一层路由、每一批增量更新）都复用同一个线程池，
+ * 工作线程是守护线程，空闲一段时间后自动退出。
+ *
+ * @author weizhilong
+ */
+public class ScanExecutor {
+
+    /**
+     * 每个线程期望分到的任务块数量，块越多负载越均衡
+     */
+    private static final int CHUNKS_PER_THREAD = 8;
+
+    /**
+     * 流式处理时每个线程每批处理的元素数量，决定同时驻留在内存中的结果数量
+     */
+    private static final int STREAM_BATCH_PER_THREAD = 64;
+
+    /**
+     * 并行度
+     */
+    private final int parallelism;
+
+    /**
+     * 并行执行使用的线程池，按需创建
+     */
+    private volatile ForkJoinPool pool;
+
+    public ScanExecutor(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * 是否以并行方式执行
+     * @return  并行度大于1时返回true
+     */
+    public boolean isParallel() {
+        return parallelism > 1;
+    }
+
+    /**
+     * 对每个元素执行mapper，返回与items下标一一对应的结果
+     * @param items     待处理的元素
+     * @param mapper    处理函数，并行模式下会被多个线程同时调用
+     * @param <T>       元素类型
+     * @param <R>       结果类型
+     * @return          处理结果，顺序与items一致
+     */
+    public <T, R> List<R> map(List<T> items, Function<T, R> mapper) {
+        if (!isParallel() || items.size() < 2) {
+            List<R> results = new ArrayList<>(items.size());
+            for (T item : items) {
+                results.add(mapper.apply(item));
+            }
+            return results;
+        }
+
+        Object[] results = new Object[items.size()];
+        int granularity = Math.max(1, items.size() / (parallelism * CHUNKS_PER_THREAD));
+        pool().invoke(new MapAction<>(items, mapper, results, 0, items.size(), granularity));
+
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) Arrays.asList(results);
+        return new ArrayList<>(list);
+    }
+
+    /**
+     * 分批对每个元素执行mapper，并按items的顺序把结果交给consumer
+     * 每批结果交出后即被丢弃，内存中最多只保留一批结果，适合结果需要直接写出、不需要整体保留的场景
+     * @param items     待处理的元素
+     * @param mapper    处理函数，并行模式下会被多个线程同时调用
+     * @param consumer  结果消费者，只在调用线程中按顺序调用
+     * @param <T>       元素类型
+     * @param <R>       结果类型
+     */
+    public <T, R> void forEachOrdered(List<T> items, Function<T, R> mapper, Consumer<? super R> consumer) {
+        if (!isParallel() || items.size() < 2) {
+            for (T item : items) {
+                consumer.accept(mapper.apply(item));
+            }
+            return;
+        }
+
+        int batchSize = parallelism * STREAM_BATCH_PER_THREAD;
+        Object[] results = new Object[Math.min(batchSize, items.size())];
+        int granularity = Math.max(1, results.length / (parallelism * CHUNKS_PER_THREAD));
+        ForkJoinPool pool = pool();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            List<T> batch = items.subList(from, Math.min(items.size(), from + batchSize));
+            pool.invoke(new MapAction<>(batch, mapper, results, 0, batch.size(), granularity));
+            for (int i = 0; i < batch.size(); i++) {
+                @SuppressWarnings("unchecked")
+                R result = (R) results[i];
+                results[i] = null;
+                consumer.accept(result);
+            }
+        }
+    }
+
+    /**
+     * 获取线程池，第一次调用时创建
+     */
+    private ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            synchronized (this) {
+                current = pool;
+                if (current == null) {
+                    current = new ForkJoinPool(parallelism);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 按下标区间二分的fork-join任务
+     */
+    private static class MapAction<T, R> extends RecursiveAction {
+
+        private final List<T> items;
+        private final Function<T, R> mapper;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+        private final int granularity;
+
+        MapAction(List<T> items, Function<T, R> mapper, Object[] results, int from, int to, int granularity) {
+            this.items = items;
+            this.mapper = mapper;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.granularity = granularity;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= granularity) {
+                for (int i = from; i < to; i++) {
+                    results[i] = mapper.apply(items.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new MapAction<>(items, mapper, results, from, middle, granularity),
+                    new MapAction<>(items, mapper, results, middle, to, granularity)
+            );
+        }
+    }
+}
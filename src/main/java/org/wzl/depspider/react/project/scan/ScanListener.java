@@ -0,0 +1,51 @@
+package org.wzl.depspider.react.project.scan;
+
+import java.io.File;
+
+/**
+ * 扫描进度监听器
+ * 完整扫描、增量更新和流式扫描过程中报告发现、解析成功和解析失败的文件数量。
+ * 并行扫描时除 {@link #onDiscovered(ScanProgress)} 和 {@link #onFinished(ScanProgress)} 外的回调会在多个线程中同时调用，
+ * 实现需要是线程安全的，并且应该尽快返回。
+ *
+ * @author weizhilong
+ */
+public interface ScanListener {
+
+    /**
+     * 不做任何事的监听器
+     */
+    ScanListener NONE = new ScanListener() {
+    };
+
+    /**
+     * 列出目录后调用
+     * @param progress  当前进度，发现的文件数已经更新
+     */
+    default void onDiscovered(ScanProgress progress) {
+    }
+
+    /**
+     * 一个文件解析完成后调用
+     * @param file      文件
+     * @param progress  当前进度
+     */
+    default void onFileParsed(File file, ScanProgress progress) {
+    }
+
+    /**
+     * 一个文件解析失败后调用，失败的文件按没有任何import处理，扫描继续进行
+     * @param file      文件
+     * @param error     失败原因
+     * @param progress  当前进度
+     */
+    default void onFileFailed(File file, Throwable error, ScanProgress progress) {
+    }
+
+    /**
+     * 扫描结束后调用，包括被取消或超时的情况
+     * @param progress  最终进度
+     */
+    default void onFinished(ScanProgress progress) {
+    }
+}
@@ -0,0 +1,30 @@
+package org.wzl.depspider.react.project.scan;
+
+/**
+ * 扫描阶段
+ *
+ * @author weizhilong
+ */
+public enum ScanPhase {
+
+    /**
+     * 遍历目录，列出需要扫描的文件
+     */
+    LIST,
+
+    /**
+     * 读取文件并进行词法、语法分析，提取import记录
+     * 词法分析由语法分析按需驱动，两者交织进行，因此合并为一个阶段，词法分析的工作量通过token数量体现
+     */
+    PARSE,
+
+    /**
+     * 将导入路径解析为项目中的文件
+     */
+    RESOLVE,
+
+    /**
+     * 分析路由文件，提取页面路由定义并解析路由组件
+     */
+    ROUTE
+}
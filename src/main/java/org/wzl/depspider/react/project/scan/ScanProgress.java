@@ -0,0 +1,56 @@
+package org.wzl.depspider.react.project.scan;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 扫描进度
+ * 扫描过程中可以被多个线程同时更新和读取，扫描结束后不再变化。
+ *
+ * @author weizhilong
+ */
+public class ScanProgress {
+
+    private final AtomicInteger discovered = new AtomicInteger();
+
+    private final AtomicInteger parsed = new AtomicInteger();
+
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * 列出目录时发现的文件数量
+     */
+    public int getDiscovered() {
+        return discovered.get();
+    }
+
+    /**
+     * 解析成功的文件数量，包括命中解析缓存的文件
+     */
+    public int getParsed() {
+        return parsed.get();
+    }
+
+    /**
+     * 解析失败的文件数量
+     */
+    public int getFailed() {
+        return failed.get();
+    }
+
+    void addDiscovered(int count) {
+        discovered.addAndGet(count);
+    }
+
+    void addParsed() {
+        parsed.incrementAndGet();
+    }
+
+    void addFailed() {
+        failed.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "ScanProgress{discovered=" + getDiscovered() + ", parsed=" + getParsed() + ", failed=" + getFailed() + "}";
+    }
+}
@@ -0,0 +1,391 @@
+package org.wzl.depspider.react.project.scan;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一次扫描操作的统计信息
+ * 按阶段记录墙钟时间、CPU时间、处理的文件数、字节数和token数，
+ * 以及导入路径解析缓存的命中情况、文件系统调用次数和耗时最长的若干个文件。
+ * <p>
+ * 阶段的墙钟时间在发起扫描的线程中测量；CPU时间是该阶段所有任务在各个线程中消耗的CPU时间之和，
+ * 并行扫描时CPU时间可能大于墙钟时间。JVM不支持线程CPU时间时CPU时间为0。
+ * <p>
+ * 扫描过程中可以被多个线程同时记录，扫描结束后不再变化。
+ *
+ * @author weizhilong
+ */
+public class ScanStatistics {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private static final boolean CPU_TIME_SUPPORTED = isCpuTimeSupported();
+
+    private final Map<ScanPhase, PhaseStatistics> phases = new EnumMap<>(ScanPhase.class);
+
+    private final LongAdder resolveCacheHits = new LongAdder();
+
+    private final LongAdder resolveCacheMisses = new LongAdder();
+
+    private final LongAdder parseCacheHits = new LongAdder();
+
+    private final LongAdder parseCacheMisses = new LongAdder();
+
+    private final LongAdder statCalls = new LongAdder();
+
+    /**
+     * 保留的最慢文件数量
+     */
+    private final int slowestFileLimit;
+
+    /**
+     * 耗时最长的文件，堆顶为其中最快的一个，访问时需要对其加锁
+     */
+    private final PriorityQueue<FileTiming> slowestFiles;
+
+    private final long startNanos = System.nanoTime();
+
+    private volatile long wallNanos = -1;
+
+    /**
+     * @param slowestFileLimit  保留的最慢文件数量
+     */
+    public ScanStatistics(int slowestFileLimit) {
+        this.slowestFileLimit = Math.max(0, slowestFileLimit);
+        this.slowestFiles = new PriorityQueue<>(Math.max(1, this.slowestFileLimit),
+                Comparator.comparingLong(FileTiming::getNanos));
+        for (ScanPhase phase : ScanPhase.values()) {
+            phases.put(phase, new PhaseStatistics(phase));
+        }
+    }
+
+    /**
+     * 记录阶段在发起扫描的线程中经过的墙钟时间
+     * @param phase     阶段
+     * @param stopwatch 阶段开始时启动的计时器
+     */
+    public void recordPhase(ScanPhase phase, Stopwatch stopwatch) {
+        phases.get(phase).wallNanos.add(stopwatch.elapsedNanos());
+    }
+
+    /**
+     * 记录在阶段中执行的一个任务消耗的CPU时间，需要在执行任务的线程中调用
+     * @param phase     阶段
+     * @param stopwatch 任务开始时在同一线程中启动的计时器
+     */
+    public void recordTask(ScanPhase phase, Stopwatch stopwatch) {
+        phases.get(phase).cpuNanos.add(stopwatch.cpuNanos());
+    }
+
+    /**
+     * 记录在阶段中处理的一个文件，需要在处理文件的线程中调用
+     * @param phase     阶段
+     * @param file      文件
+     * @param stopwatch 开始处理文件时在同一线程中启动的计时器
+     * @param bytes     读取的字节数
+     * @param tokens    产生的token数
+     */
+    public void recordFile(ScanPhase phase, File file, Stopwatch stopwatch, long bytes, long tokens) {
+        long nanos = stopwatch.elapsedNanos();
+        PhaseStatistics statistics = phases.get(phase);
+        statistics.cpuNanos.add(stopwatch.cpuNanos());
+        statistics.files.increment();
+        statistics.bytes.add(bytes);
+        statistics.tokens.add(tokens);
+        if (slowestFileLimit == 0) {
+            return;
+        }
+        synchronized (slowestFiles) {
+            if (slowestFiles.size() < slowestFileLimit) {
+                slowestFiles.add(new FileTiming(file, phase, nanos));
+            } else if (slowestFiles.peek().getNanos() < nanos) {
+                slowestFiles.poll();
+                slowestFiles.add(new FileTiming(file, phase, nanos));
+            }
+        }
+    }
+
+    /**
+     * 记录阶段中处理的文件数量，用于不逐个计时的阶段，例如列出目录
+     */
+    public void addFiles(ScanPhase phase, long files) {
+        phases.get(phase).files.add(files);
+    }
+
+    public void addResolveCache(long hits, long misses) {
+        resolveCacheHits.add(hits);
+        resolveCacheMisses.add(misses);
+    }
+
+    public void addParseCacheHit() {
+        parseCacheHits.increment();
+    }
+
+    public void addParseCacheMiss() {
+        parseCacheMisses.increment();
+    }
+
+    public void addStatCalls(long calls) {
+        statCalls.add(calls);
+    }
+
+    /**
+     * 结束统计，记录整个操作的墙钟时间
+     */
+    public void finish() {
+        wallNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 阶段的统计信息
+     * @param phase 阶段
+     * @return      统计信息，阶段没有执行时各项均为0
+     */
+    public PhaseStatistics getPhase(ScanPhase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * 整个操作的墙钟时间（纳秒），操作尚未结束时为到目前为止经过的时间
+     */
+    public long getWallNanos() {
+        long nanos = wallNanos;
+        return nanos >= 0 ? nanos : System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 所有阶段的CPU时间之和（纳秒）
+     */
+    public long getCpuNanos() {
+        long total = 0;
+        for (PhaseStatistics phase : phases.values()) {
+            total += phase.getCpuNanos();
+        }
+        return total;
+    }
+
+    /**
+     * 导入路径解析缓存的命中次数
+     */
+    public long getResolveCacheHits() {
+        return resolveCacheHits.sum();
+    }
+
+    /**
+     * 导入路径解析缓存的未命中次数，即实际查找文件的次数
+     */
+    public long getResolveCacheMisses() {
+        return resolveCacheMisses.sum();
+    }
+
+    /**
+     * 持久化解析缓存的命中次数，未启用解析缓存时为0
+     */
+    public long getParseCacheHits() {
+        return parseCacheHits.sum();
+    }
+
+    /**
+     * 持久化解析缓存的未命中次数，未启用解析缓存时为0
+     */
+    public long getParseCacheMisses() {
+        return parseCacheMisses.sum();
+    }
+
+    /**
+     * 访问文件系统元数据的次数：列出目录、读取修改时间、判断文件类型以及读取文件戳
+     */
+    public long getStatCalls() {
+        return statCalls.sum();
+    }
+
+    /**
+     * 耗时最长的文件
+     * @return  按耗时从长到短排列
+     */
+    public List<FileTiming> getSlowestFiles() {
+        List<FileTiming> result;
+        synchronized (slowestFiles) {
+            result = new ArrayList<>(slowestFiles);
+        }
+        result.sort(Comparator.comparingLong(FileTiming::getNanos).reversed());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ScanStatistics{wall=")
+                .append(millis(getWallNanos())).append("ms");
+        for (PhaseStatistics phase : phases.values()) {
+            builder.append(", ").append(phase);
+        }
+        return builder.append(", resolveCacheHits=").append(getResolveCacheHits())
+                .append(", resolveCacheMisses=").append(getResolveCacheMisses())
+                .append(", parseCacheHits=").append(getParseCacheHits())
+                .append(", parseCacheMisses=").append(getParseCacheMisses())
+                .append(", statCalls=").append(getStatCalls())
+                .append(", slowestFiles=").append(getSlowestFiles())
+                .append('}')
+                .toString();
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static boolean isCpuTimeSupported() {
+        try {
+            return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 单个阶段的统计信息
+     */
+    public static final class PhaseStatistics {
+
+        private final ScanPhase phase;
+
+        private final LongAdder wallNanos = new LongAdder();
+
+        private final LongAdder cpuNanos = new LongAdder();
+
+        private final LongAdder files = new LongAdder();
+
+        private final LongAdder bytes = new LongAdder();
+
+        private final LongAdder tokens = new LongAdder();
+
+        private PhaseStatistics(ScanPhase phase) {
+            this.phase = phase;
+        }
+
+        public ScanPhase getPhase() {
+            return phase;
+        }
+
+        /**
+         * 阶段在发起扫描的线程中经过的墙钟时间（纳秒）
+         */
+        public long getWallNanos() {
+            return wallNanos.sum();
+        }
+
+        /**
+         * 阶段中所有任务消耗的CPU时间之和（纳秒）
+         */
+        public long getCpuNanos() {
+            return cpuNanos.sum();
+        }
+
+        /**
+         * 处理的文件数量
+         */
+        public long getFiles() {
+            return files.sum();
+        }
+
+        /**
+         * 读取的字节数，只解析import时只统计实际分析到的部分
+         */
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        /**
+         * 产生的token数量
+         */
+        public long getTokens() {
+            return tokens.sum();
+        }
+
+        @Override
+        public String toString() {
+            return phase + "{wall=" + millis(getWallNanos()) + "ms, cpu=" + millis(getCpuNanos())
+                    + "ms, files=" + getFiles() + ", bytes=" + getBytes() + ", tokens=" + getTokens() + "}";
+        }
+    }
+
+    /**
+     * 单个文件在某个阶段的耗时
+     */
+    public static final class FileTiming {
+
+        private final File file;
+
+        private final ScanPhase phase;
+
+        private final long nanos;
+
+        private FileTiming(File file, ScanPhase phase, long nanos) {
+            this.file = file;
+            this.phase = phase;
+            this.nanos = nanos;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public ScanPhase getPhase() {
+            return phase;
+        }
+
+        /**
+         * 墙钟时间（纳秒）
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return file.getPath() + "(" + phase + ", " + millis(nanos) + "ms)";
+        }
+    }
+
+    /**
+     * 计时器，同时记录墙钟时间和当前线程的CPU时间
+     */
+    public static final class Stopwatch {
+
+        private final long startNanos;
+
+        private final long startCpuNanos;
+
+        private Stopwatch() {
+            this.startNanos = System.nanoTime();
+            this.startCpuNanos = currentCpuNanos();
+        }
+
+        public static Stopwatch start() {
+            return new Stopwatch();
+        }
+
+        public long elapsedNanos() {
+            return System.nanoTime() - startNanos;
+        }
+
+        /**
+         * 启动以来当前线程消耗的CPU时间，需要在启动计时器的线程中调用
+         */
+        public long cpuNanos() {
+            return CPU_TIME_SUPPORTED ? Math.max(0, currentCpuNanos() - startCpuNanos) : 0;
+        }
+
+        private static long currentCpuNanos() {
+            return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+        }
+    }
+}
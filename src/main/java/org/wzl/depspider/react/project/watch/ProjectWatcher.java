@@ -0,0 +1,402 @@
+package org.wzl.depspider.react.project.watch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.wzl.depspider.react.project.IReactProjectOperator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 项目文件监听器
+ * 优先使用 {@link WatchService} 监听目录变化，不支持时退化为定时轮询。
+ * 短时间内的多次变化会被合并（debounce）为一次 {@link IReactProjectOperator#update} 调用，
+ * 使内存中的项目快照始终与磁盘保持一致。
+ * 除根目录外还可以监听单独的文件，例如项目根目录下的 package.json、tsconfig.json。
+ * 应用变化失败时（包括扫描超时被取消）会在稍后进行一次完整扫描，快照不会与磁盘长期不一致。
+ *
+ * @author weizhilong
+ */
+@Slf4j
+public class ProjectWatcher implements Closeable {
+
+    private final IReactProjectOperator operator;
+
+    /**
+     * 监听的根目录
+     */
+    private final List<Path> roots;
+
+    /**
+     * 单独监听的文件，所在目录不会被递归监听
+     */
+    private final Set<Path> files;
+
+    /**
+     * 应用变化失败后重试的最小间隔
+     */
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    /**
+     * 合并变化的静默时间，在该时间内没有新的变化才会触发更新
+     */
+    private final long debounceMillis;
+
+    /**
+     * 轮询间隔
+     */
+    private final long pollingIntervalMillis;
+
+    /**
+     * 等待合并的变化路径，触发更新时根据文件是否存在区分修改和删除
+     */
+    private final Set<Path> pendingPaths = new LinkedHashSet<>();
+
+    /**
+     * 是否需要完整扫描，WatchService事件溢出时置为true
+     */
+    private boolean pendingRefresh = false;
+
+    private final ScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> pendingFlush;
+
+    private volatile WatchService watchService;
+
+    private Thread watchThread;
+
+    /**
+     * 轮询模式下上一次看到的文件状态，value为 修改时间 ^ 文件大小
+     */
+    private Map<Path, Long> pollingSnapshot;
+
+    private volatile boolean closed = false;
+
+    /**
+     * 构造并启动监听
+     * @param operator              项目操作类，变化会通过 update 应用到它的项目快照
+     * @param roots                 监听的根目录
+     * @param debounceMillis        合并变化的静默时间
+     * @param pollingIntervalMillis 轮询间隔
+     * @param forcePolling          是否强制使用轮询
+     */
+    public ProjectWatcher(IReactProjectOperator operator,
+                          List<File> roots,
+                          long debounceMillis,
+                          long pollingIntervalMillis,
+                          boolean forcePolling) {
+        this(operator, roots, Collections.<File>emptyList(), debounceMillis, pollingIntervalMillis, forcePolling);
+    }
+
+    /**
+     * 构造并启动监听
+     * @param operator              项目操作类，变化会通过 update 应用到它的项目快照
+     * @param roots                 监听的根目录
+     * @param files                 单独监听的文件，可以不存在
+     * @param debounceMillis        合并变化的静默时间
+     * @param pollingIntervalMillis 轮询间隔
+     * @param forcePolling          是否强制使用轮询
+     */
+    public ProjectWatcher(IReactProjectOperator operator,
+                          List<File> roots,
+                          List<File> files,
+                          long debounceMillis,
+                          long pollingIntervalMillis,
+                          boolean forcePolling) {
+        this.operator = operator;
+        this.roots = new ArrayList<>();
+        for (File root : roots) {
+            this.roots.add(root.getAbsoluteFile().toPath().normalize());
+        }
+        this.files = new LinkedHashSet<>();
+        for (File file : files) {
+            this.files.add(file.getAbsoluteFile().toPath().normalize());
+        }
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.pollingIntervalMillis = Math.max(10, pollingIntervalMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "depspider-watch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        //保证监听开始前已经存在完整的项目快照
+        operator.update(Collections.<Path>emptyList(), Collections.<Path>emptyList());
+
+        if (forcePolling || !startWatchService()) {
+            startPolling();
+        }
+    }
+
+    /**
+     * 是否正在使用轮询模式
+     * @return  轮询模式返回true
+     */
+    public boolean isPolling() {
+        return watchService == null;
+    }
+
+    private boolean startWatchService() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path root : roots) {
+                registerRecursively(watchService, root);
+            }
+            for (Path directory : fileDirectories()) {
+                directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            log.info("WatchService不可用，使用轮询模式监听项目文件: {}", e.getMessage());
+            closeWatchService();
+            return false;
+        }
+        WatchService service = watchService;
+        watchThread = new Thread(() -> watchLoop(service), "depspider-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        return true;
+    }
+
+    private void registerRecursively(WatchService service, Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(service,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watchLoop(WatchService service) {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    requestRefresh();
+                    continue;
+                }
+                Path changed = dir.resolve((Path) event.context());
+                if (!isUnderRoot(changed) && !files.contains(changed)) {
+                    //单独监听的文件所在目录中的其他文件
+                    continue;
+                }
+                if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY && Files.isDirectory(changed)) {
+                    //目录的修改事件只代表其子文件变化，子文件本身会有单独的事件
+                    continue;
+                }
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) {
+                    try {
+                        registerRecursively(service, changed);
+                    } catch (IOException | ClosedWatchServiceException e) {
+                        log.warn("监听新目录失败: {}", changed, e);
+                    }
+                }
+                onChange(changed);
+            }
+            key.reset();
+        }
+    }
+
+    /**
+     * 单独监听的文件所在的、不在根目录下的目录
+     */
+    private Set<Path> fileDirectories() {
+        Set<Path> directories = new LinkedHashSet<>();
+        for (Path file : files) {
+            Path parent = file.getParent();
+            if (parent != null && !isUnderRoot(file) && Files.isDirectory(parent)) {
+                directories.add(parent);
+            }
+        }
+        return directories;
+    }
+
+    private boolean isUnderRoot(Path path) {
+        for (Path root : roots) {
+            if (path.startsWith(root)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startPolling() {
+        pollingSnapshot = snapshotFiles();
+        scheduler.scheduleWithFixedDelay(this::poll, pollingIntervalMillis, pollingIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        try {
+            Map<Path, Long> current = snapshotFiles();
+            for (Map.Entry<Path, Long> entry : current.entrySet()) {
+                Long previous = pollingSnapshot.get(entry.getKey());
+                if (previous == null || !previous.equals(entry.getValue())) {
+                    onChange(entry.getKey());
+                }
+            }
+            for (Path path : pollingSnapshot.keySet()) {
+                if (!current.containsKey(path)) {
+                    onChange(path);
+                }
+            }
+            pollingSnapshot = current;
+        } catch (RuntimeException e) {
+            log.warn("轮询项目文件失败", e);
+        }
+    }
+
+    private Map<Path, Long> snapshotFiles() {
+        Map<Path, Long> snapshot = new HashMap<>();
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        snapshot.put(file, attrs.lastModifiedTime().toMillis() ^ attrs.size());
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                log.warn("遍历项目文件失败: {}", root, e);
+            }
+        }
+        for (Path file : files) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                snapshot.put(file, attrs.lastModifiedTime().toMillis() ^ attrs.size());
+            } catch (IOException e) {
+                //文件不存在
+            }
+        }
+        return snapshot;
+    }
+
+    private synchronized void onChange(Path path) {
+        if (closed) {
+            return;
+        }
+        pendingPaths.add(path);
+        scheduleFlush();
+    }
+
+    private synchronized void requestRefresh() {
+        if (closed) {
+            return;
+        }
+        pendingRefresh = true;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        scheduleFlush(debounceMillis);
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+        }
+        pendingFlush = scheduler.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        List<Path> changed = new ArrayList<>();
+        List<Path> deleted = new ArrayList<>();
+        boolean refresh;
+        synchronized (this) {
+            refresh = pendingRefresh;
+            pendingRefresh = false;
+            for (Path path : pendingPaths) {
+                if (Files.exists(path)) {
+                    changed.add(path);
+                } else {
+                    deleted.add(path);
+                }
+            }
+            pendingPaths.clear();
+            pendingFlush = null;
+        }
+        try {
+            if (refresh) {
+                operator.refresh();
+            } else if (!changed.isEmpty() || !deleted.isEmpty()) {
+                operator.update(changed, deleted);
+            }
+        } catch (RuntimeException e) {
+            //这一批变化可能只应用了一部分，稍后通过完整扫描恢复一致
+            log.warn("应用项目文件变化失败，稍后重新扫描项目", e);
+            synchronized (this) {
+                if (!closed) {
+                    pendingRefresh = true;
+                    scheduleFlush(Math.max(debounceMillis, RETRY_DELAY_MILLIS));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        closeWatchService();
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+    }
+
+    private void closeWatchService() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("关闭WatchService失败", e);
+        }
+        watchService = null;
+    }
+}
@@ -0,0 +1,61 @@
+package org.wzl.depspider.ast.core.tokenizer;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class ReaderCharSourceTest {
+
+    @Test
+    public void slidingWindowMatchesString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("line ").append(i).append("\r\n");
+        }
+        String code = sb.toString();
+        ReaderCharSource source = new ReaderCharSource(new StringReader(code), 16);
+        for (int i = 0; i < code.length(); i += 7) {
+            source.release(i);
+            assertEquals(code.charAt(i), source.charAt(i));
+            int end = Math.min(code.length(), i + 5);
+            assertEquals(code.substring(i, end), source.substring(i, end));
+        }
+        assertTrue(source.isEnd(code.length()));
+        assertEquals('\0', source.charAt(code.length()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void releasedCharsCannotBeRead() {
+        ReaderCharSource source = new ReaderCharSource(new StringReader(repeat('a', 100)), 16);
+        source.charAt(50);
+        source.release(50);
+        source.charAt(99);
+        source.charAt(0);
+    }
+
+    @Test
+    public void byteOffsetCountsUtf8Bytes() {
+        String code = "a\u4e2d\ud83d\ude00b\r\n";
+        CharSource source = new ReaderCharSource(new StringReader(code));
+        for (int i = 0; i <= code.length(); i++) {
+            if (i == 3) {
+                //代理对中间不是合法的字符边界
+                continue;
+            }
+            long expected = code.substring(0, i).getBytes(StandardCharsets.UTF_8).length;
+            assertEquals(expected, source.byteOffset(i));
+        }
+        assertEquals(1, source.byteOffset(1));
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
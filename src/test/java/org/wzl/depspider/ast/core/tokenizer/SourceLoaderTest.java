@@ -0,0 +1,113 @@
+package org.wzl.depspider.ast.core.tokenizer;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SourceLoaderTest {
+
+    @Test
+    public void bomIsSkippedAndByteOffsetsStartAfterIt() throws IOException {
+        String code = "import a from './a';\r\n";
+        byte[] body = code.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[body.length + 3];
+        bytes[0] = (byte) 0xEF;
+        bytes[1] = (byte) 0xBB;
+        bytes[2] = (byte) 0xBF;
+        System.arraycopy(body, 0, bytes, 3, body.length);
+        File file = write(bytes);
+
+        assertEquals(code, SourceLoader.readString(file));
+        try (CharSource source = SourceLoader.open(file)) {
+            assertEquals('i', source.charAt(0));
+            assertEquals(3, source.byteOffset(0));
+            assertEquals(code, source.substring(0, code.length()));
+            assertTrue(source.isEnd(code.length()));
+        }
+    }
+
+    @Test
+    public void largeFileIsDecodedCompletely() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() <= SourceLoader.POOLED_BUFFER_SIZE * 2) {
+            sb.append("const \u7ec4\u4ef6 = '\ud83d\ude00';\n");
+        }
+        String code = sb.toString();
+        File file = write(code.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(code, SourceLoader.readString(file));
+        try (CharSource source = SourceLoader.open(file)) {
+            StringBuilder read = new StringBuilder();
+            for (int i = 0; !source.isEnd(i); i++) {
+                read.append(source.charAt(i));
+                source.release(i);
+            }
+            assertEquals(code, read.toString());
+            assertEquals(code.getBytes(StandardCharsets.UTF_8).length, source.byteOffset(code.length()));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void largeFileEndingInTruncatedCharacterIsReplaced() throws IOException {
+        //写到一半的文件末尾可能只有半个多字节字符
+        int length = SourceLoader.POOLED_BUFFER_SIZE + 34464;
+        byte[] bytes = new byte[length + 2];
+        Arrays.fill(bytes, 0, length, (byte) 'a');
+        bytes[length] = (byte) 0xE4;
+        bytes[length + 1] = (byte) 0xB8;
+        File file = write(bytes);
+
+        char[] chars = new char[length + 1];
+        Arrays.fill(chars, 0, length, 'a');
+        chars[length] = '\uFFFD';
+        String expected = new String(chars);
+        assertEquals(expected, SourceLoader.readString(file));
+        try (CharSource source = SourceLoader.open(file)) {
+            StringBuilder read = new StringBuilder();
+            for (int i = 0; !source.isEnd(i); i++) {
+                read.append(source.charAt(i));
+                source.release(i);
+            }
+            assertEquals(expected, read.toString());
+        }
+    }
+
+    @Test
+    public void largeFileCanBeReplacedAfterClose() throws IOException {
+        StringBuilder sb = new StringBuilder("import a from './a';\n");
+        while (sb.length() <= SourceLoader.POOLED_BUFFER_SIZE * 3) {
+            sb.append("const \u7ec4\u4ef6 = 1;\n");
+        }
+        File file = write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        try (CharSource source = SourceLoader.open(file)) {
+            assertEquals("import", source.substring(0, 6));
+        }
+        //没有保留内存映射，关闭后可以立即覆盖和删除文件（Windows上映射会阻止这两个操作）
+        Files.write(file.toPath(), "b".getBytes(StandardCharsets.UTF_8));
+        assertEquals("b", SourceLoader.readString(file));
+        assertTrue(file.delete());
+    }
+
+    @Test
+    public void pooledBuffersAreReused() throws IOException {
+        File small = write("a".getBytes(StandardCharsets.UTF_8));
+        File other = write("bb".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 10; i++) {
+            assertEquals("a", SourceLoader.readString(small));
+            assertEquals("bb", SourceLoader.readString(other));
+        }
+    }
+
+    private static File write(byte[] bytes) throws IOException {
+        File file = File.createTempFile("source", ".jsx");
+        file.deleteOnExit();
+        Files.write(file.toPath(), bytes);
+        return file;
+    }
+}
@@ -0,0 +1,34 @@
+package org.wzl.depspider.ast.jsx.tokenizer;
+
+import org.junit.Test;
+import org.wzl.depspider.ast.core.tokenizer.Token;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JSXLexicalTest {
+
+    @Test
+    public void streamOffsetsMatchBytesOnDisk() {
+        String code = "// \u6ce8\u91ca\r\nimport \u7ec4\u4ef6 from './\u7ec4\u4ef6';\r\nconst a = 1;\r\n";
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        List<Token> tokens = new JSXLexical().analyze(new ByteArrayInputStream(bytes));
+
+        JSXToken comment = (JSXToken) tokens.get(0);
+        assertEquals(JSXToken.Type.COMMENT, comment.getType());
+        assertEquals(" \u6ce8\u91ca", comment.getValue());
+
+        JSXToken component = (JSXToken) tokens.get(2);
+        assertEquals("\u7ec4\u4ef6", component.getValue());
+        assertEquals(code.indexOf("\u7ec4\u4ef6"), component.getStartIndex());
+        String prefix = code.substring(0, component.getStartIndex());
+        assertEquals(prefix.getBytes(StandardCharsets.UTF_8).length, component.getStartByte());
+        assertEquals(2, component.getLine());
+
+        List<Token> fromString = new JSXLexical().analyze(code);
+        assertEquals(fromString.toString(), tokens.toString());
+    }
+}
@@ -0,0 +1,63 @@
+package org.wzl.depspider.ast.jsx.tokenizer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class SymbolTableTest {
+
+    @Test
+    public void returnsCanonicalInstances() {
+        SymbolTable symbols = new SymbolTable();
+        String react = symbols.intern(new String("react"));
+        char[] chars = "import 'react'".toCharArray();
+
+        assertSame(react, symbols.intern(chars, 8, 5));
+        assertSame(react, symbols.intern(new String("react")));
+        assertNotSame(react, symbols.intern("antd"));
+        assertEquals(2, symbols.size());
+
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i <= SymbolTable.MAX_SYMBOL_LENGTH; i++) {
+            longValue.append('a');
+        }
+        symbols.intern(longValue.toString());
+        assertEquals(2, symbols.size());
+        assertNull(symbols.intern(null));
+    }
+
+    @Test
+    public void sharesSymbolsAcrossThreads() throws Exception {
+        SymbolTable symbols = new SymbolTable();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String[]>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    String[] result = new String[2000];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = symbols.intern(("./m" + i).toCharArray(), 0, ("./m" + i).length());
+                    }
+                    return result;
+                }));
+            }
+            String[] first = futures.get(0).get();
+            for (Future<String[]> future : futures) {
+                String[] result = future.get();
+                for (int i = 0; i < first.length; i++) {
+                    assertEquals("./m" + i, result[i]);
+                    assertSame(first[i], result[i]);
+                }
+            }
+            assertEquals(2000, symbols.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
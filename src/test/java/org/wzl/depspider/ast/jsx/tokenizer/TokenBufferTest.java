@@ -0,0 +1,74 @@
+package org.wzl.depspider.ast.jsx.tokenizer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenBufferTest {
+
+    @Test
+    public void tokenizerFillsBufferWithoutTokenObjects() {
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            code.append("import { a").append(i).append(" } from './m").append(i).append("';\n");
+        }
+        JSXTokenizer tokenizer = new JSXTokenizer();
+        tokenizer.setSource(code.toString());
+        TokenBuffer buffer = new TokenBuffer(16);
+        int index;
+        do {
+            index = tokenizer.next(buffer);
+        } while (!buffer.isType(index, JSXToken.Type.EOF));
+
+        assertEquals(500 * 6 + 1, buffer.size());
+        assertEquals(JSXToken.Type.KEYWORD, buffer.type(6));
+        assertSame("import", buffer.value(6));
+        assertTrue(buffer.valueEquals(8, "a1"));
+        assertEquals("./m1", buffer.value(11));
+        assertEquals(2, buffer.line(11));
+        assertSame(buffer.value(7), buffer.value(1));
+    }
+
+    @Test
+    public void tokenMatchesBufferEntry() {
+        JSXTokenizer tokenizer = new JSXTokenizer();
+        tokenizer.setSource("// note\r\nconst x = 1;");
+        TokenBuffer buffer = new TokenBuffer();
+        int comment = tokenizer.next(buffer);
+        int keyword = tokenizer.next(buffer);
+
+        assertEquals(" note", buffer.value(comment));
+        JSXToken token = buffer.token(keyword);
+        assertEquals("const", token.getValue());
+        assertEquals(buffer.start(keyword), token.getStartIndex());
+        assertEquals(buffer.end(keyword), token.getEndIndex());
+        assertEquals(9, token.getStartByte());
+        assertSame(token, buffer.token(keyword));
+
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        int identifier = tokenizer.next(buffer);
+        assertEquals("x", buffer.value(identifier));
+        assertEquals("x", buffer.token(identifier).getValue());
+    }
+
+    @Test
+    public void keywordsAreRecognizedByValue() {
+        StringBuilder code = new StringBuilder();
+        for (String keyword : JSXTokenizer.KEYWORDS) {
+            code.append(keyword).append(' ');
+        }
+        code.append("imports Function fo extendsX x");
+        JSXTokenizer tokenizer = new JSXTokenizer();
+        tokenizer.setSource(code.toString());
+        TokenBuffer buffer = new TokenBuffer();
+        for (String keyword : JSXTokenizer.KEYWORDS) {
+            int index = tokenizer.next(buffer);
+            assertEquals(JSXToken.Type.KEYWORD, buffer.type(index));
+            assertSame(keyword, buffer.value(index));
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(JSXToken.Type.IDENTIFIER, buffer.type(tokenizer.next(buffer)));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.wzl.depspider.ast.jsx.tokenizer;
+
+import org.junit.Test;
+import org.wzl.depspider.ast.core.tokenizer.Token;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TokenStreamTest {
+
+    private static final String CODE = "import React from 'react';\n"
+            + "import { a, b } from \"./util\";\n"
+            + "// comment\n"
+            + "const App = () => <div>{a}</div>;\n"
+            + "export default App;\n";
+
+    @Test
+    public void streamProducesSameTokensAsTokenize() {
+        JSXTokenizer eager = new JSXTokenizer();
+        eager.setSource(CODE);
+        List<Token> expected = eager.tokenize();
+
+        JSXTokenizer lazy = new JSXTokenizer();
+        lazy.setSource(CODE);
+        TokenStream stream = new TokenStream(lazy);
+        for (int i = 0; i < expected.size(); i++) {
+            Token token = stream.get(i);
+            assertEquals(expected.get(i).toString(), token.toString());
+        }
+        assertNull(stream.get(expected.size()));
+        assertEquals(JSXToken.Type.EOF, stream.get(stream.eof()).getType());
+    }
+
+    @Test
+    public void streamScansOnlyRequestedTokens() {
+        JSXTokenizer tokenizer = new JSXTokenizer();
+        tokenizer.setSource(CODE);
+        TokenStream stream = new TokenStream(tokenizer);
+
+        assertEquals("import", stream.get(0).getValue());
+        assertEquals("React", stream.get(1).getValue());
+        assertEquals(2, stream.scannedSize());
+        assertFalse(tokenizer.isAtEnd());
+    }
+}
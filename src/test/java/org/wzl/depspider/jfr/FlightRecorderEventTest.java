@@ -0,0 +1,56 @@
+package org.wzl.depspider.jfr;
+
+import org.junit.Test;
+import org.wzl.depspider.ast.jsx.parser.JSXParse;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class FlightRecorderEventTest {
+
+    @Test
+    public void ignoresEventsWhenNotRecording() {
+        Object event = ScanEvents.PARSE.begin();
+        assertNull(event);
+        ScanEvents.PARSE.commit(null, "file", true, 1L, 1L);
+    }
+
+    @Test
+    public void recordsParseEvents() throws Exception {
+        assumeTrue(FlightRecorderEvent.isAvailable());
+        File source = Files.createTempFile("jfr", ".jsx").toFile();
+        Files.write(source.toPath(), "import React from 'react';\n".getBytes(StandardCharsets.UTF_8));
+
+        // 测试同样需要在Java 8上编译，通过反射使用 jdk.jfr.Recording
+        Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingClass.getConstructor().newInstance();
+        recordingClass.getMethod("enable", String.class).invoke(recording, "depspider.Parse");
+        recordingClass.getMethod("start").invoke(recording);
+        assertTrue(ScanEvents.PARSE.isEnabled());
+        new JSXParse(source.getAbsolutePath()).parse(true);
+        recordingClass.getMethod("stop").invoke(recording);
+
+        Path dump = Files.createTempFile("jfr", ".jfr");
+        recordingClass.getMethod("dump", Path.class).invoke(recording, dump);
+        recordingClass.getMethod("close").invoke(recording);
+
+        List<String> files = new ArrayList<>();
+        List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                .getMethod("readAllEvents", Path.class).invoke(null, dump);
+        for (Object event : events) {
+            Object type = event.getClass().getMethod("getEventType").invoke(event);
+            if ("depspider.Parse".equals(type.getClass().getMethod("getName").invoke(type))) {
+                files.add((String) event.getClass().getMethod("getString", String.class).invoke(event, "file"));
+                assertTrue((Long) event.getClass().getMethod("getLong", String.class).invoke(event, "tokens") > 0);
+            }
+        }
+        assertTrue(files.contains(source.getAbsolutePath()));
+    }
+}
@@ -0,0 +1,457 @@
+package org.wzl.depspider.react.project;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wzl.depspider.react.dto.FileImport;
+import org.wzl.depspider.react.dto.PageRouterDefine;
+import org.wzl.depspider.react.dto.ProjectFileRelation;
+import org.wzl.depspider.react.exception.ScanCancelledException;
+import org.wzl.depspider.react.project.config.ProjectConfiguration;
+import org.wzl.depspider.react.project.config.language.Language;
+import org.wzl.depspider.react.project.scan.CancellationToken;
+import org.wzl.depspider.react.project.scan.ScanListener;
+import org.wzl.depspider.react.project.scan.ScanPhase;
+import org.wzl.depspider.react.project.scan.ScanProgress;
+import org.wzl.depspider.react.project.scan.ScanStatistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ReactProjectOperatorTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("react-project").toFile();
+        write("package.json", "{\"dependencies\":{\"react\":\"18\"}}");
+        write("src/index.jsx", "import React from 'react';\nimport App from './App';\n");
+        write("src/App.jsx", "import React from 'react';\nimport Home from './pages/home';\nimport About from './pages/about';\n");
+        write("src/pages/home/index.jsx", "import Button from '../../components/Button';\n");
+        write("src/components/Button/index.jsx", "import React from 'react';\n");
+    }
+
+    @Test
+    public void updateMatchesFullRescan() throws IOException {
+        ReactProjectOperator operator = newOperator();
+        operator.jsxFileRelation();
+
+        File card = write("src/components/Card/index.jsx", "import Button from '../Button';\n");
+        File home = write("src/pages/home/index.jsx", "import Card from '../../components/Card';\n");
+        File button = new File(root, "src/components/Button/index.jsx");
+        assertTrue(button.delete());
+
+        operator.update(Arrays.asList(card.toPath(), home.toPath()), Collections.singletonList(button.toPath()));
+
+        assertEquals(relationMap(newOperator().jsxFileRelation()), relationMap(operator.jsxFileRelation()));
+        List<ProjectFileRelation> deep = operator.deepSearchProjectRelation(operator.jsxFileRelation());
+        List<ProjectFileRelation> expectedDeep = newOperator().deepSearchProjectRelation(newOperator().jsxFileRelation());
+        assertEquals(relationMap(expectedDeep), relationMap(deep));
+    }
+
+    @Test
+    public void updateResolvesImportersOfCreatedFile() throws IOException {
+        ReactProjectOperator operator = newOperator();
+        operator.jsxFileRelation();
+
+        File about = write("src/pages/about/index.jsx", "import React from 'react';\n");
+        operator.update(Collections.singletonList(about.toPath()), Collections.emptyList());
+
+        File app = new File(root, "src/App.jsx");
+        Map<String, List<File>> relations = relationMap(operator.jsxFileRelation());
+        assertTrue(relations.get(app.getAbsolutePath()).contains(about));
+        assertEquals(relationMap(newOperator().jsxFileRelation()), relations);
+    }
+
+    @Test
+    public void updateResolvesImportersOfExactPathAlias() throws IOException {
+        write("tsconfig.json", "{\"compilerOptions\":{\"baseUrl\":\".\",\"paths\":{\"@btn\":[\"src/shared/Button\"]}}}");
+        write("src/pages/about/index.jsx", "import Button from '@btn';\n");
+        ReactProjectOperator operator = newOperator();
+        operator.jsxFileRelation();
+
+        File button = write("src/shared/Button.jsx", "import React from 'react';\n");
+        operator.update(Collections.singletonList(button.toPath()), Collections.emptyList());
+        assertEquals(Collections.singletonList(new File(root, "src/pages/about/index.jsx")),
+                operator.findDependents(button));
+        assertEquals(relationMap(newOperator().jsxFileRelation()), relationMap(operator.jsxFileRelation()));
+
+        assertTrue(button.delete());
+        operator.update(Collections.emptyList(), Collections.singletonList(button.toPath()));
+        assertEquals(relationMap(newOperator().jsxFileRelation()), relationMap(operator.jsxFileRelation()));
+    }
+
+    @Test
+    public void updateReresolvesAllRelationsWhenPathAliasesChange() throws IOException {
+        write("src/shared/Button.jsx", "import React from 'react';\n");
+        write("src/pages/about/index.jsx", "import Button from '@btn';\n");
+        ReactProjectOperator operator = newOperator();
+        File button = new File(root, "src/shared/Button.jsx");
+        assertEquals(Collections.emptyList(), operator.findDependents(button));
+
+        File tsconfig = write("tsconfig.json",
+                "{\"compilerOptions\":{\"baseUrl\":\".\",\"paths\":{\"@btn\":[\"src/shared/Button\"]}}}");
+        operator.update(Collections.singletonList(tsconfig.toPath()), Collections.emptyList());
+        assertEquals(Collections.singletonList(new File(root, "src/pages/about/index.jsx")),
+                operator.findDependents(button));
+        assertEquals(relationMap(newOperator().jsxFileRelation()), relationMap(operator.jsxFileRelation()));
+    }
+
+    @Test
+    public void keepsUpdateThatArrivesDuringRefresh() throws Exception {
+        ReactProjectOperator operator = newOperator();
+        operator.jsxFileRelation();
+        File about = new File(root, "src/pages/about/index.jsx");
+        Thread[] updater = new Thread[1];
+
+        operator.refresh(new ScanListener() {
+            @Override
+            public void onDiscovered(ScanProgress progress) {
+                if (updater[0] != null) {
+                    return;
+                }
+                //在列出目录之后创建文件，重建的快照中没有这个文件，只能通过增量更新加入
+                try {
+                    write("src/pages/about/index.jsx", "import React from 'react';\n");
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                updater[0] = new Thread(() -> operator.update(
+                        Collections.singletonList(about.toPath()), Collections.emptyList()));
+                updater[0].start();
+                try {
+                    updater[0].join(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, null);
+        updater[0].join();
+
+        Map<String, List<File>> relations = relationMap(operator.jsxFileRelation());
+        assertTrue(relations.get(new File(root, "src/App.jsx").getAbsolutePath()).contains(about));
+        assertEquals(relationMap(newOperator().jsxFileRelation()), relations);
+    }
+
+    @Test
+    public void readsPackageJsonWithoutScanning() throws IOException {
+        ReactProjectOperator operator = newOperator();
+        assertEquals("{\"dependencies\":{\"react\":\"18\"}}", operator.getPackageJsonString());
+        assertEquals(0, operator.getLastScanStatistics().getPhase(ScanPhase.LIST).getFiles());
+
+        File packageJson = write("package.json", "{\"dependencies\":{\"react\":\"18\",\"react-router\":\"6\"}}");
+        assertTrue(packageJson.setLastModified(packageJson.lastModified() + 2000));
+        assertTrue(operator.getPackageJsonString().contains("react-router"));
+    }
+
+    @Test
+    public void findsTransitiveDependents() throws IOException {
+        ReactProjectOperator operator = newOperator();
+        File index = new File(root, "src/index.jsx");
+        File app = new File(root, "src/App.jsx");
+        File home = new File(root, "src/pages/home/index.jsx");
+        File button = new File(root, "src/components/Button/index.jsx");
+
+        assertEquals(Collections.singletonList(home), operator.findDependents(button));
+        assertEquals(Arrays.asList(home, app), operator.findTransitiveDependents(button, 2));
+        assertEquals(Arrays.asList(home, app, index), operator.findTransitiveDependents(button, 0));
+        assertEquals(Collections.emptyList(), operator.findTransitiveDependents(index, 0));
+
+        File card = write("src/components/Card/index.jsx", "import Home from '../../pages/home';\n");
+        write("src/components/Button/index.jsx", "import Card from '../Card';\n");
+        operator.update(Arrays.asList(card.toPath(), button.toPath()), Collections.emptyList());
+        assertEquals(Arrays.asList(home, app, card, index), operator.findTransitiveDependents(button, 0));
+    }
+
+    @Test
+    public void findsPagesAffectedByChangedFiles() throws IOException {
+        writeRoutes();
+        ReactProjectOperator operator = newOperator();
+        File button = new File(root, "src/components/Button/index.jsx");
+        File about = new File(root, "src/pages/about/index.jsx");
+
+        List<PageRouterDefine> affected = operator.findAffectedPages(Collections.singletonList(button));
+        assertEquals(1, affected.size());
+        assertEquals("/home", affected.get(0).getRoutePath());
+        assertEquals(2, operator.findAffectedPages(Arrays.asList(button, about)).size());
+
+        File home = new File(root, "src/pages/home/index.jsx");
+        Map<File, List<File>> reachable = operator.findReachableTargets(Arrays.asList(home, about), Collections.singletonList(button));
+        assertEquals(Collections.singletonList(button), reachable.get(home));
+        assertEquals(Collections.emptyList(), reachable.get(about));
+    }
+
+    @Test
+    public void parsesSingleRouteFileWithoutScanningProject() throws IOException {
+        writeRoutes();
+        write("src/routes/extra.js", "import Home from '@/pages/home';\nexport default [\n"
+                + "  { path: '/home', component: Home, title: 'Home' },\n"
+                + "  { path: '/button', lazy: () => import('Button'), title: 'Button' },\n];\n");
+        ReactProjectOperator operator = newOperator();
+
+        List<PageRouterDefine> defines = operator.parseRouteDefines("src/routes/extra.js");
+        ScanStatistics statistics = operator.getLastScanStatistics();
+        assertEquals(0, statistics.getPhase(ScanPhase.PARSE).getFiles());
+        assertEquals(1, statistics.getPhase(ScanPhase.ROUTE).getFiles());
+        assertEquals(2, defines.size());
+        assertEquals(new File(root, "src/components/Button/index.jsx"), defines.get(1).getComponentFile());
+
+        ReactProjectOperator scanned = newOperator();
+        scanned.jsxFileRelation();
+        assertEquals(defines, scanned.parseRouteDefines("src/routes/extra.js"));
+        assertEquals(1, scanned.getLastScanStatistics().getPhase(ScanPhase.ROUTE).getFiles());
+        assertEquals(defines, scanned.parseRouteDefines("src/routes/extra.js"));
+        assertEquals(0, scanned.getLastScanStatistics().getPhase(ScanPhase.ROUTE).getFiles());
+    }
+
+    @Test
+    public void relativeProjectPathKeepsGraphEdges() throws IOException {
+        write("tsconfig.json", "{\"compilerOptions\":{\"baseUrl\":\".\",\"paths\":{\"@btn\":[\"src/components/Button\"]}}}");
+        write("src/util.js", "export const a = 1;\n");
+        write("src/index.jsx", "import React from 'react';\nimport App from './App';\nimport { a } from './util';\n");
+        write("src/pages/about/index.jsx", "import Button from '@btn';\n");
+        String relativePath = new File("").getAbsoluteFile().toPath().relativize(root.toPath()).toString();
+        ProjectConfiguration configuration = new ProjectConfiguration();
+        configuration.setLanguages(new HashSet<>(Arrays.asList(Language.JS, Language.TS)));
+        ReactProjectOperator operator = new ReactProjectOperator(relativePath, configuration);
+
+        File projectFolder = new File(relativePath);
+        File index = new File(projectFolder, "src/index.jsx");
+        assertEquals(Collections.singletonList(index), operator.findDependents(new File(projectFolder, "src/util.js")));
+        assertEquals(Collections.singletonList(index), operator.findDependents(new File(projectFolder, "src/App.jsx")));
+        List<File> buttonDependents = operator.findDependents(new File(projectFolder, "src/components/Button/index.jsx"));
+        assertEquals(new HashSet<>(Arrays.asList(new File(projectFolder, "src/pages/home/index.jsx"),
+                new File(projectFolder, "src/pages/about/index.jsx"))), new HashSet<>(buttonDependents));
+        for (ProjectFileRelation relation : operator.jsxFileRelation()) {
+            for (File file : relation.getRelationFilePaths()) {
+                assertFalse(file.getPath(), file.isAbsolute());
+            }
+        }
+    }
+
+    @Test
+    public void discoversRoutesInParallelInSameOrder() throws IOException {
+        writeRoutes();
+        write("src/routes/admin.js", "import Button from '@/components/Button';\nexport default [\n"
+                + "  { path: '/admin', component: Button, title: 'Admin' },\n];\n");
+        write("src/routes/index.js", "import Home from '@/pages/home';\nimport admin from './admin';\n"
+                + "export default [\n  { path: '/home', component: Home, title: 'Home' },\n"
+                + "  { path: '/about', lazy: () => import('../pages/about'), title: 'About' },\n];\n");
+
+        List<PageRouterDefine> expected = newOperator(1).findPageRouterDefine();
+        assertEquals(3, expected.size());
+        assertEquals(expected, newOperator(4).findPageRouterDefine());
+    }
+
+    @Test
+    public void sharesImportSymbolsAcrossFiles() {
+        ReactProjectOperator operator = newOperator(4);
+        List<String> reactPaths = new ArrayList<>();
+        operator.scanFileImports(fileImport -> fileImport.getImports().stream()
+                .filter(detail -> "react".equals(detail.getImportPath()))
+                .forEach(detail -> reactPaths.add(detail.getImportPath())));
+
+        assertEquals(3, reactPaths.size());
+        for (String path : reactPaths) {
+            assertSame(reactPaths.get(0), path);
+        }
+
+        Map<String, List<String>> query = new HashMap<>();
+        query.put("react", null);
+        query.put("./pages/home", Collections.singletonList("Missing"));
+        assertEquals(3, operator.findJsxFileWithImport(query).size());
+        query.put("react", Collections.singletonList("Missing"));
+        assertEquals(Collections.emptyList(), operator.findJsxFileWithImport(query));
+        query.put("./pages/home", Arrays.asList("Missing", "Home"));
+        assertEquals(Collections.singletonList(new File(root, "src/App.jsx")),
+                operator.findJsxFileWithImport(query));
+    }
+
+    @Test
+    public void updateSharesImportSymbolsWithSnapshot() throws IOException {
+        ReactProjectOperator operator = newOperator();
+        operator.findFileImport();
+
+        File about = write("src/pages/about/index.jsx", "import React from 'react';\n");
+        File button = write("src/components/Button/index.jsx", "import React from 'react';\nimport App from '../../App';\n");
+        operator.update(Arrays.asList(about.toPath(), button.toPath()), Collections.emptyList());
+
+        List<String> reactPaths = new ArrayList<>();
+        for (FileImport fileImport : operator.findFileImport()) {
+            fileImport.getImports().stream()
+                    .filter(detail -> "react".equals(detail.getImportPath()))
+                    .forEach(detail -> reactPaths.add(detail.getImportPath()));
+        }
+        assertEquals(4, reactPaths.size());
+        for (String path : reactPaths) {
+            assertSame(reactPaths.get(0), path);
+        }
+    }
+
+    @Test
+    public void cancelledRefreshKeepsSymbolsOfSnapshot() throws IOException {
+        ReactProjectOperator operator = newOperator();
+        operator.findFileImport();
+        CancellationToken token = CancellationToken.create();
+        token.cancel();
+        try {
+            operator.refresh(null, token);
+            fail("refresh should be cancelled");
+        } catch (ScanCancelledException e) {
+            //保留原来的快照
+        }
+
+        File about = write("src/pages/about/index.jsx", "import React from 'react';\n");
+        operator.update(Collections.singletonList(about.toPath()), Collections.emptyList());
+        List<String> reactPaths = new ArrayList<>();
+        for (FileImport fileImport : operator.findFileImport()) {
+            fileImport.getImports().stream()
+                    .filter(detail -> "react".equals(detail.getImportPath()))
+                    .forEach(detail -> reactPaths.add(detail.getImportPath()));
+        }
+        assertEquals(4, reactPaths.size());
+        for (String path : reactPaths) {
+            assertSame(reactPaths.get(0), path);
+        }
+    }
+
+    @Test
+    public void streamsSameResultsWithoutBuildingSnapshot() {
+        ReactProjectOperator expected = newOperator();
+        ReactProjectOperator operator = newOperator(4);
+
+        List<ProjectFileRelation> relations = new ArrayList<>();
+        operator.scanRelations(relations::add);
+        List<FileImport> imports = new ArrayList<>();
+        operator.scanFileImports(imports::add);
+
+        assertEquals(expected.jsxFileRelation(), relations);
+        assertEquals(expected.findFileImport(), imports);
+
+        List<ProjectFileRelation> fromSnapshot = new ArrayList<>();
+        expected.scanRelations(fromSnapshot::add);
+        assertEquals(relations, fromSnapshot);
+    }
+
+    @Test
+    public void recordsStatisticsOfLastScan() {
+        ReactProjectOperator operator = newOperator(2);
+        operator.jsxFileRelation();
+
+        ScanStatistics statistics = operator.getLastScanStatistics();
+        assertEquals(4, statistics.getPhase(ScanPhase.LIST).getFiles());
+        assertEquals(4, statistics.getPhase(ScanPhase.PARSE).getFiles());
+        assertTrue(statistics.getPhase(ScanPhase.PARSE).getTokens() > 0);
+        assertTrue(statistics.getPhase(ScanPhase.PARSE).getBytes() > 0);
+        assertEquals(4, statistics.getPhase(ScanPhase.RESOLVE).getFiles());
+        assertTrue(statistics.getResolveCacheMisses() > 0);
+        assertTrue(statistics.getStatCalls() > 0);
+        assertEquals(8, statistics.getSlowestFiles().size());
+
+        operator.findDependents(new File(root, "src/App.jsx"));
+        assertSame(statistics, operator.getLastScanStatistics());
+    }
+
+    @Test
+    public void cancelsStreamingScanWithPartialProgress() {
+        CancellationToken token = CancellationToken.create();
+        ScanListener cancelAfterFirstFile = new ScanListener() {
+            @Override
+            public void onFileParsed(File file, ScanProgress progress) {
+                token.cancel();
+            }
+        };
+        List<ProjectFileRelation> relations = new ArrayList<>();
+        try {
+            newOperator().scanRelations(relations::add, cancelAfterFirstFile, token);
+            fail("scan should be cancelled");
+        } catch (ScanCancelledException e) {
+            assertEquals(4, e.getProgress().getDiscovered());
+            assertEquals(1, e.getProgress().getParsed());
+            assertTrue(relations.size() < 4);
+        }
+    }
+
+    @Test
+    public void keepsSnapshotWhenDeadlineExceeded() {
+        ReactProjectOperator operator = newOperator();
+        try {
+            operator.refresh(null, CancellationToken.withTimeout(1, TimeUnit.NANOSECONDS));
+            fail("scan should exceed its deadline");
+        } catch (ScanCancelledException e) {
+            assertEquals(0, e.getProgress().getParsed());
+        }
+        assertEquals(relationMap(newOperator().jsxFileRelation()), relationMap(operator.jsxFileRelation()));
+    }
+
+    @Test
+    public void reportsFilesThatFailToParse() {
+        File button = new File(root, "src/components/Button/index.jsx");
+        List<File> failed = new ArrayList<>();
+        ScanListener deleteAfterListing = new ScanListener() {
+            @Override
+            public void onDiscovered(ScanProgress progress) {
+                assertTrue(button.delete());
+            }
+
+            @Override
+            public void onFileFailed(File file, Throwable error, ScanProgress progress) {
+                failed.add(file);
+            }
+        };
+        ReactProjectOperator operator = newOperator();
+        operator.refresh(deleteAfterListing, null);
+
+        assertEquals(Collections.singletonList(button), failed);
+        assertEquals(3, operator.getLastScanStatistics().getPhase(ScanPhase.PARSE).getFiles());
+        assertEquals(4, operator.jsxFileRelation().size());
+    }
+
+    private void writeRoutes() throws IOException {
+        write("package.json", "{\"dependencies\":{\"react\":\"18\",\"react-router-dom\":\"6\"}}");
+        write("src/App.jsx", "import React from 'react';\nimport routes from './routes';\n"
+                + "import { BrowserRouter } from 'react-router-dom';\n");
+        write("src/routes/index.js", "import Home from '@/pages/home';\nexport default [\n"
+                + "  { path: '/home', component: Home, title: 'Home' },\n"
+                + "  { path: '/about', lazy: () => import('../pages/about'), title: 'About' },\n];\n");
+        write("src/pages/about/index.jsx", "import React from 'react';\n");
+    }
+
+    private ReactProjectOperator newOperator() {
+        return newOperator(1);
+    }
+
+    private ReactProjectOperator newOperator(int parallelism) {
+        ProjectConfiguration configuration = new ProjectConfiguration();
+        configuration.setLanguages(new HashSet<>(Arrays.asList(Language.JS, Language.TS)));
+        configuration.setParallelism(parallelism);
+        return new ReactProjectOperator(root.getAbsolutePath(), configuration);
+    }
+
+    private Map<String, List<File>> relationMap(List<ProjectFileRelation> relations) {
+        Map<String, List<File>> map = new HashMap<>();
+        for (ProjectFileRelation relation : relations) {
+            map.put(relation.getTargetFile().getAbsolutePath(), relation.getRelationFilePaths());
+        }
+        return map;
+    }
+
+    private File write(String relativePath, String content) throws IOException {
+        File file = new File(root, relativePath);
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
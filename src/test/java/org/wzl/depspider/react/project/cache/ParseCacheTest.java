@@ -0,0 +1,130 @@
+package org.wzl.depspider.react.project.cache;
+
+import org.junit.Test;
+import org.wzl.depspider.ast.jsx.parser.JSXParse;
+import org.wzl.depspider.ast.jsx.visitor.JSXImportVisitor;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParseCacheTest {
+
+    @Test
+    public void flushedEntriesAreReloadedUntilFileChanges() throws IOException {
+        File root = Files.createTempDirectory("cache").toFile();
+        File source = new File(root, "index.jsx");
+        Files.write(source.toPath(), "import React from 'react';".getBytes(StandardCharsets.UTF_8));
+        assertTrue(source.setLastModified(System.currentTimeMillis() - 60_000));
+
+        JSXImportVisitor.ImportRecord record = new JSXImportVisitor.ImportRecord("react");
+        record.importedNames.add("React");
+
+        ParseCache cache = new ParseCache(new File(root, ".depspider/cache"));
+        cache.put(source, ParseCache.FileStamp.of(source), Collections.singletonList(record));
+        cache.flush();
+
+        ParseCache reloaded = new ParseCache(new File(root, ".depspider/cache"));
+        List<JSXImportVisitor.ImportRecord> cached = reloaded.get(source, ParseCache.FileStamp.of(source));
+        assertNotNull(cached);
+        assertEquals("react", cached.get(0).sourcePath);
+        assertEquals(Collections.singletonList("React"), cached.get(0).importedNames);
+
+        Files.write(source.toPath(), "import React, { useState } from 'react';".getBytes(StandardCharsets.UTF_8));
+        assertNull(reloaded.get(source, ParseCache.FileStamp.of(source)));
+    }
+
+    @Test
+    public void skipsFilesModifiedJustBeforeReading() throws IOException {
+        File root = Files.createTempDirectory("cache").toFile();
+        File source = new File(root, "index.jsx");
+        Files.write(source.toPath(), "import React from 'react';".getBytes(StandardCharsets.UTF_8));
+
+        ParseCache cache = new ParseCache(new File(root, ".depspider/cache"));
+        cache.put(source, ParseCache.FileStamp.of(source), Collections.singletonList(record()));
+        assertNull(cache.get(source, ParseCache.FileStamp.of(source)));
+    }
+
+    @Test
+    public void treatsCorruptCacheAsEmpty() throws IOException {
+        File root = Files.createTempDirectory("cache").toFile();
+        File source = new File(root, "index.jsx");
+        Files.write(source.toPath(), "import React from 'react';".getBytes(StandardCharsets.UTF_8));
+        assertTrue(source.setLastModified(System.currentTimeMillis() - 60_000));
+        File directory = new File(root, ".depspider/cache");
+        assertTrue(directory.mkdirs());
+
+        //字符串下标越界
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(directory, "imports.bin")))) {
+            out.writeInt(0x44535043);
+            out.writeInt(1);
+            out.writeInt(JSXParse.PARSER_VERSION);
+            out.writeInt(0);
+            out.writeInt(1);
+            out.writeInt(7);
+        }
+        ParseCache cache = new ParseCache(directory);
+        assertNull(cache.get(source, ParseCache.FileStamp.of(source)));
+
+        cache.put(source, ParseCache.FileStamp.of(source), Collections.singletonList(record()));
+        cache.flush();
+        assertNotNull(new ParseCache(directory).get(source, ParseCache.FileStamp.of(source)));
+        assertEquals(1, directory.list().length);
+    }
+
+    @Test
+    public void retainsOnlyListedFiles() throws IOException {
+        File root = Files.createTempDirectory("cache").toFile();
+        File kept = new File(root, "kept.jsx");
+        File deleted = new File(root, "deleted.jsx");
+        for (File file : new File[]{kept, deleted}) {
+            Files.write(file.toPath(), "import React from 'react';".getBytes(StandardCharsets.UTF_8));
+            assertTrue(file.setLastModified(System.currentTimeMillis() - 60_000));
+        }
+        ParseCache cache = new ParseCache(new File(root, ".depspider/cache"));
+        cache.put(kept, ParseCache.FileStamp.of(kept), Collections.singletonList(record()));
+        cache.put(deleted, ParseCache.FileStamp.of(deleted), Collections.singletonList(record()));
+
+        cache.retain(Collections.singletonList(kept));
+        assertNotNull(cache.get(kept, ParseCache.FileStamp.of(kept)));
+        assertNull(cache.get(deleted, ParseCache.FileStamp.of(deleted)));
+    }
+
+    @Test
+    public void skipsEntriesThatCannotBeWritten() throws IOException {
+        File root = Files.createTempDirectory("cache").toFile();
+        File kept = new File(root, "kept.jsx");
+        File huge = new File(root, "huge.jsx");
+        for (File file : new File[]{kept, huge}) {
+            Files.write(file.toPath(), "import React from 'react';".getBytes(StandardCharsets.UTF_8));
+            assertTrue(file.setLastModified(System.currentTimeMillis() - 60_000));
+        }
+        char[] chars = new char[30_000];
+        Arrays.fill(chars, '\u7ec4');
+        JSXImportVisitor.ImportRecord hugeRecord = new JSXImportVisitor.ImportRecord(new String(chars));
+        File directory = new File(root, ".depspider/cache");
+
+        ParseCache cache = new ParseCache(directory);
+        cache.put(huge, ParseCache.FileStamp.of(huge), Collections.singletonList(hugeRecord));
+        cache.put(kept, ParseCache.FileStamp.of(kept), Collections.singletonList(record()));
+        cache.flush();
+
+        ParseCache reloaded = new ParseCache(directory);
+        assertNotNull(reloaded.get(kept, ParseCache.FileStamp.of(kept)));
+        assertNull(reloaded.get(huge, ParseCache.FileStamp.of(huge)));
+    }
+
+    private static JSXImportVisitor.ImportRecord record() {
+        JSXImportVisitor.ImportRecord record = new JSXImportVisitor.ImportRecord("react");
+        record.importedNames.add("React");
+        return record;
+    }
+}
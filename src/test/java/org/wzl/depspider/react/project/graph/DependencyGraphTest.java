@@ -0,0 +1,82 @@
+package org.wzl.depspider.react.project.graph;
+
+import org.junit.Test;
+import org.wzl.depspider.react.dto.ImportCycle;
+import org.wzl.depspider.react.dto.ProjectFileRelation;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class DependencyGraphTest {
+
+    private final File app = new File("src/App.jsx");
+    private final File home = new File("src/pages/home.jsx");
+    private final File about = new File("src/pages/about.jsx");
+    private final File button = new File("src/components/Button.jsx");
+
+    @Test
+    public void numbersFilesByPath() {
+        Map<File, List<File>> relations = new LinkedHashMap<>();
+        relations.put(home, Arrays.asList(button, button));
+        relations.put(app, Arrays.asList(home, about));
+        relations.put(about, Collections.singletonList(button));
+        DependencyGraph graph = DependencyGraph.of(relations);
+
+        assertEquals(4, graph.size());
+        assertEquals(4, graph.edgeCount());
+        assertEquals(app, graph.file(0));
+        assertEquals(-1, graph.id(new File("src/missing.jsx")));
+        assertEquals(Collections.singletonList(app), graph.roots());
+        assertEquals(Arrays.asList(about, home), graph.dependents(button));
+        assertEquals(Arrays.asList(about, home, app), graph.transitiveDependents(button, 0));
+        assertEquals(Arrays.asList(about, home), graph.transitiveDependents(button, 1));
+        assertEquals(Arrays.asList(button, about, home), graph.closure(app));
+    }
+
+    @Test
+    public void answersManyToManyReachability() {
+        File util = new File("src/utils/format.js");
+        Map<File, List<File>> relations = new LinkedHashMap<>();
+        relations.put(app, Arrays.asList(home, about));
+        relations.put(home, Collections.singletonList(button));
+        relations.put(about, Collections.singletonList(util));
+        DependencyGraph graph = DependencyGraph.of(relations);
+
+        Map<File, List<File>> reachable = graph.reachableTargets(Arrays.asList(home, about, app, util),
+                Arrays.asList(button, util, new File("src/other.js")));
+        assertEquals(Collections.singletonList(button), reachable.get(home));
+        assertEquals(Collections.singletonList(util), reachable.get(about));
+        assertEquals(Arrays.asList(button, util), reachable.get(app));
+        assertEquals(Collections.singletonList(util), reachable.get(util));
+
+        assertEquals(Arrays.asList(home, app), graph.reachingAny(Arrays.asList(home, about, app), Collections.singletonList(button)));
+        assertEquals(Collections.singletonList(new File("src/new.js")),
+                graph.reachingAny(Collections.singletonList(new File("src/new.js")), Collections.singletonList(new File("src/new.js"))));
+    }
+
+    @Test
+    public void reportsImportCycles() {
+        Map<File, List<File>> relations = new LinkedHashMap<>();
+        relations.put(app, Arrays.asList(home, about));
+        relations.put(home, Arrays.asList(button, app));
+        relations.put(about, Collections.singletonList(about));
+        relations.put(button, Collections.emptyList());
+        DependencyGraph graph = DependencyGraph.of(relations);
+
+        List<ImportCycle> cycles = graph.importCycles();
+        assertEquals(2, cycles.size());
+        assertEquals(Arrays.asList(app, home), cycles.get(0).getFiles());
+        assertEquals(Arrays.asList(
+                new ProjectFileRelation(app, Collections.singletonList(home)),
+                new ProjectFileRelation(home, Collections.singletonList(app))), cycles.get(0).getRelations());
+        assertEquals(Collections.singletonList(about), cycles.get(1).getFiles());
+        assertEquals(Collections.singletonList(new ProjectFileRelation(about, Collections.singletonList(about))),
+                cycles.get(1).getRelations());
+    }
+}
@@ -0,0 +1,56 @@
+package org.wzl.depspider.react.project.graph;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StronglyConnectedComponentsTest {
+
+    @Test
+    public void condensesCyclesIntoDag() {
+        // 0 -> 1 -> 2 -> 1, 0 -> 2, 2 -> 3, 4 -> 4
+        StronglyConnectedComponents scc = components(new int[][]{{1, 2}, {2}, {1, 3}, {}, {4}});
+
+        assertEquals(4, scc.componentCount());
+        int cycle = scc.componentOf(1);
+        assertEquals(cycle, scc.componentOf(2));
+        assertArrayEquals(new int[]{1, 2}, scc.members(cycle));
+        assertTrue(scc.isCyclic(cycle));
+        assertTrue(scc.isCyclic(scc.componentOf(4)));
+        assertFalse(scc.isCyclic(scc.componentOf(0)));
+
+        assertArrayEquals(new int[]{cycle}, scc.successors(scc.componentOf(0)));
+        assertArrayEquals(new int[]{scc.componentOf(3)}, scc.successors(cycle));
+        assertArrayEquals(new int[0], scc.successors(scc.componentOf(4)));
+        for (int c = 0; c < scc.componentCount(); c++) {
+            for (int next : scc.successors(c)) {
+                assertTrue(next < c);
+            }
+        }
+    }
+
+    @Test
+    public void handlesDeepChainsWithoutRecursion() {
+        int n = 200000;
+        int[][] successors = new int[n][];
+        for (int i = 0; i < n; i++) {
+            successors[i] = new int[]{(i + 1) % n};
+        }
+        StronglyConnectedComponents scc = components(successors);
+
+        assertEquals(1, scc.componentCount());
+        assertEquals(n, new TransitiveClosure(scc).reachable(n / 2).cardinality());
+    }
+
+    static StronglyConnectedComponents components(int[][] successors) {
+        int[] offsets = new int[successors.length + 1];
+        for (int i = 0; i < successors.length; i++) {
+            offsets[i + 1] = offsets[i] + successors[i].length;
+        }
+        int[] targets = new int[offsets[successors.length]];
+        for (int i = 0; i < successors.length; i++) {
+            System.arraycopy(successors[i], 0, targets, offsets[i], successors[i].length);
+        }
+        return new StronglyConnectedComponents(offsets, targets);
+    }
+}
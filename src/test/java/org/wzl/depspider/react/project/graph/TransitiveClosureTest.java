@@ -0,0 +1,32 @@
+package org.wzl.depspider.react.project.graph;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+public class TransitiveClosureTest {
+
+    @Test
+    public void sharesReachabilityAcrossCycles() {
+        // 0 -> 1 -> 2 -> 1, 2 -> 3, 4 -> 4, 5 -> 0
+        TransitiveClosure closure = new TransitiveClosure(
+                StronglyConnectedComponentsTest.components(new int[][]{{1}, {2}, {1, 3}, {}, {4}, {0}}));
+
+        assertEquals(bits(1, 2, 3), closure.reachable(0));
+        assertEquals(bits(1, 2, 3), closure.reachable(2));
+        assertEquals(bits(0, 1, 2, 3), closure.reachable(5));
+        assertEquals(bits(), closure.reachable(3));
+        assertEquals(bits(4), closure.reachable(4));
+        assertEquals(bits(3), closure.reachableWithin(5, bits(3, 4)));
+    }
+
+    private static BitSet bits(int... values) {
+        BitSet bits = new BitSet();
+        for (int value : values) {
+            bits.set(value);
+        }
+        return bits;
+    }
+}
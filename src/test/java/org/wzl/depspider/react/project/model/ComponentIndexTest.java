@@ -0,0 +1,54 @@
+package org.wzl.depspider.react.project.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ComponentIndexTest {
+
+    private ComponentIndex index;
+
+    @Before
+    public void setUp() {
+        //测试中直接用文件路径作为路径段
+        index = new ComponentIndex(file -> Arrays.asList(file.getPath().split("/")));
+    }
+
+    @Test
+    public void findsLongestSuffix() {
+        index.add(new File("order/List"));
+        index.add(new File("pages/order/List"));
+        index.add(new File("user/List"));
+
+        assertEquals(new File("pages/order/List"), index.find(segments("pages/order/List")));
+        assertEquals(new File("user/List"), index.find(segments("admin/user/List")));
+        assertEquals(new File("order/List"), index.find(segments("order/List")));
+        assertNull(index.find(segments("pages/Detail")));
+    }
+
+    @Test
+    public void prefersShorterPathThenInsertionOrder() {
+        index.add(new File("a/b/Card"));
+        index.add(new File("c/Card"));
+        index.add(new File("d/Card"));
+
+        assertEquals(new File("c/Card"), index.find(segments("x/Card")));
+        assertEquals(new File("c/Card"), index.find(segments("CARD")));
+
+        index.remove(new File("c/Card"));
+        assertEquals(new File("d/Card"), index.find(segments("x/Card")));
+
+        index.remove(new File("d/Card"));
+        index.remove(new File("a/b/Card"));
+        assertNull(index.find(segments("Card")));
+    }
+
+    private static List<String> segments(String path) {
+        return Arrays.asList(path.split("/"));
+    }
+}
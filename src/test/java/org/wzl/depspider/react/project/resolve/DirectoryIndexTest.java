@@ -0,0 +1,78 @@
+package org.wzl.depspider.react.project.resolve;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class DirectoryIndexTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("directory-index").toFile();
+        assertTrue(new File(root, "components/Button").mkdirs());
+        assertTrue(new File(root, "components/Button/index.jsx").createNewFile());
+        assertTrue(new File(root, "components/Card.module.less").createNewFile());
+    }
+
+    @Test
+    public void answersFromListing() {
+        DirectoryIndex index = new DirectoryIndex();
+        File components = new File(root, "components");
+
+        assertTrue(index.isDirectory(new File(components, "Button")));
+        assertFalse(index.isFile(new File(components, "Button")));
+        assertTrue(index.isFile(new File(components, "Button/index.jsx")));
+        assertTrue(index.exists(new File(components, "Card.module.less")));
+        assertFalse(index.exists(new File(components, "Missing")));
+        assertFalse(index.isFile(new File(root, "missing/index.js")));
+
+        assertEquals(new File(components, "Button/index.jsx"),
+                index.findChild(new File(components, "Button"), "index", ".js", ".jsx"));
+        assertNull(index.findChild(new File(components, "Button"), "index", ".ts", ".tsx"));
+        assertTrue(index.listing(components).hasFileWithBaseName("Card"));
+    }
+
+    @Test
+    public void listingIsReusedWithinScanAndRefreshedOnNextScan() throws IOException {
+        DirectoryIndex index = new DirectoryIndex();
+        index.beginScan();
+        File created = new File(root, "components/Button/index.ts");
+        assertFalse(index.isFile(created));
+
+        assertTrue(created.createNewFile());
+        assertFalse(index.isFile(created));
+
+        index.beginScan();
+        assertTrue(index.isFile(created));
+
+        assertTrue(created.delete());
+        index.beginScan();
+        assertFalse(index.isFile(created));
+    }
+
+    @Test
+    public void matchesCaseLikeFileSystem() {
+        DirectoryIndex index = new DirectoryIndex();
+        File components = new File(root, "components");
+        File lowerCase = new File(components, "button/index.jsx");
+
+        //区分大小写的文件系统上找不到，不区分大小写时与 File#isFile 一样可以找到，并返回实际的名字
+        assertEquals(lowerCase.isFile(), index.isFile(lowerCase));
+        assertEquals(new File(components, "button").isDirectory(), index.isDirectory(new File(components, "button")));
+        assertEquals(new File(components, "card.module.less").exists(),
+                index.listing(components).hasFileWithBaseName("card"));
+        if (lowerCase.isFile()) {
+            assertEquals("Button", index.listing(components).actualName("button"));
+        } else {
+            assertNull(index.listing(components).actualName("button"));
+        }
+        assertEquals("Button", index.listing(components).actualName("Button"));
+    }
+}
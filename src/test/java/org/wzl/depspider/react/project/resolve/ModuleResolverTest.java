@@ -0,0 +1,79 @@
+package org.wzl.depspider.react.project.resolve;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wzl.depspider.react.project.config.language.JSLanguageStrategy;
+import org.wzl.depspider.react.project.config.language.Language;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ModuleResolverTest {
+
+    private File root;
+
+    private File src;
+
+    private ModuleResolver resolver;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("module-resolver").toFile();
+        src = new File(root, "src");
+        assertTrue(new File(src, "components/Button").mkdirs());
+        assertTrue(new File(src, "components/Button/index.jsx").createNewFile());
+        assertTrue(new File(src, "pages/home").mkdirs());
+        resolver = new ModuleResolver(root, src, Collections.singleton(Language.JS),
+                new JSLanguageStrategy(), new DirectoryIndex(), importPath -> null);
+        resolver.beginScan();
+    }
+
+    @Test
+    public void cachesBySourceDirectory() {
+        File home = new File(src, "pages/home/index.jsx");
+        File detail = new File(src, "pages/home/detail.jsx");
+        File button = new File(src, "components/Button/index.jsx");
+
+        assertEquals(button, resolver.resolve(home, "@/components/Button"));
+        assertEquals(button, resolver.resolve(detail, "@/components/Button"));
+        assertEquals(button, resolver.resolve(home, "../../components/Button"));
+        assertEquals(2, resolver.getMissCount());
+        assertEquals(1, resolver.getHitCount());
+    }
+
+    @Test
+    public void cachesMissingModules() throws IOException {
+        File home = new File(src, "pages/home/index.jsx");
+        assertNull(resolver.resolve(home, "react"));
+        assertNull(resolver.resolve(home, "@/components/Card"));
+        assertNull(resolver.resolve(home, "react"));
+        assertNull(resolver.resolve(home, "@/components/Card"));
+        assertEquals(2, resolver.getMissCount());
+        assertEquals(2, resolver.getHitCount());
+
+        assertTrue(new File(src, "components/Card.jsx").createNewFile());
+        assertNull(resolver.resolve(home, "@/components/Card"));
+        resolver.beginScan();
+        assertEquals(new File(src, "components/Card.jsx"), resolver.resolve(home, "@/components/Card"));
+    }
+
+    @Test
+    public void resolvesTsconfigPaths() throws IOException {
+        assertTrue(new File(root, "shared/lib").mkdirs());
+        assertTrue(new File(root, "shared/lib/format.js").createNewFile());
+        Files.write(new File(root, "tsconfig.json").toPath(),
+                "{\"compilerOptions\": {\"baseUrl\": \".\", \"paths\": {\"~lib/*\": [\"shared/lib/*\"]}}}"
+                        .getBytes(StandardCharsets.UTF_8));
+        resolver.beginScan();
+
+        File home = new File(src, "pages/home/index.jsx");
+        assertEquals(new File(root, "shared/lib/format.js"), resolver.resolve(home, "~lib/format"));
+        assertEquals(new File(src, "components/Button/index.jsx"), resolver.resolve(home, "src/components/Button"));
+        assertEquals(new File(root, "shared/lib/format.js"), resolver.resolveComponent(home, "~lib/format"));
+    }
+}
@@ -0,0 +1,92 @@
+package org.wzl.depspider.react.project.resolve;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class PathAliasesTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("path-aliases").toFile();
+    }
+
+    @Test
+    public void mergesExtendsChain() throws IOException {
+        write("node_modules/@company/tsconfig/tsconfig.json",
+                "{\"compilerOptions\": {\"baseUrl\": \"/should/be/overridden\"}}");
+        write("configs/base.json", "{\n"
+                + "  // comments and trailing commas are allowed\n"
+                + "  \"extends\": \"@company/tsconfig\",\n"
+                + "  \"compilerOptions\": {\n"
+                + "    \"baseUrl\": \"..\",\n"
+                + "    \"paths\": {\"@/*\": [\"src/*\"], \"@components/*\": [\"src/components/*\", \"legacy/*\"],},\n"
+                + "  },\n"
+                + "}");
+        write("tsconfig.json", "{\"extends\": \"./configs/base\"}");
+
+        PathAliases aliases = PathAliases.load(root);
+
+        assertEquals(Arrays.asList(file("src/pages/home"), file("@/pages/home")), aliases.candidates("@/pages/home"));
+        assertEquals(Arrays.asList(file("src/components/Button"), file("legacy/Button"), file("@components/Button")),
+                aliases.candidates("@components/Button"));
+        assertEquals(Collections.singletonList(file("lodash")), aliases.candidates("lodash"));
+        assertEquals(Collections.emptyList(), aliases.candidates("./local"));
+    }
+
+    @Test
+    public void prefersExactThenLongestPrefix() throws IOException {
+        write("jsconfig.json", "{\"compilerOptions\": {\"paths\": {"
+                + "\"*\": [\"types/*\"],"
+                + "\"~/*\": [\"src/*\"],"
+                + "\"~/utils/*\": [\"shared/utils/*\"],"
+                + "\"~/config\": [\"config/index\"]"
+                + "}}}");
+
+        PathAliases aliases = PathAliases.load(root);
+
+        assertEquals(Collections.singletonList(file("shared/utils/date")), aliases.candidates("~/utils/date"));
+        assertEquals(Collections.singletonList(file("src/pages")), aliases.candidates("~/pages"));
+        assertEquals(Collections.singletonList(file("config/index")), aliases.candidates("~/config"));
+        assertEquals(Collections.singletonList(file("types/react")), aliases.candidates("react"));
+    }
+
+    @Test
+    public void detectsConfigChanges() throws IOException {
+        PathAliases empty = PathAliases.load(root);
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.isStale());
+
+        write("tsconfig.json", "{\"compilerOptions\": {\"baseUrl\": \"src\"}}");
+        assertTrue(empty.isStale());
+        assertEquals(Collections.singletonList(file("src/App")), PathAliases.load(root).candidates("App"));
+    }
+
+    @Test
+    public void ignoresCircularExtends() throws IOException {
+        write("tsconfig.json", "{\"extends\": \"./other.json\", \"compilerOptions\": {\"baseUrl\": \".\"}}");
+        write("other.json", "{\"extends\": \"./tsconfig.json\"}");
+
+        assertTrue(PathAliases.load(root).isEmpty());
+    }
+
+    private File file(String path) {
+        return new File(root, path).toPath().normalize().toFile();
+    }
+
+    private void write(String path, String content) throws IOException {
+        File file = new File(root, path);
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+package org.wzl.depspider.react.project.scan;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static org.junit.Assert.*;
+
+public class ScanExecutorTest {
+
+    @Test
+    public void parallelMapKeepsInputOrder() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(i);
+        }
+        List<Integer> serial = new ScanExecutor(1).map(items, i -> i * 2);
+        List<Integer> parallel = new ScanExecutor(4).map(items, i -> i * 2);
+        assertEquals(serial, parallel);
+        assertEquals(Integer.valueOf(1998), parallel.get(999));
+    }
+
+    @Test
+    public void parallelMapPropagatesException() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(i);
+        }
+        try {
+            new ScanExecutor(4).map(items, i -> {
+                if (i == 42) {
+                    throw new IllegalStateException("boom");
+                }
+                return i;
+            });
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // expected exception
+        }
+    }
+
+    @Test
+    public void reusesPoolAcrossCalls() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(i);
+        }
+        ScanExecutor executor = new ScanExecutor(4);
+        Set<Object> pools = ConcurrentHashMap.newKeySet();
+        for (int call = 0; call < 3; call++) {
+            executor.map(items, i -> recordPool(pools));
+            executor.forEachOrdered(items, i -> recordPool(pools), added -> { });
+        }
+        assertEquals(1, pools.size());
+    }
+
+    private static boolean recordPool(Set<Object> pools) {
+        Thread thread = Thread.currentThread();
+        return thread instanceof ForkJoinWorkerThread && pools.add(((ForkJoinWorkerThread) thread).getPool());
+    }
+}
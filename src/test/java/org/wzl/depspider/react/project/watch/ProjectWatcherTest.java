@@ -0,0 +1,137 @@
+package org.wzl.depspider.react.project.watch;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wzl.depspider.react.exception.ScanCancelledException;
+import org.wzl.depspider.react.project.ReactProjectOperator;
+import org.wzl.depspider.react.project.config.ProjectConfiguration;
+import org.wzl.depspider.react.project.config.language.Language;
+import org.wzl.depspider.react.project.scan.ScanProgress;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class ProjectWatcherTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("react-watch").toFile();
+        write("package.json", "{\"dependencies\":{\"react\":\"18\"}}");
+        write("src/index.jsx", "import React from 'react';\nimport App from './App';\n");
+        write("src/App.jsx", "import React from 'react';\n");
+    }
+
+    @Test
+    public void pollingAppliesCreateModifyAndDelete() throws Exception {
+        ReactProjectOperator operator = newOperator();
+        File app = new File(root, "src/App.jsx");
+        File index = new File(root, "src/index.jsx");
+        File button = new File(root, "src/Button.jsx");
+
+        try (ProjectWatcher watcher = operator.watch()) {
+            assertTrue(watcher.isPolling());
+            assertEquals(Collections.singletonList(index), operator.findDependents(app));
+
+            //新建Button并在App中引用
+            write("src/Button.jsx", "import React from 'react';\n");
+            write("src/App.jsx", "import React from 'react';\nimport Button from './Button';\n");
+            awaitEquals(Collections.singletonList(app), () -> operator.findDependents(button));
+
+            //修改index，不再引用App
+            write("src/index.jsx", "import React from 'react';\n");
+            awaitEquals(Collections.emptyList(), () -> operator.findDependents(app));
+
+            //删除Button
+            assertTrue(button.delete());
+            awaitEquals(Collections.emptyList(), () -> operator.findDependents(button));
+        }
+    }
+
+    @Test
+    public void pollingWatchesPathAliasConfig() throws Exception {
+        write("src/shared/Button.jsx", "import React from 'react';\n");
+        write("src/App.jsx", "import Button from '@btn';\n");
+        ReactProjectOperator operator = newOperator();
+        File button = new File(root, "src/shared/Button.jsx");
+
+        try (ProjectWatcher ignored = operator.watch()) {
+            assertEquals(Collections.emptyList(), operator.findDependents(button));
+            write("tsconfig.json", "{\"compilerOptions\":{\"baseUrl\":\".\",\"paths\":{\"@btn\":[\"src/shared/Button\"]}}}");
+            awaitEquals(Collections.singletonList(new File(root, "src/App.jsx")), () -> operator.findDependents(button));
+        }
+    }
+
+    @Test
+    public void rescansProjectWhenUpdateFails() throws Exception {
+        AtomicInteger refreshes = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        ReactProjectOperator operator = new ReactProjectOperator(root.getAbsolutePath(), configuration()) {
+            @Override
+            public void update(Collection<Path> changed, Collection<Path> deleted) {
+                if (!changed.isEmpty() && failed.compareAndSet(false, true)) {
+                    throw new ScanCancelledException("scan deadline exceeded", new ScanProgress());
+                }
+                super.update(changed, deleted);
+            }
+
+            @Override
+            public void refresh() {
+                refreshes.incrementAndGet();
+                super.refresh();
+            }
+        };
+        File app = new File(root, "src/App.jsx");
+        File button = new File(root, "src/Button.jsx");
+
+        try (ProjectWatcher ignored = operator.watch()) {
+            write("src/Button.jsx", "import React from 'react';\n");
+            write("src/App.jsx", "import React from 'react';\nimport Button from './Button';\n");
+            awaitEquals(Collections.singletonList(app), () -> operator.findDependents(button));
+            assertTrue(failed.get());
+            assertEquals(1, refreshes.get());
+        }
+    }
+
+    private ReactProjectOperator newOperator() {
+        return new ReactProjectOperator(root.getAbsolutePath(), configuration());
+    }
+
+    private static ProjectConfiguration configuration() {
+        ProjectConfiguration configuration = new ProjectConfiguration();
+        configuration.setLanguages(new HashSet<>(Arrays.asList(Language.JS, Language.TS)));
+        configuration.setWatchPolling(true);
+        configuration.setWatchPollingIntervalMillis(20);
+        configuration.setWatchDebounceMillis(20);
+        return configuration;
+    }
+
+    private static void awaitEquals(List<File> expected, Supplier<List<File>> actual) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!expected.equals(actual.get()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, actual.get());
+    }
+
+    private File write(String relativePath, String content) throws IOException {
+        File file = new File(root, relativePath);
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}